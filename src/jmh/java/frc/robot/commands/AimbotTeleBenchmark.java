@@ -0,0 +1,98 @@
+package frc.robot.commands;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
+import frc.robot.subsystems.drive.Drive;
+import frc.robot.subsystems.drive.GyroIO;
+import frc.robot.subsystems.drive.ModuleIOSim;
+import frc.robot.subsystems.drive.VisionIO;
+import frc.robot.subsystems.intake.Intake;
+import frc.robot.subsystems.intake.IntakeRollerIOSim;
+import frc.robot.subsystems.led.LED;
+import frc.robot.subsystems.led.LED_IOSim;
+import frc.robot.subsystems.pivot.Pivot;
+import frc.robot.subsystems.pivot.PivotIOSim;
+import frc.robot.subsystems.shooter.DistanceSensorIO;
+import frc.robot.subsystems.shooter.FeederIOSim;
+import frc.robot.subsystems.shooter.FlywheelIOSim;
+import frc.robot.subsystems.shooter.LeafBlowerIO;
+import frc.robot.subsystems.shooter.Shooter;
+import frc.robot.util.FieldConstants;
+import frc.robot.util.ShotTable;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures one loop of {@link AimbotTele} (execute and isFinished) with sim subsystems: heading
+ * control toward the speaker plus the flywheel and pivot setpoints for the distance, looked up from
+ * the teleop shot profile. The distances cover each part of that profile: the sloped pivot, the
+ * clamped pivot before the 12 ft step, the RPM line past the step and the clamped minimum RPM.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AimbotTeleBenchmark {
+  @Param({"2.0", "3.5", "3.9", "4.5"})
+  public double distanceToSpeakerMeters;
+
+  private AimbotTele command;
+
+  @Setup
+  public void setup() {
+    HAL.initialize(500, 0);
+    DriverStationSim.setEnabled(true);
+    DriverStationSim.setDsAttached(true);
+    DriverStationSim.notifyNewData();
+    DriverStation.refreshData();
+
+    Drive drive =
+        new Drive(
+            new GyroIO() {},
+            new VisionIO() {},
+            new ModuleIOSim(),
+            new ModuleIOSim(),
+            new ModuleIOSim(),
+            new ModuleIOSim());
+    Shooter shooter =
+        new Shooter(
+            new FlywheelIOSim(),
+            new FeederIOSim(),
+            new DistanceSensorIO() {},
+            new LeafBlowerIO() {},
+            new Intake(new IntakeRollerIOSim()));
+    Pivot pivot = new Pivot(new PivotIOSim());
+    LED led = new LED(new LED_IOSim());
+    drive.setPose(
+        new Pose2d(
+            distanceToSpeakerMeters,
+            FieldConstants.Speaker.speakerCenterY,
+            Rotation2d.fromDegrees(160.0)));
+
+    command =
+        new AimbotTele(
+            drive,
+            new CommandXboxController(0),
+            shooter,
+            pivot,
+            led,
+            ShotTable.load(ShotTable.DEFAULT_FILE, ShotTable.TELEOP));
+    command.initialize();
+  }
+
+  @Benchmark
+  public boolean aim() {
+    command.execute();
+    return command.isFinished();
+  }
+}
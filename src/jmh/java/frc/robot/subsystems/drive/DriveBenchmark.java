@@ -0,0 +1,78 @@
+package frc.robot.subsystems.drive;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures one drive loop with the module physics sims: a velocity command followed by {@link
+ * Drive#periodic()}, and the note position math that runs inside it when the intake camera sees a
+ * note. The logger isn't started, so the cost of logging the outputs is not included.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DriveBenchmark {
+  private static final ChassisSpeeds SPEEDS = new ChassisSpeeds(2.0, 1.0, 1.5);
+  private static final int WARMUP_LOOPS = 50;
+
+  private Drive drive;
+
+  @Setup
+  public void setup() {
+    HAL.initialize(500, 0);
+    DriverStationSim.setEnabled(true);
+    DriverStationSim.setDsAttached(true);
+    DriverStationSim.notifyNewData();
+    DriverStation.refreshData();
+
+    drive =
+        new Drive(
+            new GyroIO() {},
+            new VisionIO() {
+              @Override
+              public void updateInputs(VisionIOInputs inputs) {
+                // A note ahead and to the left of the intake camera
+                inputs.iTX = -8.0;
+                inputs.iTY = -5.0;
+                inputs.iTA = 0.6;
+                inputs.iTV = true;
+                inputs.iPIPELINELATENCY = 20.0;
+                inputs.iCAPTURELATENCY = 10.0;
+              }
+            },
+            new ModuleIOSim(),
+            new ModuleIOSim(),
+            new ModuleIOSim(),
+            new ModuleIOSim());
+    drive.setPose(new Pose2d(3.0, 5.5, Rotation2d.fromDegrees(30.0)));
+
+    // Fill the pose history and let the turn encoders initialize
+    for (int i = 0; i < WARMUP_LOOPS; i++) {
+      loop();
+    }
+  }
+
+  @Benchmark
+  public void loop() {
+    drive.runVelocity(SPEEDS);
+    drive.periodic();
+  }
+
+  @Benchmark
+  public Pose3d calculateNotePositionFieldRelative() {
+    return drive.calculateNotePositionFieldRelative();
+  }
+}
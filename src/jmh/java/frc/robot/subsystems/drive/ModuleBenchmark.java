@@ -0,0 +1,43 @@
+package frc.robot.subsystems.drive;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures {@link Module#runSetpoint(SwerveModuleState)}, alternating between a setpoint the module
+ * can drive to directly and one it has to flip.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ModuleBenchmark {
+  private Module module;
+  private final SwerveModuleState[] setpoints = {
+    new SwerveModuleState(3.0, Rotation2d.fromDegrees(20.0)),
+    new SwerveModuleState(3.0, Rotation2d.fromDegrees(170.0))
+  };
+  private int setpointIndex = 0;
+
+  @Setup
+  public void setup() {
+    HAL.initialize(500, 0);
+    module = new Module(new ModuleIOSim(), 0);
+    module.updateInputs();
+    module.periodic();
+  }
+
+  @Benchmark
+  public SwerveModuleState runSetpoint() {
+    setpointIndex ^= 1;
+    return module.runSetpoint(setpoints[setpointIndex]);
+  }
+}
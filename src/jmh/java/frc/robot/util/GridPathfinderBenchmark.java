@@ -0,0 +1,87 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.Pair;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures one plan of {@link GridPathfinder} on the 2024 field by node size, from search to
+ * shortened waypoints. The deployed navgrid has no obstacles drawn in, so the stage legs of both
+ * alliances are added as dynamic obstacles to give the routes something to go around.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GridPathfinderBenchmark {
+  private static final double STAGE_LEG_HALF_WIDTH = 0.15;
+
+  @Param({"0.15", "0.3", "0.6"})
+  public double nodeSizeMeters;
+
+  @Param({"ampToCenterline", "sourceToSpeaker", "throughStage", "acrossField"})
+  public String route;
+
+  private GridPathfinder pathfinder;
+  private Translation2d start;
+  private Translation2d goal;
+
+  @Setup
+  public void setup() {
+    pathfinder = new GridPathfinder(GridPathfinder.loadNavGrid(), nodeSizeMeters);
+    List<Pair<Translation2d, Translation2d>> obstacles = new ArrayList<>();
+    for (Pose2d leg :
+        new Pose2d[] {
+          FieldConstants.Stage.podiumLeg,
+          FieldConstants.Stage.ampLeg,
+          FieldConstants.Stage.sourceLeg
+        }) {
+      addLeg(obstacles, leg.getX(), leg.getY());
+      addLeg(obstacles, FieldConstants.fieldLength - leg.getX(), leg.getY());
+    }
+    pathfinder.setObstacles(obstacles);
+
+    double speakerY = FieldConstants.Speaker.speakerCenterY;
+    switch (route) {
+      case "ampToCenterline":
+        start = new Translation2d(1.8, 7.5);
+        goal = FieldConstants.StagingLocations.centerlineTranslations[4];
+        break;
+      case "sourceToSpeaker":
+        start = new Translation2d(FieldConstants.fieldLength - 1.5, 1.0);
+        goal = new Translation2d(1.5, speakerY);
+        break;
+      case "throughStage":
+        start = new Translation2d(1.5, speakerY);
+        goal = FieldConstants.StagingLocations.centerlineTranslations[2];
+        break;
+      default:
+        start = new Translation2d(1.0, 1.0);
+        goal = new Translation2d(FieldConstants.fieldLength - 1.0, FieldConstants.fieldWidth - 1.0);
+        break;
+    }
+  }
+
+  @Benchmark
+  public List<Translation2d> plan() {
+    return pathfinder.plan(start, goal);
+  }
+
+  private static void addLeg(
+      List<Pair<Translation2d, Translation2d>> obstacles, double x, double y) {
+    obstacles.add(
+        Pair.of(
+            new Translation2d(x - STAGE_LEG_HALF_WIDTH, y - STAGE_LEG_HALF_WIDTH),
+            new Translation2d(x + STAGE_LEG_HALF_WIDTH, y + STAGE_LEG_HALF_WIDTH)));
+  }
+}
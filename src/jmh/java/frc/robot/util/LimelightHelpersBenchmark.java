@@ -0,0 +1,71 @@
+package frc.robot.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures reading a MegaTag pose estimate with its raw fiducials from NetworkTables, and parsing a
+ * Limelight JSON results dump. Both read values published to the local NetworkTables instance, no
+ * server or camera is needed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LimelightHelpersBenchmark {
+  private static final String LIMELIGHT_NAME = "limelight-benchmark";
+  private static final String RESULTS_RESOURCE = "/limelight_results.json";
+
+  @Param({"1", "4"})
+  public int tagCount;
+
+  @Setup
+  public void setup() throws IOException {
+    // Pose, latency, tag count, span, average distance and area, then 7 values per fiducial
+    double[] botpose = new double[11 + 7 * tagCount];
+    botpose[0] = 2.5;
+    botpose[1] = 5.5;
+    botpose[5] = 175.0;
+    botpose[6] = 35.0;
+    botpose[7] = tagCount;
+    botpose[8] = 1.2;
+    botpose[9] = 2.8;
+    botpose[10] = 0.4;
+    for (int i = 0; i < tagCount; i++) {
+      int baseIndex = 11 + 7 * i;
+      botpose[baseIndex] = 3 + i;
+      botpose[baseIndex + 1] = -10.0 + 5.0 * i;
+      botpose[baseIndex + 2] = 4.0;
+      botpose[baseIndex + 3] = 0.4;
+      botpose[baseIndex + 4] = 2.6;
+      botpose[baseIndex + 5] = 2.8;
+      botpose[baseIndex + 6] = 0.1;
+    }
+    LimelightHelpers.setLimelightNTDoubleArray(LIMELIGHT_NAME, "botpose_wpiblue", botpose);
+
+    try (InputStream stream =
+        LimelightHelpersBenchmark.class.getResourceAsStream(RESULTS_RESOURCE)) {
+      String json = new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+      LimelightHelpers.getLimelightNTTableEntry(LIMELIGHT_NAME, "json").setString(json);
+    }
+  }
+
+  @Benchmark
+  public LimelightHelpers.PoseEstimate getBotPoseEstimate() {
+    return LimelightHelpers.getBotPoseEstimate_wpiBlue(LIMELIGHT_NAME);
+  }
+
+  @Benchmark
+  public LimelightHelpers.LimelightResults getLatestResults() {
+    return LimelightHelpers.getLatestResults(LIMELIGHT_NAME);
+  }
+}
@@ -0,0 +1,96 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.util.CircularBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compares {@link PoseHistory} against the CircularBuffer linear scan it replaced in Drive. Both
+ * hold the same number of samples and are queried at a timestamp a typical camera latency in the
+ * past.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PoseHistoryBenchmark {
+  private static final double SAMPLE_PERIOD = 0.004;
+  private static final double LOOKUP_LATENCY = 0.03;
+
+  @Param({"11", "500"})
+  public int samples;
+
+  private PoseHistory poseHistory;
+  private CircularBuffer<TimestampedPose2d> circularBuffer;
+  private double timestamp;
+
+  /** The sample type used by the previous implementation. */
+  private static class TimestampedPose2d {
+    Pose2d pose;
+    double time;
+  }
+
+  @Setup
+  public void setup() {
+    poseHistory = new PoseHistory(samples);
+    circularBuffer = new CircularBuffer<>(samples);
+    for (int i = 0; i < samples; i++) {
+      double time = i * SAMPLE_PERIOD;
+      Pose2d pose = new Pose2d(i * 0.01, i * 0.005, new Rotation2d(i * 0.002));
+      poseHistory.addSample(time, pose);
+      addCircularBufferSample(time, pose);
+    }
+    timestamp = (samples - 1) * SAMPLE_PERIOD;
+  }
+
+  @Benchmark
+  public void addPoseHistory() {
+    timestamp += SAMPLE_PERIOD;
+    poseHistory.addSample(timestamp, timestamp * 0.01, timestamp * 0.005, timestamp * 0.002);
+  }
+
+  @Benchmark
+  public void addCircularBuffer() {
+    timestamp += SAMPLE_PERIOD;
+    addCircularBufferSample(
+        timestamp, new Pose2d(timestamp * 0.01, timestamp * 0.005, new Rotation2d(timestamp)));
+  }
+
+  @Benchmark
+  public Pose2d lookupPoseHistory() {
+    return poseHistory.getPoseAt(poseHistory.getNewestTimestamp() - LOOKUP_LATENCY).orElse(null);
+  }
+
+  @Benchmark
+  public Pose2d lookupCircularBuffer() {
+    return posePicker(circularBuffer.getFirst().time - LOOKUP_LATENCY);
+  }
+
+  private void addCircularBufferSample(double time, Pose2d pose) {
+    TimestampedPose2d sample = new TimestampedPose2d();
+    sample.pose = pose;
+    sample.time = time;
+    circularBuffer.addFirst(sample);
+  }
+
+  private Pose2d posePicker(double time) {
+    TimestampedPose2d prev = circularBuffer.getFirst();
+    for (int i = 0; i < circularBuffer.size(); i++) {
+      TimestampedPose2d next = circularBuffer.get(i);
+      double delta = next.time - time;
+      if (delta < 0) {
+        double t = ((time - next.time) / (prev.time - next.time));
+        return next.pose.interpolate(prev.pose, t);
+      }
+    }
+    return circularBuffer.getLast().pose;
+  }
+}
@@ -30,7 +30,14 @@ public final class Constants {
     REPLAY
   }
 
+  /** Environment variable the batch replay runner uses to pass each worker its log. */
+  public static final String REPLAY_LOG_ENV = "REPLAY_LOG_PATH";
+
   public static Mode getMode() {
+    // Batch replay workers always replay, whatever the robot is configured for
+    if (System.getenv(REPLAY_LOG_ENV) != null) {
+      return Mode.REPLAY;
+    }
     return switch (currentMode) {
       case REAL -> Mode.REAL;
       case SIM -> Mode.SIM;
@@ -40,6 +47,8 @@ public final class Constants {
 
   public static final Mode currentMode = Mode.REAL;
   public static final boolean tuningMode = true;
+  // Loop timing percentiles under "LoopTimes/", always off when connected to the FMS
+  public static final boolean loopProfiling = true;
   public static final String CANBUS = "CAN Bus 2";
   public static final double LOOP_PERIOD_SECS = 0.02;
 
@@ -56,6 +65,15 @@ public final class Constants {
     public static final double DRIVE_BASE_RADIUS =
         Math.hypot(TRACK_WIDTH_X / 2.0, TRACK_WIDTH_Y / 2.0);
     public static final double MAX_ANGULAR_SPEED = 0.45 * MAX_LINEAR_SPEED / DRIVE_BASE_RADIUS;
+    public static final double MAX_ANGULAR_ACCELERATION = 4.0 * MAX_ANGULAR_SPEED;
+
+    // Auto note pickups, only limited in speed by the modules
+    public static final double NOTE_APPROACH_MAX_ACCELERATION = 2.45;
+    public static final double NOTE_APPROACH_MAX_ANGULAR_SPEED_DEG_PER_SEC = 100;
+    public static final double NOTE_APPROACH_MAX_ANGULAR_ACCELERATION_DEG_PER_SEC_SQUARED = 180;
+    public static final double NOTE_APPROACH_END_VELOCITY = 0.5;
+    public static final int NOTE_APPROACH_CACHE_SIZE = 128;
+    public static final double HEADING_RATE_TOLERANCE_DEG_PER_SEC = 15.0;
     public static final double OPEN_LOOP_RAMP_SEC = 0.05;
   }
 
@@ -80,6 +98,11 @@ public final class Constants {
     public static final int CURRENT_LIMIT = 40;
     public static final int APPLIED_VOLTAGE = 12;
     public static final boolean CURRENT_LIMIT_ENABLED = true;
+
+    // Rollers held against a note: output cut back at the current limit with the rollers stalled
+    public static final double STALL_MAX_VOLTS = 1;
+    public static final double STALL_CURRENT_AMPS = 38;
+    public static final double STALL_MAX_RPM = 44.14;
   }
 
   public static final class ShooterConstants {
@@ -88,21 +111,44 @@ public final class Constants {
 
     public static final double FEEDER_THRESHOLD = 0;
     public static final double FEEDER_DIST = 1300;
+    public static final double FEEDER_DIST_MAX = 2150;
+    public static final double NOTE_FEEDER_CURRENT_AMPS = 13;
+    public static final double NOTE_FALL_DEBOUNCE_SECS = 0.1;
+    // Staged note depth, in feeder rotations from where its edge crossed the distance sensor
+    public static final double NOTE_STAGE_OFFSET_ROTATIONS = -0.2;
+    public static final double FEEDER_STAGE_MAX_RPS = 10;
+    public static final double FEEDER_STAGE_MAX_ACCELERATION_RPS_PER_SEC = 100;
+    public static final double FEEDER_STAGE_KP = 10; // RPS per rotation of error
+    public static final double FEEDER_STAGE_TOLERANCE_ROTATIONS = 0.03;
 
     public static final double FLYWHEEL_CURRENT_LIMIT = 40;
     public static final boolean FLYWHEEL_CURRENT_LIMIT_ENABLED = true;
 
     public static final double FLYWHEEL_THRESHOLD = 200;
+    // Largest shot to shot flywheel variation a shot is still taken with
+    public static final double FLYWHEEL_MAX_SPREAD_RPM = 75;
+    // From starting the feeders until the note reaches the flywheels
+    public static final double FEED_TO_FLYWHEEL_SECS = 0.1;
+
+    // After each shot the flywheels run a high gain slot until back within the band
+    public static final boolean FLYWHEEL_RECOVERY_ENABLED = true;
+    public static final double FLYWHEEL_RECOVERY_BAND_RPM = 100;
+    public static final double FLYWHEEL_RECOVERY_KP = 24; // volts per RPS of error
+    public static final double FLYWHEEL_RECOVERY_TIMEOUT_SECS = 1.0;
 
     public static final double FLYWHEEL_AMP_RPM = 600;
     public static final double FLYWHEEL_SHOOT_RPM = 3000;
+
+    // From sending aim setpoints until the note leaves: one loop plus CAN and motor response
+    public static final double SHOT_LATENCY_SECS = LOOP_PERIOD_SECS + 0.04;
   }
 
   public static enum NoteState {
     Init,
     NO_NOTE,
     SENSOR,
-    CURRENT
+    CURRENT,
+    INTAKE
   }
 
   public static class ElevatorConstants {
@@ -115,6 +161,14 @@ public final class Constants {
 
     public static final double[] PID = {0, 0, 0};
 
+    // Soft limits, enforced on the motor controller as well
+    public static final double MIN_ANGLE_DEG = 33;
+    public static final double MAX_ANGLE_DEG = 120;
+    public static final double MOTION_CRUISE_VELOCITY_DEG_PER_SEC = 150;
+    public static final double MOTION_ACCELERATION_DEG_PER_SEC_SQUARED = 226;
+    // Goal changes within this of the last goal, with the pivot already there, skip the profile
+    public static final double TRACKING_WINDOW_DEG = 3;
+
     public static final double REDUCTION = (25.0 / 1.0);
     public static final double BAR_THRESHOLD = 3;
   }
@@ -145,6 +199,22 @@ public final class Constants {
         (15.0 / 1.0) * (34.0 / 24.0) * (24.0 / 18.0) * (50.0 / 14.0);
   }
 
+  public static class ObstacleConstants {
+    // Detector class of other robots, seen by the intake Limelight
+    public static final String CLASS_NAME = "robot";
+    public static final double MIN_CONFIDENCE = 0.5;
+    public static final double CAMERA_FORWARD_OFFSET_METERS = Units.inchesToMeters(12);
+    // Height of the middle of a robot's bounding box
+    public static final double TARGET_HEIGHT_METERS = 0.3;
+    public static final double MAX_RANGE_METERS = 5.0;
+    // Half the side of a robot with bumpers, the pathfinder adds our own radius
+    public static final double HALF_SIZE_METERS = 0.5;
+    public static final double ASSOCIATION_DISTANCE_METERS = 1.0;
+    public static final double LIFETIME_SECS = 1.0;
+    public static final double PUBLISH_PERIOD_SECS = 0.5;
+    public static final double REPUBLISH_DISTANCE_METERS = 0.25;
+  }
+
   public static class LEDConstants {
     public static final double COLOR_BLUE = 0.87;
     public static final double COLOR_RED = 0.61;
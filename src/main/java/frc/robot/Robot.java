@@ -14,12 +14,13 @@
 package frc.robot;
 
 import com.ctre.phoenix6.SignalLogger;
-import com.pathplanner.lib.pathfinding.Pathfinding;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import frc.robot.Constants.LED_STATE;
 import frc.robot.statemachines.ClimbStateMachine.CLIMB_STATES;
-import frc.robot.util.LocalADStarAK;
+import frc.robot.util.AutoWarmup;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.LoopTimer;
 import org.littletonrobotics.junction.LogFileUtil;
 import org.littletonrobotics.junction.LoggedRobot;
 import org.littletonrobotics.junction.Logger;
@@ -37,6 +38,7 @@ public class Robot extends LoggedRobot {
 
   private Command autonomousCommand;
   private RobotContainer m_robotContainer;
+  private final LoopTimer schedulerTimer = new LoopTimer("Scheduler");
   /**
    * This function is run when the robot is first started up and should be used for any
    * initialization code.
@@ -77,7 +79,10 @@ public class Robot extends LoggedRobot {
       case REPLAY:
         // Replaying a log, set up replay source
         setUseTiming(false); // Run as fast as possible
-        String logPath = LogFileUtil.findReplayLog();
+        String logPath = System.getenv(Constants.REPLAY_LOG_ENV);
+        if (logPath == null) {
+          logPath = LogFileUtil.findReplayLog();
+        }
         Logger.setReplaySource(new WPILOGReader(logPath));
         Logger.addDataReceiver(new WPILOGWriter(LogFileUtil.addPathSuffix(logPath, "_sim")));
         break;
@@ -93,8 +98,7 @@ public class Robot extends LoggedRobot {
     // and put our
     // autonomous chooser on the dashboard.
     m_robotContainer = new RobotContainer();
-
-    Pathfinding.setPathfinder(new LocalADStarAK());
+    AutoWarmup.start();
 
     // UsbCamera camera = CameraServer.startAutomaticCapture(0);
     // camera.setResolution(400, 300);
@@ -109,7 +113,11 @@ public class Robot extends LoggedRobot {
     // finished or interrupted commands, and running subsystem periodic() methods.
     // This must be called from the robot's periodic block in order for anything in
     // the Command-based framework to work.
+    schedulerTimer.start();
     CommandScheduler.getInstance().run();
+    schedulerTimer.stop();
+    m_robotContainer.getShotRecorder().periodic();
+    LoopProfiler.periodic();
   }
 
   /** This function is called once when the robot is disabled. */
@@ -121,7 +129,10 @@ public class Robot extends LoggedRobot {
 
   /** This function is called periodically when disabled. */
   @Override
-  public void disabledPeriodic() {}
+  public void disabledPeriodic() {
+    m_robotContainer.getDrive().warmNoteApproachPaths();
+    AutoWarmup.periodic();
+  }
 
   /** This autonomous runs the autonomous command selected by your {@link RobotContainer} class. */
   @Override
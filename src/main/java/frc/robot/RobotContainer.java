@@ -13,7 +13,6 @@
 
 package frc.robot;
 
-import com.pathplanner.lib.auto.AutoBuilder;
 import com.pathplanner.lib.auto.NamedCommands;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
@@ -96,7 +95,18 @@ import frc.robot.subsystems.shooter.FlywheelIOTalonFX;
 import frc.robot.subsystems.shooter.LeafBlowerIO;
 import frc.robot.subsystems.shooter.LeafBlowerIOTalonSRX;
 import frc.robot.subsystems.shooter.Shooter;
+import frc.robot.subsystems.vision.AprilTagVisionIO;
+import frc.robot.subsystems.vision.AprilTagVisionIOLimelight;
+import frc.robot.subsystems.vision.ObstacleIO;
+import frc.robot.subsystems.vision.ObstacleIOLimelight;
+import frc.robot.subsystems.vision.ObstacleTracker;
+import frc.robot.subsystems.vision.Vision;
+import frc.robot.util.AutoWarmup;
 import frc.robot.util.FieldConstants;
+import frc.robot.util.LoopProfiler;
+import frc.robot.util.ShotLog;
+import frc.robot.util.ShotRecorder;
+import frc.robot.util.ShotTable;
 import java.util.Map;
 import org.littletonrobotics.junction.networktables.LoggedDashboardChooser;
 import org.littletonrobotics.junction.networktables.LoggedDashboardNumber;
@@ -110,16 +120,26 @@ import org.littletonrobotics.junction.networktables.LoggedDashboardNumber;
 public class RobotContainer {
   // Subsystems
   private final Drive drive;
+  private final Vision vision;
+  private final ObstacleTracker obstacleTracker;
   private Intake intake;
   private Shooter shooter;
   private Elevator elevator;
   private LED led;
   private Pivot pivot;
+  private ShotRecorder shotRecorder;
+
+  // Speaker shots by distance, retuned by editing the calibration file in the deploy directory
+  private final ShotTable teleopShotTable =
+      ShotTable.load(ShotTable.DEFAULT_FILE, ShotTable.TELEOP);
+  private final ShotTable autoShotTable = ShotTable.load(ShotTable.DEFAULT_FILE, ShotTable.AUTO);
+  private final ShotTable staticShotTable =
+      ShotTable.load(ShotTable.DEFAULT_FILE, ShotTable.STATIC);
 
   private final CommandXboxController driveController = new CommandXboxController(0);
   private final CommandXboxController manipController = new CommandXboxController(1);
-  private final LoggedDashboardChooser<Command> autoChooser;
-  private final SendableChooser<Command> autos;
+  private final LoggedDashboardChooser<String> autoChooser;
+  private final SendableChooser<String> autos;
 
   private final TrapStateMachine trapStateMachine;
   private final ClimbStateMachine climbStateMachine;
@@ -174,6 +194,8 @@ public class RobotContainer {
                 new ModuleIOTalonFX(1),
                 new ModuleIOTalonFX(2),
                 new ModuleIOTalonFX(3));
+        vision = new Vision(drive, new AprilTagVisionIOLimelight(Constants.LL_ALIGN));
+        obstacleTracker = new ObstacleTracker(drive, new ObstacleIOLimelight(Constants.LL_INTAKE));
         intake = new Intake(new IntakeRollerIOSparkFlex(RobotMap.IntakeIDs.ROLLERS));
         shooter =
             new Shooter(
@@ -181,7 +203,8 @@ public class RobotContainer {
                     RobotMap.ShooterIDs.FLYWHEEL_LEFT, RobotMap.ShooterIDs.FLYWHEEL_RIGHT),
                 new FeederIOTalonFX(RobotMap.ShooterIDs.FEEDER),
                 new DistanceSensorIOAnalog(),
-                new LeafBlowerIOTalonSRX(18));
+                new LeafBlowerIOTalonSRX(18),
+                intake);
         elevator =
             new Elevator(
                 new ElevatorIOTalonFX(RobotMap.ElevatorIDs.LEFT, RobotMap.ElevatorIDs.RIGHT),
@@ -201,13 +224,16 @@ public class RobotContainer {
                 new ModuleIOSim(),
                 new ModuleIOSim(),
                 new ModuleIOSim());
+        vision = new Vision(drive, new AprilTagVisionIO() {});
+        obstacleTracker = new ObstacleTracker(drive, new ObstacleIO() {});
         intake = new Intake(new IntakeRollerIOSim());
         shooter =
             new Shooter(
                 new FlywheelIOSim(),
                 new FeederIOSim(),
                 new DistanceSensorIO() {},
-                new LeafBlowerIO() {});
+                new LeafBlowerIO() {},
+                intake);
         elevator = new Elevator(new ElevatorIOSim(), null);
         pivot = new Pivot(new PivotIOSim());
         led = new LED(new LED_IOSim());
@@ -221,13 +247,16 @@ public class RobotContainer {
                 new ModuleIOSim(),
                 new ModuleIOSim(),
                 new ModuleIOSim());
+        vision = new Vision(drive, new AprilTagVisionIO() {});
+        obstacleTracker = new ObstacleTracker(drive, new ObstacleIO() {});
         intake = new Intake(new IntakeRollerIOSim());
         shooter =
             new Shooter(
                 new FlywheelIOSim(),
                 new FeederIOSim(),
                 new DistanceSensorIO() {},
-                new LeafBlowerIO() {});
+                new LeafBlowerIO() {},
+                intake);
         elevator = new Elevator(new ElevatorIOSim(), new AmpBarIOSIm());
         pivot = new Pivot(new PivotIOSim());
         led = new LED(new LED_IOSim());
@@ -244,19 +273,23 @@ public class RobotContainer {
                 new ModuleIO() {},
                 new ModuleIO() {},
                 new ModuleIO() {});
+        vision = new Vision(drive, new AprilTagVisionIO() {});
+        obstacleTracker = new ObstacleTracker(drive, new ObstacleIO() {});
         shooter =
             new Shooter(
                 new FlywheelIOTalonFX(
                     RobotMap.ShooterIDs.FLYWHEEL_LEFT, RobotMap.ShooterIDs.FLYWHEEL_RIGHT),
                 new FeederIOTalonFX(RobotMap.ShooterIDs.FEEDER),
                 new DistanceSensorIO() {},
-                new LeafBlowerIO() {});
+                new LeafBlowerIO() {},
+                intake);
         elevator = new Elevator(new ElevatorIO() {}, new AmpBarIO() {});
         pivot = new Pivot(new PivotIO() {});
         led = new LED(new LED_IO() {});
         break;
     }
 
+    shotRecorder = new ShotRecorder(drive, shooter, pivot);
     climbStateMachine = new ClimbStateMachine(elevator, shooter, pivot);
     trapStateMachine = new TrapStateMachine(elevator, shooter, pivot);
 
@@ -295,7 +328,8 @@ public class RobotContainer {
                     SHOOT_STATE.AIMBOT,
                     new SequentialCommandGroup(
                         new SetElevatorTarget(0, 1.5, elevator),
-                        new AimbotTele(drive, driveController, shooter, pivot, led))),
+                        new AimbotTele(
+                            drive, driveController, shooter, pivot, led, teleopShotTable))),
                 Map.entry(
                     SHOOT_STATE.AMP,
                     new SequentialCommandGroup(
@@ -470,10 +504,7 @@ public class RobotContainer {
     NamedCommands.registerCommand(
         "AlignToNote",
         new AlignToNoteAuto(led, drive, shooter, intake, pivot)
-            .until(
-                () ->
-                    shooter.seesNote() == NoteState.SENSOR
-                        || shooter.seesNote() == NoteState.CURRENT)
+            .until(shooter::hasNote)
             // TODO:: adjust this delay
             .andThen(new InstantCommand(drive::stop))
             .andThen(new InstantCommand(() -> shooter.setFeedersRPM(500)))
@@ -502,9 +533,10 @@ public class RobotContainer {
                 new WaitCommand(1.5).andThen(new InstantCommand(() -> shooter.stopFeeders()))));
     NamedCommands.registerCommand(
         "AimbotStatic",
-        new AimbotStatic(drive, driveController, shooter, pivot, led)
+        new AimbotStatic(drive, driveController, shooter, pivot, led, staticShotTable)
             .andThen(new InstantCommand(() -> led.setState(LED_STATE.BLUE))));
-    NamedCommands.registerCommand("AimbotMoving", new AimbotAuto(drive, shooter, pivot, led));
+    NamedCommands.registerCommand(
+        "AimbotMoving", new AimbotAuto(drive, shooter, pivot, led, autoShotTable));
 
     NamedCommands.registerCommand(
         "EnableOverride", new InstantCommand(() -> drive.enabledOverride()));
@@ -523,30 +555,30 @@ public class RobotContainer {
     // Set up auto routines
     autos = new SendableChooser<>();
 
-    autos.addOption("$s!p-b3-c5-c4", AutoBuilder.buildAuto("$s!p-b3-c5-c4"));
+    addAuto("$s!p-b3-c5-c4");
 
-    autos.addOption("$a!p-b1-c1-c2", AutoBuilder.buildAuto("$a!p-b1-c1-c2"));
-    autos.addOption("$a!p-b1-c2-c3", AutoBuilder.buildAuto("$a!p-b1-c2-c3"));
+    addAuto("$a!p-b1-c1-c2");
+    addAuto("$a!p-b1-c2-c3");
 
-    autos.addOption("$c!p-b3-b2-b1", AutoBuilder.buildAuto("$c!p-b3-b2-b1"));
+    addAuto("$c!p-b3-b2-b1");
 
-    autos.addOption("test path", AutoBuilder.buildAuto("test path"));
+    addAuto("test path");
 
-    autos.addOption("$s!p-c5-c4", AutoBuilder.buildAuto("$s!p-c5-c4"));
-    autos.addOption("Copy of $s!p-c5-c4", AutoBuilder.buildAuto("Copy of $s!p-c5-c4"));
-    autos.addOption("$s!p-c4-c5", AutoBuilder.buildAuto("$s!p-c4-c5"));
-    autos.addOption("$s!p-c4-c3", AutoBuilder.buildAuto("$s!p-c4-c3"));
-    autos.addOption("$s!p-c3-c4", AutoBuilder.buildAuto("$s!p-c3-c4"));
-    autos.addOption("$s!p-c3-c5", AutoBuilder.buildAuto("$s!p-c3-c5"));
-    autos.addOption("$s!p-c5-c3", AutoBuilder.buildAuto("$s!p-c5-c3"));
+    addAuto("$s!p-c5-c4");
+    addAuto("Copy of $s!p-c5-c4");
+    addAuto("$s!p-c4-c5");
+    addAuto("$s!p-c4-c3");
+    addAuto("$s!p-c3-c4");
+    addAuto("$s!p-c3-c5");
+    addAuto("$s!p-c5-c3");
 
-    autos.addOption("$c!p-b2-c3", AutoBuilder.buildAuto("$c!p-b2-c3"));
+    addAuto("$c!p-b2-c3");
 
-    autos.addOption("New Auto", AutoBuilder.buildAuto("New Auto"));
+    addAuto("New Auto");
 
-    autos.addOption("New New Auto", AutoBuilder.buildAuto("New New Auto"));
+    addAuto("New New Auto");
 
-    autos.addOption("conditional auto", AutoBuilder.buildAuto("conditional auto"));
+    addAuto("conditional auto");
 
     autoChooser = new LoggedDashboardChooser<>("Auto Choices", autos);
 
@@ -697,9 +729,9 @@ public class RobotContainer {
             new InstantCommand(() -> shooter.setFeedersRPM(500))
                 .andThen(new WaitCommand(0.15))
                 .andThen(new InstantCommand(shooter::stopFeeders))
-                .andThen(
-                    new InstantCommand(shooter::stopFeeders)
-                        .andThen(new InstantCommand(intake::stopRollers))));
+                // IntakeNote is already staging the note if it got one
+                .unless(shooter::hasNote)
+                .andThen(new InstantCommand(intake::stopRollers)));
 
     driveController
         .leftBumper()
@@ -741,114 +773,139 @@ public class RobotContainer {
   // TODO:: change drive controls to match changed test controls
   private void driverControls() {
     drive.setDefaultCommand(
-        DriveCommands.joystickDrive(
-            drive,
-            () -> -driveController.getLeftY(),
-            () -> -driveController.getLeftX(),
-            () -> -driveController.getRightX(),
-            driveLeftBumper,
-            manipLeftBumper));
-
-    driveRightBumper.onTrue(
-        new SequentialCommandGroup(
-            new InstantCommand(() -> climbStateMachine.setClimbState(CLIMB_STATES.NONE)),
-            new InstantCommand(() -> trapStateMachine.setTargetState(TRAP_STATES.PIVOT)),
-            new SetElevatorTarget(0, 1.5, elevator),
-            DriveCommands.intakeCommand(
+        LoopProfiler.profile(
+            "DriveDefault",
+            DriveCommands.joystickDrive(
                 drive,
-                shooter,
-                pivot,
-                intake,
-                led,
-                driveController,
                 () -> -driveController.getLeftY(),
                 () -> -driveController.getLeftX(),
                 () -> -driveController.getRightX(),
-                () -> false,
+                driveLeftBumper,
                 manipLeftBumper)));
 
+    driveRightBumper.onTrue(
+        LoopProfiler.profile(
+            "DriveRightBumper/OnTrue",
+            new SequentialCommandGroup(
+                new InstantCommand(() -> climbStateMachine.setClimbState(CLIMB_STATES.NONE)),
+                new InstantCommand(() -> trapStateMachine.setTargetState(TRAP_STATES.PIVOT)),
+                new SetElevatorTarget(0, 1.5, elevator),
+                DriveCommands.intakeCommand(
+                    drive,
+                    shooter,
+                    pivot,
+                    intake,
+                    led,
+                    driveController,
+                    () -> -driveController.getLeftY(),
+                    () -> -driveController.getLeftX(),
+                    () -> -driveController.getRightX(),
+                    () -> false,
+                    manipLeftBumper))));
+
     driveRightBumper.onFalse(
-        new InstantCommand(() -> led.setState(LED_STATE.BLUE))
-            .andThen(new InstantCommand(() -> intake.changeLEDBoolFalse()))
-            .andThen(new InstantCommand(() -> shooter.setFeedersRPM(500)))
-            .andThen(new WaitCommand(0.02))
-            .andThen(
-                new ConditionalCommand(
-                    new WaitCommand(0.1),
-                    new WaitCommand(0.06),
-                    () -> (shooter.getLastNoteState() == NoteState.CURRENT)))
-            .andThen(
-                new ParallelCommandGroup(
-                        new InstantCommand(() -> intake.stopRollers(), intake),
-                        new InstantCommand(() -> shooter.stopFeeders()),
-                        new SetPivotTarget(Constants.PivotConstants.STOW_SETPOINT_DEG, pivot))
-                    .andThen(new PositionNoteInFeeder(shooter, intake))));
+        LoopProfiler.profile(
+            "DriveRightBumper/OnFalse",
+            new InstantCommand(() -> led.setState(LED_STATE.BLUE))
+                .andThen(new InstantCommand(() -> intake.changeLEDBoolFalse()))
+                // IntakeNote is already staging the note if it got one
+                .andThen(
+                    new InstantCommand(() -> shooter.setFeedersRPM(500)).unless(shooter::hasNote))
+                .andThen(new WaitCommand(0.02))
+                .andThen(
+                    new ConditionalCommand(
+                        new WaitCommand(0.1),
+                        new WaitCommand(0.06),
+                        () -> (shooter.getNoteState() == NoteState.CURRENT)))
+                .andThen(
+                    new ParallelCommandGroup(
+                            new InstantCommand(() -> intake.stopRollers(), intake),
+                            new InstantCommand(() -> shooter.stopFeeders())
+                                .unless(shooter::hasNote),
+                            new SetPivotTarget(Constants.PivotConstants.STOW_SETPOINT_DEG, pivot))
+                        .andThen(new PositionNoteInFeeder(shooter, intake)))));
 
     driveStartButton.onTrue(
-        Commands.runOnce(
-                () ->
-                    drive.setGyroPose(
-                        new Pose2d(drive.getPose().getTranslation(), new Rotation2d())),
-                drive)
-            .ignoringDisable(true));
+        LoopProfiler.profile(
+            "DriveStartButton/OnTrue",
+            Commands.runOnce(
+                    () ->
+                        drive.setGyroPose(
+                            new Pose2d(drive.getPose().getTranslation(), new Rotation2d())),
+                    drive)
+                .ignoringDisable(true)));
 
     driveLeftBumper.onTrue(
-        new SequentialCommandGroup(
-            new InstantCommand(() -> climbStateMachine.setClimbState(CLIMB_STATES.NONE)),
-            new InstantCommand(() -> trapStateMachine.setTargetState(TRAP_STATES.PIVOT)),
-            new SetElevatorTarget(0, 1.5, elevator),
-            DriveCommands.intakeCommand(
-                drive,
-                shooter,
-                pivot,
-                intake,
-                led,
-                driveController,
-                () -> -driveController.getLeftY(),
-                () -> -driveController.getLeftX(),
-                () -> -driveController.getRightX(),
-                () -> true,
-                manipLeftBumper)));
+        LoopProfiler.profile(
+            "DriveLeftBumper/OnTrue",
+            new SequentialCommandGroup(
+                new InstantCommand(() -> climbStateMachine.setClimbState(CLIMB_STATES.NONE)),
+                new InstantCommand(() -> trapStateMachine.setTargetState(TRAP_STATES.PIVOT)),
+                new SetElevatorTarget(0, 1.5, elevator),
+                DriveCommands.intakeCommand(
+                    drive,
+                    shooter,
+                    pivot,
+                    intake,
+                    led,
+                    driveController,
+                    () -> -driveController.getLeftY(),
+                    () -> -driveController.getLeftX(),
+                    () -> -driveController.getRightX(),
+                    () -> true,
+                    manipLeftBumper))));
     driveLeftBumper.onFalse(
-        new InstantCommand(() -> led.setState(LED_STATE.BLUE))
-            .andThen(new InstantCommand(() -> intake.changeLEDBoolFalse()))
-            .andThen(new InstantCommand(() -> shooter.setFeedersRPM(500)))
-            .andThen(new WaitCommand(0.02))
-            .andThen(
-                new ConditionalCommand(
-                    new WaitCommand(0.1),
-                    new WaitCommand(0.06),
-                    () -> (shooter.getLastNoteState() == NoteState.CURRENT)))
-            .andThen(
-                new ParallelCommandGroup(
-                        new InstantCommand(() -> intake.stopRollers(), intake),
-                        new InstantCommand(() -> shooter.stopFeeders()),
-                        new SetPivotTarget(Constants.PivotConstants.STOW_SETPOINT_DEG, pivot))
-                    .andThen(new PositionNoteInFeeder(shooter, intake))));
+        LoopProfiler.profile(
+            "DriveLeftBumper/OnFalse",
+            new InstantCommand(() -> led.setState(LED_STATE.BLUE))
+                .andThen(new InstantCommand(() -> intake.changeLEDBoolFalse()))
+                // IntakeNote is already staging the note if it got one
+                .andThen(
+                    new InstantCommand(() -> shooter.setFeedersRPM(500)).unless(shooter::hasNote))
+                .andThen(new WaitCommand(0.02))
+                .andThen(
+                    new ConditionalCommand(
+                        new WaitCommand(0.1),
+                        new WaitCommand(0.06),
+                        () -> (shooter.getNoteState() == NoteState.CURRENT)))
+                .andThen(
+                    new ParallelCommandGroup(
+                            new InstantCommand(() -> intake.stopRollers(), intake),
+                            new InstantCommand(() -> shooter.stopFeeders())
+                                .unless(shooter::hasNote),
+                            new SetPivotTarget(Constants.PivotConstants.STOW_SETPOINT_DEG, pivot))
+                        .andThen(new PositionNoteInFeeder(shooter, intake)))));
 
-    driveLeftTrigger.whileTrue(new PivotIntakeTele(pivot, intake, shooter, led, true, false));
+    driveLeftTrigger.whileTrue(
+        LoopProfiler.profile(
+            "DriveLeftTrigger/WhileTrue",
+            new PivotIntakeTele(pivot, intake, shooter, led, true, false)));
     driveLeftTrigger.onFalse(
-        new InstantCommand(intake::stopRollers)
-            .andThen(new SetPivotTarget(Constants.PivotConstants.STOW_SETPOINT_DEG, pivot))
-            .andThen(new InstantCommand(() -> shooter.stopFeeders())));
+        LoopProfiler.profile(
+            "DriveLeftTrigger/OnFalse",
+            new InstantCommand(intake::stopRollers)
+                .andThen(new SetPivotTarget(Constants.PivotConstants.STOW_SETPOINT_DEG, pivot))
+                .andThen(new InstantCommand(() -> shooter.stopFeeders()))));
 
-    driveRightTrigger.onTrue(shootCommands);
+    driveRightTrigger.onTrue(LoopProfiler.profile("DriveRightTrigger/OnTrue", shootCommands));
     driveRightTrigger.onFalse(
-        new InstantCommand(() -> shooter.stopFeeders(), shooter)
-            .andThen(new InstantCommand(() -> led.setState(LED_STATE.BLUE)))
-            .andThen(new SetPivotTarget(Constants.PivotConstants.STOW_SETPOINT_DEG, pivot))
-            .andThen(
-                new SetElevatorTarget(
-                    Constants.ElevatorConstants.RETRACT_SETPOINT_INCH,
-                    Constants.ElevatorConstants.THRESHOLD,
-                    elevator))
-            .andThen(new WaitCommand(0.5))
-            .andThen(new InstantCommand(shooter::stopFlywheels))
-            .andThen(new InstantCommand(() -> shooter.turnOffFan(), shooter)));
+        LoopProfiler.profile(
+            "DriveRightTrigger/OnFalse",
+            new InstantCommand(() -> shooter.stopFeeders(), shooter)
+                .andThen(new InstantCommand(() -> led.setState(LED_STATE.BLUE)))
+                .andThen(new SetPivotTarget(Constants.PivotConstants.STOW_SETPOINT_DEG, pivot))
+                .andThen(
+                    new SetElevatorTarget(
+                        Constants.ElevatorConstants.RETRACT_SETPOINT_INCH,
+                        Constants.ElevatorConstants.THRESHOLD,
+                        elevator))
+                .andThen(new WaitCommand(0.5))
+                .andThen(new InstantCommand(shooter::stopFlywheels))
+                .andThen(new InstantCommand(() -> shooter.turnOffFan(), shooter))));
 
-    driveAButton.onTrue(climbCommands);
+    driveAButton.onTrue(LoopProfiler.profile("DriveAButton/OnTrue", climbCommands));
 
-    driveXButton.onTrue(trapCommands);
+    driveXButton.onTrue(LoopProfiler.profile("DriveXButton/OnTrue", trapCommands));
     // driveController
     //     .b()
     //     .onTrue(
@@ -886,7 +943,7 @@ public class RobotContainer {
     //                 new ConditionalCommand(
     //                     new WaitCommand(0.24),
     //                     new WaitCommand(0.06),
-    //                     () -> (shooter.getLastNoteState() == NoteState.CURRENT)))
+    //                     () -> (shooter.getNoteState() == NoteState.CURRENT)))
     //             .andThen(
     //                 new ParallelCommandGroup(
     //                         new InstantCommand(() -> intake.stopRollers(), intake),
@@ -916,19 +973,23 @@ public class RobotContainer {
     //             .andThen(new InstantCommand(() -> shooter.stopFeeders(), shooter)));
 
     manipAButton.onTrue(
-        new InstantCommand(() -> pivot.setShootState(SHOOT_STATE.AMP))
-            .andThen(new ScoreAmp(elevator, pivot, shooter, drive)));
+        LoopProfiler.profile(
+            "ManipAButton/OnTrue",
+            new InstantCommand(() -> pivot.setShootState(SHOOT_STATE.AMP))
+                .andThen(new ScoreAmp(elevator, pivot, shooter, drive))));
 
     manipAButton.onFalse(
-        new InstantCommand(() -> pivot.setShootState(SHOOT_STATE.AIMBOT))
-            .andThen(
-                new SequentialCommandGroup(
-                    // new SetAmpBarTarget(5, 3, elevator),
-                    new InstantCommand(() -> shooter.turnOffFan()),
-                    new SetElevatorTarget(0, 0.5, elevator),
-                    new InstantCommand(() -> elevator.setConstraints(30, 85)),
-                    new InstantCommand(() -> shooter.stopFlywheels(), shooter),
-                    new SetPivotTarget(Constants.PivotConstants.STOW_SETPOINT_DEG, pivot))));
+        LoopProfiler.profile(
+            "ManipAButton/OnFalse",
+            new InstantCommand(() -> pivot.setShootState(SHOOT_STATE.AIMBOT))
+                .andThen(
+                    new SequentialCommandGroup(
+                        // new SetAmpBarTarget(5, 3, elevator),
+                        new InstantCommand(() -> shooter.turnOffFan()),
+                        new SetElevatorTarget(0, 0.5, elevator),
+                        new InstantCommand(() -> elevator.setConstraints(30, 85)),
+                        new InstantCommand(() -> shooter.stopFlywheels(), shooter),
+                        new SetPivotTarget(Constants.PivotConstants.STOW_SETPOINT_DEG, pivot)))));
     // manipAButton.onTrue(
     //     new InstantCommand(() -> pivot.setShootState(SHOOT_STATE.AMP))
     //         .andThen(new ScoreAmp(elevator, pivot, shooter, drive)));
@@ -943,19 +1004,45 @@ public class RobotContainer {
     //                 new InstantCommand(() -> shooter.stopFlywheels(), shooter),
     //                 new SetPivotTarget(Constants.PivotConstants.STOW_SETPOINT_DEG, pivot))));
 
+    // Label the last shot for the shot table refit: right scored, up high, down low, left wide
+    manipController
+        .povRight()
+        .onTrue(
+            Commands.runOnce(() -> shotRecorder.markLastShot(ShotLog.Result.SCORED))
+                .ignoringDisable(true));
+    manipController
+        .povUp()
+        .onTrue(
+            Commands.runOnce(() -> shotRecorder.markLastShot(ShotLog.Result.MISSED_HIGH))
+                .ignoringDisable(true));
+    manipController
+        .povDown()
+        .onTrue(
+            Commands.runOnce(() -> shotRecorder.markLastShot(ShotLog.Result.MISSED_LOW))
+                .ignoringDisable(true));
+    manipController
+        .povLeft()
+        .onTrue(
+            Commands.runOnce(() -> shotRecorder.markLastShot(ShotLog.Result.MISSED))
+                .ignoringDisable(true));
+
     manipBButton.onTrue(
-        new ParallelCommandGroup(
-                new SetPivotTarget(Constants.PivotConstants.SUBWOOFER_SETPOINT_DEG, pivot),
-                new SetShooterTargetRPM(
-                    Constants.ShooterConstants.FLYWHEEL_SHOOT_RPM,
-                    Constants.ShooterConstants.FLYWHEEL_SHOOT_RPM,
-                    shooter))
-            .andThen(new InstantCommand(() -> pivot.setShootState(SHOOT_STATE.PIVOT_PRESET))));
+        LoopProfiler.profile(
+            "ManipBButton/OnTrue",
+            new ParallelCommandGroup(
+                    new SetPivotTarget(Constants.PivotConstants.SUBWOOFER_SETPOINT_DEG, pivot),
+                    new SetShooterTargetRPM(
+                        Constants.ShooterConstants.FLYWHEEL_SHOOT_RPM,
+                        Constants.ShooterConstants.FLYWHEEL_SHOOT_RPM,
+                        shooter))
+                .andThen(new InstantCommand(() -> pivot.setShootState(SHOOT_STATE.PIVOT_PRESET)))));
     manipBButton.onFalse(
-        new ParallelCommandGroup(
-                new SetPivotTarget(Constants.PivotConstants.STOW_SETPOINT_DEG, pivot),
-                new SetShooterTargetRPM(0, 0, shooter))
-            .andThen(new InstantCommand(() -> pivot.setShootState(SHOOT_STATE.AIMBOT))));
+        LoopProfiler.profile(
+            "ManipBButton/OnFalse",
+            new ParallelCommandGroup(
+                    new SetPivotTarget(Constants.PivotConstants.STOW_SETPOINT_DEG, pivot),
+                    new SetShooterTargetRPM(0, 0, shooter))
+                .andThen(new InstantCommand(() -> pivot.setShootState(SHOOT_STATE.AIMBOT)))));
 
     // manipController
     // .leftBumper()
@@ -1002,13 +1089,18 @@ public class RobotContainer {
     //             .andThen(new WaitCommand(1))
     //             .andThen(new InstantCommand(shooter::stopFeeders, shooter)));
 
-    manipRightBumper.whileTrue(new TurnToAmpCorner(drive, pivot, shooter, driveController));
+    manipRightBumper.whileTrue(
+        LoopProfiler.profile(
+            "ManipRightBumper/WhileTrue",
+            new TurnToAmpCorner(drive, pivot, shooter, driveController)));
 
     manipRightBumper.onFalse(
-        new ParallelCommandGroup(
-                new InstantCommand(shooter::stopFlywheels, shooter),
-                new SetPivotTarget(Constants.PivotConstants.STOW_SETPOINT_DEG, pivot))
-            .andThen(new InstantCommand(shooter::stopFeeders, shooter)));
+        LoopProfiler.profile(
+            "ManipRightBumper/OnFalse",
+            new ParallelCommandGroup(
+                    new InstantCommand(shooter::stopFlywheels, shooter),
+                    new SetPivotTarget(Constants.PivotConstants.STOW_SETPOINT_DEG, pivot))
+                .andThen(new InstantCommand(shooter::stopFeeders, shooter))));
 
     // manipController
     //     .leftBumper()
@@ -1018,13 +1110,22 @@ public class RobotContainer {
     // manipController.povUp().whileTrue(new TurnToSource(drive, driveController));
   }
 
+  /** Adds an auto to the chooser, built by {@link AutoWarmup} while disabled. */
+  private void addAuto(String name) {
+    autos.addOption(name, name);
+    AutoWarmup.addAuto(name);
+  }
+
   /**
    * Use this to pass the autonomous command to the main {@link Robot} class.
    *
    * @return the command to run in autonomous
    */
   public Command getAutonomousCommand() {
-    return autoChooser.get();
+    String autoName = autoChooser.get();
+    return autoName == null
+        ? null
+        : LoopProfiler.profile("Autonomous", AutoWarmup.getAuto(autoName));
   }
 
   public Shooter getShooter() {
@@ -1047,6 +1148,10 @@ public class RobotContainer {
     return drive;
   }
 
+  public ShotRecorder getShotRecorder() {
+    return shotRecorder;
+  }
+
   public ClimbStateMachine getClimbStateMachine() {
     return climbStateMachine;
   }
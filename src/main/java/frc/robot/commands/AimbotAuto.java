@@ -4,11 +4,9 @@
 
 package frc.robot.commands;
 
-import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj.DriverStation;
-import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import edu.wpi.first.wpilibj2.command.Command;
 import frc.robot.Constants;
 import frc.robot.Constants.LED_STATE;
@@ -17,6 +15,8 @@ import frc.robot.subsystems.led.LED;
 import frc.robot.subsystems.pivot.Pivot;
 import frc.robot.subsystems.shooter.Shooter;
 import frc.robot.util.FieldConstants;
+import frc.robot.util.ShotSolution;
+import frc.robot.util.ShotTable;
 import org.littletonrobotics.junction.Logger;
 
 public class AimbotAuto extends Command {
@@ -25,20 +25,21 @@ public class AimbotAuto extends Command {
   private final Shooter shooter;
   private final Pivot pivot;
   private final LED led;
+  private final ShotTable shotTable;
 
   private final PIDController pid;
   private double[] gains = new double[3];
   private DriverStation.Alliance alliance = null;
 
   private double distanceToSpeakerMeter = 0;
-  private double pivotSetpointDeg = 0;
   /** Creates a new Aimbot. */
-  public AimbotAuto(Drive drive, Shooter shooter, Pivot pivot, LED led) {
+  public AimbotAuto(Drive drive, Shooter shooter, Pivot pivot, LED led, ShotTable shotTable) {
     // Use addRequirements() here to declare subsystem dependencies.
     this.drive = drive;
     this.shooter = shooter;
     this.pivot = pivot;
     this.led = led;
+    this.shotTable = shotTable;
 
     addRequirements(shooter, pivot, led);
 
@@ -94,55 +95,13 @@ public class AimbotAuto extends Command {
 
   public void angleShooter() {
     if (DriverStation.getAlliance().isPresent()) this.alliance = DriverStation.getAlliance().get();
-    // Logger.recordOutput("distance to speak", Units.metersToFeet(distanceToSpeakerMeter));
     distanceToSpeakerMeter = calculateDistanceToSpeaker();
-    if (Units.metersToFeet(distanceToSpeakerMeter) > 9) {
-      // double shootingSpeed =
-      //     MathUtil.clamp(
-      //         calculateShooterSpeed(Units.metersToFeet(distanceToSpeakerMeter)), 3250, 5400);
-      double shootingSpeed = calculateShooterSpeed(Units.metersToFeet(distanceToSpeakerMeter));
-      if (alliance == Alliance.Blue) {
-        // source side
-        if (drive.getPose().getY() < 4.5)
-          shooter.setFlywheelRPMs(shootingSpeed, shootingSpeed + 250);
-        // amp side
-        else if (drive.getPose().getY() > 6.5)
-          shooter.setFlywheelRPMs(shootingSpeed + 250, shootingSpeed);
-        // center
-        else shooter.setFlywheelRPMs(shootingSpeed, shootingSpeed);
-      } else {
-        // source side
-        if (drive.getPose().getY() < 4.5)
-          shooter.setFlywheelRPMs(shootingSpeed + 250, shootingSpeed);
-        // amp side
-        else if (drive.getPose().getY() > 6.5)
-          shooter.setFlywheelRPMs(shootingSpeed, shootingSpeed + 250);
-        // center
-        else shooter.setFlywheelRPMs(shootingSpeed, shootingSpeed);
-      }
-
-    } else shooter.setFlywheelRPMs(5400, 5400);
-    pivot.setPivotGoal(calculatePivotAngleDeg(distanceToSpeakerMeter));
-  }
-
-  private double calculateShooterSpeed(double distanceToSpeakerFeet) {
-
-    if (distanceToSpeakerFeet >= 11) {
-      return -430.7 * distanceToSpeakerFeet + 8815;
-    } else return -600. * distanceToSpeakerFeet + 10406;
-    // return -556.25 * distanceToSpeakerFeet + 10406;
-
-  }
-
-  private double calculatePivotAngleDeg(double distanceToSpeakerMeter) {
-    pivotSetpointDeg = (-0.272 * Math.abs(Units.metersToInches(distanceToSpeakerMeter) - 36) + 60);
-    pivotSetpointDeg = MathUtil.clamp(pivotSetpointDeg, 39, 62);
-
-    if (Units.metersToFeet(distanceToSpeakerMeter) >= 9.098) {
-      return 39;
-    }
-    Logger.recordOutput("pivot target auto", pivotSetpointDeg);
-    return pivotSetpointDeg;
+    ShotSolution shot =
+        shotTable.getSolution(
+            distanceToSpeakerMeter, drive.getPose().getY(), alliance == DriverStation.Alliance.Red);
+    shooter.setFlywheelRPMs(shot.leftRpm, shot.rightRpm, shotTable.getName());
+    pivot.setPivotGoal(shot.pivotDeg);
+    Logger.recordOutput("pivot target auto", shot.pivotDeg);
   }
 
   private double calculateDistanceToSpeaker() {
@@ -177,7 +136,7 @@ public class AimbotAuto extends Command {
         "current angle difference",
         drive.turnToSpeakerAngle().get().minus(drive.getRotation()).getDegrees());
     return Math.abs(drive.turnToSpeakerAngle().get().minus(drive.getRotation()).getDegrees()) <= 10
-        && shooter.atFlywheelSetpoints()
+        && shooter.flywheelsReadyToShoot()
         && pivot.atGoal();
   }
 }
@@ -5,7 +5,6 @@
 package frc.robot.commands;
 
 import edu.wpi.first.math.MathUtil;
-import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Transform2d;
@@ -13,7 +12,6 @@ import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj.DriverStation;
-import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
@@ -24,6 +22,9 @@ import frc.robot.subsystems.led.LED;
 import frc.robot.subsystems.pivot.Pivot;
 import frc.robot.subsystems.shooter.Shooter;
 import frc.robot.util.FieldConstants;
+import frc.robot.util.HeadingController;
+import frc.robot.util.ShotSolution;
+import frc.robot.util.ShotTable;
 import org.littletonrobotics.junction.Logger;
 
 public class AimbotStatic extends Command {
@@ -32,24 +33,30 @@ public class AimbotStatic extends Command {
   private final Shooter shooter;
   private final Pivot pivot;
   private final LED led;
+  private final ShotTable shotTable;
 
   private double startTime;
 
   private final CommandXboxController controller;
-  private final PIDController pid;
+  private final HeadingController headingController;
   private double[] gains = new double[3];
   private DriverStation.Alliance alliance = null;
 
   private double distanceToSpeakerMeter = 0;
-  private double pivotSetpointDeg = 0;
   /** Creates a new Aimbot. */
   public AimbotStatic(
-      Drive drive, CommandXboxController controller, Shooter shooter, Pivot pivot, LED led) {
+      Drive drive,
+      CommandXboxController controller,
+      Shooter shooter,
+      Pivot pivot,
+      LED led,
+      ShotTable shotTable) {
     // Use addRequirements() here to declare subsystem dependencies.
     this.drive = drive;
     this.shooter = shooter;
     this.pivot = pivot;
     this.led = led;
+    this.shotTable = shotTable;
 
     this.controller = controller;
 
@@ -78,15 +85,14 @@ public class AimbotStatic extends Command {
         break;
     }
 
-    pid = new PIDController(gains[0], gains[1], gains[2], 0.02);
-    pid.setTolerance(4);
-    pid.enableContinuousInput(-180, 180);
+    headingController = new HeadingController(gains[0], gains[2], 4);
   }
 
   // Called when the command is initially scheduled.
   @Override
   public void initialize() {
     startTime = Timer.getFPGATimestamp();
+    headingController.reset(drive.getRotation(), drive.getYawVelocityRadPerSec());
     led.setState(LED_STATE.FLASHING_GREEN);
   }
 
@@ -107,58 +113,13 @@ public class AimbotStatic extends Command {
 
   public void angleShooter() {
     if (DriverStation.getAlliance().isPresent()) this.alliance = DriverStation.getAlliance().get();
-    // Logger.recordOutput("distance to speak", Units.metersToFeet(distanceToSpeakerMeter));
     distanceToSpeakerMeter = calculateDistanceToSpeaker();
-    if (Units.metersToFeet(distanceToSpeakerMeter) > 13) {
-      // double shootingSpeed =
-      //     MathUtil.clamp(
-      //         calculateShooterSpeed(Units.metersToFeet(distanceToSpeakerMeter)), 3250, 5400);
-      double shootingSpeed = calculateShooterSpeed(Units.metersToFeet(distanceToSpeakerMeter));
-      if (alliance == Alliance.Blue) {
-        // source side
-        if (drive.getPose().getY() < 4.5)
-          shooter.setFlywheelRPMs(shootingSpeed, shootingSpeed + 250);
-        // amp side
-        else if (drive.getPose().getY() > 6.5)
-          shooter.setFlywheelRPMs(shootingSpeed + 250, shootingSpeed);
-        // center
-        else shooter.setFlywheelRPMs(shootingSpeed, shootingSpeed);
-      } else {
-        // source side
-        if (drive.getPose().getY() < 4.5)
-          shooter.setFlywheelRPMs(shootingSpeed + 250, shootingSpeed);
-        // amp side
-        else if (drive.getPose().getY() > 6.5)
-          shooter.setFlywheelRPMs(shootingSpeed, shootingSpeed + 250);
-        // center
-        else shooter.setFlywheelRPMs(shootingSpeed, shootingSpeed);
-      }
-    } else shooter.setFlywheelRPMs(5700, 5400);
-    pivot.setPivotGoal(calculatePivotAngleDeg(distanceToSpeakerMeter));
-  }
-
-  private double calculateShooterSpeed(double distanceToSpeakerFeet) {
-    double shooterSpeed = -986.49 * distanceToSpeakerFeet + 17294.6;
-    // shooterSpeed = MathUtil.clamp(shooterSpeed, 3850, 5400);
-    shooterSpeed = MathUtil.clamp(shooterSpeed, 4000, 5200);
-    // if (distanceToSpeakerFeet >= 11) {
-    // return -430.7 * distanceToSpeakerFeet + 8815;
-    // } else return -600. * distanceToSpeakerFeet + 10406;
-    return shooterSpeed;
-  }
-
-  private double calculatePivotAngleDeg(double distanceToSpeakerMeter) {
-    // pivotSetpointDeg = (-0.272 * Math.abs(Units.metersToInches(distanceToSpeakerMeter) - 36) +
-    // 60);
-    pivotSetpointDeg =
-        (-0.253 * Math.abs(Units.metersToInches(distanceToSpeakerMeter) - 36) + 57.68);
-    pivotSetpointDeg = MathUtil.clamp(pivotSetpointDeg, 34, 62);
-
-    if (Units.metersToFeet(distanceToSpeakerMeter) > 12) {
-      return 34;
-    }
-    Logger.recordOutput("pivot target auto", pivotSetpointDeg);
-    return pivotSetpointDeg + 2.9;
+    ShotSolution shot =
+        shotTable.getSolution(
+            distanceToSpeakerMeter, drive.getPose().getY(), alliance == DriverStation.Alliance.Red);
+    shooter.setFlywheelRPMs(shot.leftRpm, shot.rightRpm, shotTable.getName());
+    pivot.setPivotGoal(shot.pivotDeg);
+    Logger.recordOutput("pivot target auto", shot.pivotDeg);
   }
 
   private double calculateDistanceToSpeaker() {
@@ -177,53 +138,14 @@ public class AimbotStatic extends Command {
   }
 
   public void turnToSpeaker() {
-    double targetAngle;
     if (DriverStation.getAlliance().isPresent()) this.alliance = DriverStation.getAlliance().get();
+    double speakerX = alliance == DriverStation.Alliance.Red ? FieldConstants.fieldLength : 0.0;
+    double speakerY = FieldConstants.Speaker.speakerCenterY;
+    Pose2d pose = drive.getPose();
+    // The shooter is on the back of the robot
+    double targetAngle = Math.atan2(speakerY - pose.getY(), speakerX - pose.getX()) + Math.PI;
 
-    if (alliance == DriverStation.Alliance.Red) {
-      targetAngle =
-          new Rotation2d(
-                      (FieldConstants.fieldLength) - drive.getPose().getX(),
-                      FieldConstants.Speaker.speakerCenterY - drive.getPose().getY())
-                  .getDegrees()
-              + 180;
-
-      // Logger.recordOutput(
-      //     "speaker target",
-      //     new Translation2d(
-      //         (FieldConstants.fieldLength - Units.inchesToMeters(5)) ,
-      //         FieldConstants.Speaker.speakerCenterY ));
-
-      pid.setSetpoint(
-          new Rotation2d(
-                      (FieldConstants.fieldLength) - drive.getPose().getX(),
-                      FieldConstants.Speaker.speakerCenterY - drive.getPose().getY())
-                  .getDegrees()
-              + 180);
-    } else {
-      targetAngle =
-          new Rotation2d(
-                      -drive.getPose().getX(),
-                      FieldConstants.Speaker.speakerCenterY - drive.getPose().getY())
-                  .getDegrees()
-              + 180;
-      // Logger.recordOutput(
-      //     "speaker target",
-      //     new Translation2d(
-      //         (FieldConstants.fieldLength - Units.inchesToMeters(5)) ,
-      //         FieldConstants.Speaker.speakerCenterY ));
-
-      pid.setSetpoint(
-          new Rotation2d(
-                      -drive.getPose().getX(),
-                      FieldConstants.Speaker.speakerCenterY - drive.getPose().getY())
-                  .getDegrees()
-              + 180);
-    }
-
-    Logger.recordOutput("Rotation error", pid.getPositionError());
-
-    Logger.recordOutput("target angle", targetAngle);
+    Logger.recordOutput("target angle", Math.toDegrees(targetAngle));
     double linearMagnitude =
         MathUtil.applyDeadband(Math.hypot(-controller.getLeftY(), -controller.getLeftX()), 0.1);
     Rotation2d linearDirection = new Rotation2d(-controller.getLeftY(), -controller.getLeftX());
@@ -235,14 +157,19 @@ public class AimbotStatic extends Command {
         new Pose2d(new Translation2d(), linearDirection)
             .transformBy(new Transform2d(linearMagnitude, 0.0, new Rotation2d()))
             .getTranslation();
-    double angularSpeed = pid.calculate(drive.getPose().getRotation().getDegrees());
+    double vx = linearVelocity.getX() * drive.getMaxLinearSpeedMetersPerSec();
+    double vy = linearVelocity.getY() * drive.getMaxLinearSpeedMetersPerSec();
+    double angularSpeed =
+        headingController.calculate(
+            pose.getRotation(),
+            drive.getYawVelocityRadPerSec(),
+            targetAngle,
+            HeadingController.getPointingRateRadPerSec(
+                pose.getX(), pose.getY(), vx, vy, speakerX, speakerY));
+    Logger.recordOutput("Rotation error", Math.toDegrees(headingController.getAngleErrorRad()));
 
     drive.runVelocity(
-        ChassisSpeeds.fromFieldRelativeSpeeds(
-            linearVelocity.getX() * drive.getMaxLinearSpeedMetersPerSec(),
-            linearVelocity.getY() * drive.getMaxLinearSpeedMetersPerSec(),
-            Math.toRadians(angularSpeed),
-            drive.getPose().getRotation()));
+        ChassisSpeeds.fromFieldRelativeSpeeds(vx, vy, angularSpeed, pose.getRotation()));
   }
 
   // Called once the command ends or is interrupted.
@@ -256,7 +183,7 @@ public class AimbotStatic extends Command {
   @Override
   public boolean isFinished() {
     Logger.recordOutput("i am currently this angle", drive.getRotation().getDegrees());
-    return pid.atSetpoint() && shooter.atFlywheelSetpoints() && pivot.atGoal()
+    return headingController.isReady() && shooter.flywheelsReadyToShoot() && pivot.atGoal()
         || (Timer.getFPGATimestamp() - startTime > 1.323);
     // return true;
   }
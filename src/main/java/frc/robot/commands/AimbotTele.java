@@ -5,7 +5,6 @@
 package frc.robot.commands;
 
 import edu.wpi.first.math.MathUtil;
-import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Transform2d;
@@ -22,7 +21,10 @@ import frc.robot.subsystems.drive.Drive;
 import frc.robot.subsystems.led.LED;
 import frc.robot.subsystems.pivot.Pivot;
 import frc.robot.subsystems.shooter.Shooter;
-import frc.robot.util.FieldConstants;
+import frc.robot.util.HeadingController;
+import frc.robot.util.MovingShotSolver;
+import frc.robot.util.ShotSolution;
+import frc.robot.util.ShotTable;
 import org.littletonrobotics.junction.Logger;
 
 public class AimbotTele extends Command {
@@ -31,24 +33,32 @@ public class AimbotTele extends Command {
   private final Shooter shooter;
   private final Pivot pivot;
   private final LED led;
+  private final MovingShotSolver shotSolver;
+  private final String shotProfile;
 
   private double startTime;
 
   private final CommandXboxController controller;
-  private final PIDController pid;
+  private final HeadingController headingController;
   private double[] gains = new double[3];
   private DriverStation.Alliance alliance = null;
 
   private double distanceToSpeakerMeter = 0;
-  private double pivotSetpointDeg = 0;
   /** Creates a new Aimbot. */
   public AimbotTele(
-      Drive drive, CommandXboxController controller, Shooter shooter, Pivot pivot, LED led) {
+      Drive drive,
+      CommandXboxController controller,
+      Shooter shooter,
+      Pivot pivot,
+      LED led,
+      ShotTable shotTable) {
     // Use addRequirements() here to declare subsystem dependencies.
     this.drive = drive;
     this.shooter = shooter;
     this.pivot = pivot;
     this.led = led;
+    this.shotSolver = new MovingShotSolver(shotTable, Constants.ShooterConstants.SHOT_LATENCY_SECS);
+    this.shotProfile = shotTable.getName();
 
     this.controller = controller;
 
@@ -77,25 +87,33 @@ public class AimbotTele extends Command {
         break;
     }
 
-    pid = new PIDController(gains[0], gains[1], gains[2], 0.02);
-    pid.setTolerance(2);
-    pid.enableContinuousInput(-180, 180);
+    headingController = new HeadingController(gains[0], gains[2], 2);
   }
 
   // Called when the command is initially scheduled.
   @Override
   public void initialize() {
     startTime = Timer.getFPGATimestamp();
+    headingController.reset(drive.getRotation(), drive.getYawVelocityRadPerSec());
     led.setState(LED_STATE.FLASHING_GREEN);
   }
 
   // Called every time the scheduler runs while the command is scheduled.
   @Override
   public void execute() {
+    if (DriverStation.getAlliance().isPresent()) this.alliance = DriverStation.getAlliance().get();
+    shotSolver.solve(
+        drive.getPose(),
+        drive.getPoseTimestamp(),
+        Timer.getFPGATimestamp(),
+        drive.getFieldRelativeSpeeds(),
+        alliance);
     turnToSpeaker();
     angleShooter();
 
-    Logger.recordOutput("distance from speak", Units.metersToFeet(calculateDistanceToSpeaker()));
+    Logger.recordOutput("distance from speak", Units.metersToFeet(distanceToSpeakerMeter));
+    Logger.recordOutput("Aimbot/VirtualTarget", shotSolver.getVirtualTarget());
+    Logger.recordOutput("Aimbot/SolverIterations", shotSolver.getIterations());
 
     // if (Units.metersToFeet(calculateDistanceToSpeaker()) > 12) {
     //   led.setState(LED_STATE.FLASHING_RED);
@@ -105,107 +123,18 @@ public class AimbotTele extends Command {
   }
 
   public void angleShooter() {
-    if (DriverStation.getAlliance().isPresent()) this.alliance = DriverStation.getAlliance().get();
-    // Logger.recordOutput("distance to speak", Units.metersToFeet(distanceToSpeakerMeter));
-    distanceToSpeakerMeter = calculateDistanceToSpeaker();
-    if (Units.metersToFeet(distanceToSpeakerMeter) > 12) {
-      // double shootingSpeed =
-      //     MathUtil.clamp(
-      //         calculateShooterSpeed(Units.metersToFeet(distanceToSpeakerMeter)), 3250, 5400);
-      double shootingSpeed = calculateShooterSpeed(Units.metersToFeet(distanceToSpeakerMeter));
-
-      shooter.setFlywheelRPMs(shootingSpeed, shootingSpeed + 100);
-    } else shooter.setFlywheelRPMs(5700, 5400);
-    pivot.setPivotGoal(calculatePivotAngleDeg(distanceToSpeakerMeter));
-  }
-
-  private double calculateShooterSpeed(double distanceToSpeakerFeet) {
-    double shooterSpeed = -986.49 * distanceToSpeakerFeet + 17294.6;
-    // shooterSpeed = MathUtil.clamp(shooterSpeed, 3850, 5400);
-    shooterSpeed = MathUtil.clamp(shooterSpeed, 4000, 5400);
-    // if (distanceToSpeakerFeet >= 11) {
-    // return -430.7 * distanceToSpeakerFeet + 8815;
-    // } else return -600. * distanceToSpeakerFeet + 10406;
-    return shooterSpeed;
-  }
-
-  private double calculatePivotAngleDeg(double distanceToSpeakerMeter) {
-    // pivotSetpointDeg = (-0.272 * Math.abs(Units.metersToInches(distanceToSpeakerMeter) - 36) +
-    // 60);
-    pivotSetpointDeg =
-        (-0.253 * Math.abs(Units.metersToInches(distanceToSpeakerMeter) - 36) + 57.68);
-    pivotSetpointDeg = MathUtil.clamp(pivotSetpointDeg, 34, 62);
-
-    if (Units.metersToFeet(distanceToSpeakerMeter) > 12) {
-      return 34;
-    }
-    Logger.recordOutput("pivot target auto", pivotSetpointDeg);
-    return pivotSetpointDeg + 3.3;
-  }
-
-  private double calculateDistanceToSpeaker() {
-    double x = 0;
-    double y = 0;
-
-    if (alliance == DriverStation.Alliance.Red) {
-      x = FieldConstants.fieldLength - drive.getPose().getX();
-      y = FieldConstants.Speaker.speakerCenterY - drive.getPose().getY();
-    } else {
-      x = -drive.getPose().getX();
-      y = FieldConstants.Speaker.speakerCenterY - drive.getPose().getY();
-    }
-
-    return Math.hypot(x, y);
+    ShotSolution shot = shotSolver.getSolution();
+    distanceToSpeakerMeter = shot.distanceMeters;
+    shooter.setFlywheelRPMs(shot.leftRpm, shot.rightRpm, shotProfile);
+    pivot.setPivotGoal(shot.pivotDeg);
+    Logger.recordOutput("pivot target auto", shot.pivotDeg);
   }
 
   public void turnToSpeaker() {
-    double targetAngle;
-    if (DriverStation.getAlliance().isPresent()) this.alliance = DriverStation.getAlliance().get();
-
-    if (alliance == DriverStation.Alliance.Red) {
-      targetAngle =
-          new Rotation2d(
-                      (FieldConstants.fieldLength) - drive.getPose().getX(),
-                      FieldConstants.Speaker.speakerCenterY - drive.getPose().getY())
-                  .getDegrees()
-              + 180;
-
-      // Logger.recordOutput(
-      //     "speaker target",
-      //     new Translation2d(
-      //         (FieldConstants.fieldLength - Units.inchesToMeters(5)) ,
-      //         FieldConstants.Speaker.speakerCenterY ));
-
-      pid.setSetpoint(
-          new Rotation2d(
-                      (FieldConstants.fieldLength) - drive.getPose().getX(),
-                      FieldConstants.Speaker.speakerCenterY - drive.getPose().getY())
-                  .getDegrees()
-              + 180);
-    } else {
-      targetAngle =
-          new Rotation2d(
-                      -drive.getPose().getX(),
-                      FieldConstants.Speaker.speakerCenterY - drive.getPose().getY())
-                  .getDegrees()
-              + 180;
-      // Logger.recordOutput(
-      //     "speaker target",
-      //     new Translation2d(
-      //         (FieldConstants.fieldLength - Units.inchesToMeters(5)) ,
-      //         FieldConstants.Speaker.speakerCenterY ));
-
-      pid.setSetpoint(
-          new Rotation2d(
-                      -drive.getPose().getX(),
-                      FieldConstants.Speaker.speakerCenterY - drive.getPose().getY())
-                  .getDegrees()
-              + 180);
-    }
-
-    Logger.recordOutput("Rotation error", pid.getPositionError());
+    Pose2d pose = drive.getPose();
+    double targetAngle = Math.toRadians(shotSolver.getHeadingDeg());
 
-    Logger.recordOutput("target angle", targetAngle);
+    Logger.recordOutput("target angle", Math.toDegrees(targetAngle));
     double linearMagnitude =
         MathUtil.applyDeadband(Math.hypot(-controller.getLeftY(), -controller.getLeftX()), 0.1);
     Rotation2d linearDirection = new Rotation2d(-controller.getLeftY(), -controller.getLeftX());
@@ -217,14 +146,24 @@ public class AimbotTele extends Command {
         new Pose2d(new Translation2d(), linearDirection)
             .transformBy(new Transform2d(linearMagnitude, 0.0, new Rotation2d()))
             .getTranslation();
-    double angularSpeed = pid.calculate(drive.getPose().getRotation().getDegrees());
+    double vx = linearVelocity.getX() * drive.getMaxLinearSpeedMetersPerSec();
+    double vy = linearVelocity.getY() * drive.getMaxLinearSpeedMetersPerSec();
+    double angularSpeed =
+        headingController.calculate(
+            pose.getRotation(),
+            drive.getYawVelocityRadPerSec(),
+            targetAngle,
+            HeadingController.getPointingRateRadPerSec(
+                pose.getX(),
+                pose.getY(),
+                vx,
+                vy,
+                shotSolver.getVirtualTargetX(),
+                shotSolver.getVirtualTargetY()));
+    Logger.recordOutput("Rotation error", Math.toDegrees(headingController.getAngleErrorRad()));
 
     drive.runVelocity(
-        ChassisSpeeds.fromFieldRelativeSpeeds(
-            linearVelocity.getX() * drive.getMaxLinearSpeedMetersPerSec(),
-            linearVelocity.getY() * drive.getMaxLinearSpeedMetersPerSec(),
-            Math.toRadians(angularSpeed),
-            drive.getPose().getRotation()));
+        ChassisSpeeds.fromFieldRelativeSpeeds(vx, vy, angularSpeed, pose.getRotation()));
   }
 
   // Called once the command ends or is interrupted.
@@ -238,7 +177,7 @@ public class AimbotTele extends Command {
   @Override
   public boolean isFinished() {
     Logger.recordOutput("i am currently this angle", drive.getRotation().getDegrees());
-    return (pid.atSetpoint() && shooter.atFlywheelSetpoints() && pivot.atGoal())
+    return (headingController.isReady() && shooter.flywheelsReadyToShoot() && pivot.atGoal())
         || (Timer.getFPGATimestamp() - startTime > 1.323);
     // return shooter.atFlywheelSetpoints();
   }
@@ -4,7 +4,6 @@
 
 package frc.robot.commands;
 
-import com.pathplanner.lib.auto.AutoBuilder;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.wpilibj2.command.Command;
 import frc.robot.Constants;
@@ -53,9 +52,7 @@ public class AlignToNoteAuto extends Command {
     pivot.setPivotGoal(Constants.PivotConstants.STOW_SETPOINT_DEG);
     targetNoteLocation = drive.getTargetNoteLocation();
 
-    generatedPathCommand =
-        AutoBuilder.followPath(
-            drive.generateTrajectoryToNote(targetNoteLocation, 3, 2.45, 100, 180, 0.5));
+    generatedPathCommand = drive.getNoteApproachCommand(targetNoteLocation);
 
     generatedPathCommand.initialize();
   }
@@ -64,7 +61,7 @@ public class AlignToNoteAuto extends Command {
   @Override
   public void execute() {
 
-    finished = shooter.seesNote() == NoteState.SENSOR;
+    finished = shooter.getNoteState() == NoteState.SENSOR;
 
     generatedPathCommand.execute();
 
@@ -82,10 +79,8 @@ public class AlignToNoteAuto extends Command {
   // Returns true when the command should end.
   @Override
   public boolean isFinished() {
-    Logger.recordOutput("isFinished align note", shooter.seesNote());
+    Logger.recordOutput("isFinished align note", shooter.getNoteState());
     // return false;
-    return shooter.seesNote() == NoteState.SENSOR
-        || shooter.seesNote() == NoteState.CURRENT
-        || finished;
+    return shooter.hasNote() || finished;
   }
 }
@@ -9,7 +9,6 @@ import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj2.command.Command;
 import frc.robot.Constants;
 import frc.robot.Constants.LED_STATE;
-import frc.robot.Constants.NoteState;
 import frc.robot.subsystems.drive.Drive;
 import frc.robot.subsystems.intake.Intake;
 import frc.robot.subsystems.led.LED;
@@ -54,7 +53,7 @@ public class AlignToNoteTele extends Command {
   // Called every time the scheduler runs while the command is scheduled.
   @Override
   public void execute() {
-    if (shooter.seesNote() == NoteState.CURRENT || shooter.seesNote() == NoteState.SENSOR) {
+    if (shooter.hasNote()) {
       end(true);
     }
     pathCommand.execute();
@@ -81,9 +80,8 @@ public class AlignToNoteTele extends Command {
   // Returns true when the command should end.
   @Override
   public boolean isFinished() {
-    if (shooter.seesNote() == NoteState.SENSOR || shooter.seesNote() == NoteState.CURRENT)
-      led.setState(LED_STATE.GREEN);
-    return shooter.seesNote() == NoteState.SENSOR || shooter.seesNote() == NoteState.CURRENT;
+    if (shooter.hasNote()) led.setState(LED_STATE.GREEN);
+    return shooter.hasNote();
   }
 
   public void replanPath() {
@@ -29,7 +29,6 @@ import edu.wpi.first.wpilibj2.command.ParallelCommandGroup;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
 import frc.robot.Constants;
 import frc.robot.Constants.LED_STATE;
-import frc.robot.Constants.NoteState;
 import frc.robot.subsystems.drive.Drive;
 import frc.robot.subsystems.intake.Intake;
 import frc.robot.subsystems.led.LED;
@@ -70,7 +69,7 @@ public class DriveCommands {
       BooleanSupplier intakeAssistSupplier,
       BooleanSupplier turnToSourceSupplier) {
 
-    if (shooter.seesNote() == NoteState.CURRENT || shooter.seesNote() == NoteState.SENSOR) {
+    if (shooter.hasNote()) {
       return joystickDrive(
           drive, xSupplier, ySupplier, omegaSupplier, intakeAssistSupplier, turnToSourceSupplier);
     } else {
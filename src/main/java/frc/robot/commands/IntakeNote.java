@@ -40,7 +40,7 @@ public class IntakeNote extends Command {
   // Called every time the scheduler runs while the command is scheduled.
   @Override
   public void execute() {
-    if (intake.getVolts() < 1 && intake.getAmps() > 38 && intake.getRPM() < 44.14) {
+    if (shooter.getNoteState() == NoteState.INTAKE) {
       led.setState(LED_STATE.PURPLE);
     } else {
       if (isAutoAlign) {
@@ -49,22 +49,24 @@ public class IntakeNote extends Command {
         led.setState(LED_STATE.RED);
       }
     }
-    if (shooter.seesNote() == NoteState.CURRENT || shooter.seesNote() == NoteState.SENSOR)
-      end(true);
+    if (shooter.hasNote()) end(true);
   }
 
   // Called once the command ends or is interrupted.
   @Override
   public void end(boolean interrupted) {
     intake.changeLEDBoolTrue();
-    shooter.setFeedersRPM(0);
+    if (shooter.hasNote()) {
+      shooter.stageNote();
+    } else {
+      shooter.setFeedersRPM(0);
+    }
     intake.stopRollers();
-    // if (shooter.seesNote()) ;
   }
 
   // Returns true when the command should end.
   @Override
   public boolean isFinished() {
-    return shooter.seesNote() == NoteState.SENSOR || shooter.seesNote() == NoteState.CURRENT;
+    return shooter.hasNote();
   }
 }
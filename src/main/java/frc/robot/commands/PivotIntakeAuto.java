@@ -4,6 +4,7 @@
 
 package frc.robot.commands;
 
+import edu.wpi.first.wpilibj2.command.ConditionalCommand;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
 import edu.wpi.first.wpilibj2.command.WaitCommand;
@@ -30,9 +31,14 @@ public class PivotIntakeAuto extends SequentialCommandGroup {
           // new WaitUntilCommand(pivot::atSetpoint),
           new IntakeNote(intake, shooter, led, true),
           new InstantCommand(() -> led.setState(LED_STATE.GREEN)),
-          new InstantCommand(() -> shooter.setFeedersRPM(150)),
-          new WaitCommand(1),
-          new InstantCommand(shooter::stopFeeders));
+          // IntakeNote stages the note if it got one, creep the feeder in only if it didn't
+          new ConditionalCommand(
+              new WaitUntilCommand(shooter::isNoteStaged).withTimeout(1),
+              new SequentialCommandGroup(
+                  new InstantCommand(() -> shooter.setFeedersRPM(150)),
+                  new WaitCommand(1),
+                  new InstantCommand(shooter::stopFeeders)),
+              shooter::hasNote));
       // new InstantCommand(shooter::stopFeedWhenSeen, shooter));
       ;
     } else {
@@ -6,7 +6,7 @@ package frc.robot.commands;
 
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
-import edu.wpi.first.wpilibj2.command.WaitCommand;
+import edu.wpi.first.wpilibj2.command.WaitUntilCommand;
 import frc.robot.subsystems.intake.Intake;
 import frc.robot.subsystems.shooter.Shooter;
 
@@ -29,8 +29,8 @@ public class PositionNoteInFeeder extends SequentialCommandGroup {
     // Add your commands in the addCommands() call, e.g.
     // addCommands(new FooCommand(), new BarCommand());
     addCommands(
-        new InstantCommand(() -> shooter.setFeedersRPM(-100), shooter),
-        new WaitCommand(0.5),
+        new InstantCommand(shooter::stageNote, shooter),
+        new WaitUntilCommand(shooter::isNoteStaged).withTimeout(0.5),
         new InstantCommand(shooter::stopFeeders, shooter));
   }
 }
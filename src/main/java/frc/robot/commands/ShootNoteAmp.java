@@ -7,6 +7,7 @@ package frc.robot.commands;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
 import edu.wpi.first.wpilibj2.command.WaitCommand;
+import edu.wpi.first.wpilibj2.command.WaitUntilCommand;
 import frc.robot.subsystems.shooter.Shooter;
 
 // NOTE:  Consider using this command inline, rather than writing a subclass.  For more
@@ -20,7 +21,7 @@ public class ShootNoteAmp extends SequentialCommandGroup {
 
     addCommands(
         new InstantCommand(() -> shooter.setFlywheelRPMSAmp(), shooter),
-        new WaitCommand(1),
+        new WaitUntilCommand(shooter::flywheelsReadyToShoot).withTimeout(1),
         new InstantCommand(() -> shooter.setFeedersRPM(4000)),
         new WaitCommand(0.5),
         new InstantCommand(shooter::stopFeeders, shooter),
@@ -5,7 +5,6 @@
 package frc.robot.commands;
 
 import edu.wpi.first.math.MathUtil;
-import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Transform2d;
@@ -16,12 +15,13 @@ import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
 import frc.robot.Constants;
 import frc.robot.subsystems.drive.Drive;
+import frc.robot.util.HeadingController;
 import org.littletonrobotics.junction.Logger;
 
 public class TurnToAmp extends Command {
   private final Drive drive;
   private final CommandXboxController controller;
-  private final PIDController pid;
+  private final HeadingController headingController;
   private double[] gains = new double[3];
   private DriverStation.Alliance alliance = null;
   /** Creates a new TurnToSpeaker. */
@@ -54,32 +54,23 @@ public class TurnToAmp extends Command {
         break;
     }
 
-    pid = new PIDController(gains[0], gains[1], gains[2], 0.02);
-    pid.setTolerance(0);
-    pid.enableContinuousInput(-180, 180);
+    headingController = new HeadingController(gains[0], gains[2], 0);
   }
 
   // Called when the command is initially scheduled.
   @Override
-  public void initialize() {}
+  public void initialize() {
+    headingController.reset(drive.getRotation(), drive.getYawVelocityRadPerSec());
+  }
 
   // Called every time the scheduler runs while the command is scheduled.
   @Override
   public void execute() {
-    double targetAngle;
     if (DriverStation.getAlliance().isPresent()) this.alliance = DriverStation.getAlliance().get();
-
-    if (alliance == DriverStation.Alliance.Red) {
-      targetAngle = -90;
-      ;
-      pid.setSetpoint(targetAngle);
-    } else {
-      targetAngle = 90;
-      ;
-      pid.setSetpoint(targetAngle);
-    }
+    double targetAngle = alliance == DriverStation.Alliance.Red ? -90 : 90;
 
     Logger.recordOutput("target angle amp", targetAngle);
+    Pose2d pose = drive.getPose();
     double linearMagnitude =
         MathUtil.applyDeadband(Math.hypot(-controller.getLeftY(), -controller.getLeftX()), 0.1);
     Rotation2d linearDirection = new Rotation2d(-controller.getLeftY(), -controller.getLeftX());
@@ -91,14 +82,14 @@ public class TurnToAmp extends Command {
         new Pose2d(new Translation2d(), linearDirection)
             .transformBy(new Transform2d(linearMagnitude, 0.0, new Rotation2d()))
             .getTranslation();
-    double angularSpeed = pid.calculate(drive.getPose().getRotation().getDegrees());
+    double vx = linearVelocity.getX() * drive.getMaxLinearSpeedMetersPerSec();
+    double vy = linearVelocity.getY() * drive.getMaxLinearSpeedMetersPerSec();
+    double angularSpeed =
+        headingController.calculate(
+            pose.getRotation(), drive.getYawVelocityRadPerSec(), Math.toRadians(targetAngle));
 
     drive.runVelocity(
-        ChassisSpeeds.fromFieldRelativeSpeeds(
-            linearVelocity.getX() * drive.getMaxLinearSpeedMetersPerSec(),
-            linearVelocity.getY() * drive.getMaxLinearSpeedMetersPerSec(),
-            Math.toRadians(angularSpeed),
-            drive.getPose().getRotation()));
+        ChassisSpeeds.fromFieldRelativeSpeeds(vx, vy, angularSpeed, pose.getRotation()));
   }
 
   // Called once the command ends or is interrupted.
@@ -108,6 +99,6 @@ public class TurnToAmp extends Command {
   // Returns true when the command should end.
   @Override
   public boolean isFinished() {
-    return pid.atSetpoint();
+    return headingController.isReady();
   }
 }
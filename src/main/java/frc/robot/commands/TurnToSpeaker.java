@@ -5,7 +5,6 @@
 package frc.robot.commands;
 
 import edu.wpi.first.math.MathUtil;
-import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.geometry.Transform2d;
@@ -17,12 +16,13 @@ import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
 import frc.robot.Constants;
 import frc.robot.subsystems.drive.Drive;
 import frc.robot.util.FieldConstants;
+import frc.robot.util.HeadingController;
 import org.littletonrobotics.junction.Logger;
 
 public class TurnToSpeaker extends Command {
   private final Drive drive;
   private final CommandXboxController controller;
-  private final PIDController pid;
+  private final HeadingController headingController;
   private double[] gains = new double[3];
   private DriverStation.Alliance alliance = null;
   /** Creates a new TurnToSpeaker. */
@@ -55,50 +55,26 @@ public class TurnToSpeaker extends Command {
         break;
     }
 
-    pid = new PIDController(gains[0], gains[1], gains[2], 0.02);
-    pid.setTolerance(0);
-    pid.enableContinuousInput(-180, 180);
+    headingController = new HeadingController(gains[0], gains[2], 0);
   }
 
   // Called when the command is initially scheduled.
   @Override
-  public void initialize() {}
+  public void initialize() {
+    headingController.reset(drive.getRotation(), drive.getYawVelocityRadPerSec());
+  }
 
   // Called every time the scheduler runs while the command is scheduled.
   @Override
   public void execute() {
-    double targetAngle;
     if (DriverStation.getAlliance().isPresent()) this.alliance = DriverStation.getAlliance().get();
+    double speakerX = alliance == DriverStation.Alliance.Red ? FieldConstants.fieldLength : 0.0;
+    double speakerY = FieldConstants.Speaker.speakerCenterY;
+    Pose2d pose = drive.getPose();
+    // The shooter is on the back of the robot
+    double targetAngle = Math.atan2(speakerY - pose.getY(), speakerX - pose.getX()) + Math.PI;
 
-    if (alliance == DriverStation.Alliance.Red) {
-      targetAngle =
-          new Rotation2d(
-                      FieldConstants.fieldLength - drive.getPose().getX(),
-                      FieldConstants.Speaker.speakerCenterY - drive.getPose().getY())
-                  .getDegrees()
-              + 180;
-      pid.setSetpoint(
-          new Rotation2d(
-                      FieldConstants.fieldLength - drive.getPose().getX(),
-                      FieldConstants.Speaker.speakerCenterY - drive.getPose().getY())
-                  .getDegrees()
-              + 180);
-    } else {
-      targetAngle =
-          new Rotation2d(
-                      -drive.getPose().getX(),
-                      FieldConstants.Speaker.speakerCenterY - drive.getPose().getY())
-                  .getDegrees()
-              + 180;
-      pid.setSetpoint(
-          new Rotation2d(
-                      -drive.getPose().getX(),
-                      FieldConstants.Speaker.speakerCenterY - drive.getPose().getY())
-                  .getDegrees()
-              + 180);
-    }
-
-    Logger.recordOutput("target angle", targetAngle);
+    Logger.recordOutput("target angle", Math.toDegrees(targetAngle));
     double linearMagnitude =
         MathUtil.applyDeadband(Math.hypot(-controller.getLeftY(), -controller.getLeftX()), 0.1);
     Rotation2d linearDirection = new Rotation2d(-controller.getLeftY(), -controller.getLeftX());
@@ -110,14 +86,18 @@ public class TurnToSpeaker extends Command {
         new Pose2d(new Translation2d(), linearDirection)
             .transformBy(new Transform2d(linearMagnitude, 0.0, new Rotation2d()))
             .getTranslation();
-    double angularSpeed = pid.calculate(drive.getPose().getRotation().getDegrees());
+    double vx = linearVelocity.getX() * drive.getMaxLinearSpeedMetersPerSec();
+    double vy = linearVelocity.getY() * drive.getMaxLinearSpeedMetersPerSec();
+    double angularSpeed =
+        headingController.calculate(
+            pose.getRotation(),
+            drive.getYawVelocityRadPerSec(),
+            targetAngle,
+            HeadingController.getPointingRateRadPerSec(
+                pose.getX(), pose.getY(), vx, vy, speakerX, speakerY));
 
     drive.runVelocity(
-        ChassisSpeeds.fromFieldRelativeSpeeds(
-            linearVelocity.getX() * drive.getMaxLinearSpeedMetersPerSec(),
-            linearVelocity.getY() * drive.getMaxLinearSpeedMetersPerSec(),
-            Math.toRadians(angularSpeed),
-            drive.getPose().getRotation()));
+        ChassisSpeeds.fromFieldRelativeSpeeds(vx, vy, angularSpeed, pose.getRotation()));
   }
 
   // Called once the command ends or is interrupted.
@@ -127,6 +107,6 @@ public class TurnToSpeaker extends Command {
   // Returns true when the command should end.
   @Override
   public boolean isFinished() {
-    return pid.atSetpoint();
+    return headingController.isReady();
   }
 }
@@ -0,0 +1,151 @@
+package frc.robot.replay;
+
+import frc.robot.Constants;
+import frc.robot.Main;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.littletonrobotics.junction.LogFileUtil;
+
+/**
+ * Replays every log in a directory through the full robot code, one worker JVM per log so the
+ * static logger and command scheduler of each replay are isolated, with as many workers at once as
+ * there are cores. Each worker writes the usual "_sim" log, and afterwards the chosen outputs of
+ * every replay are compared with the outputs recorded on the robot.
+ *
+ * <p>Run with ./gradlew replayBatch --args="path/to/logs [output keys...]". The summary is printed
+ * and written to replay_summary.csv in the log directory, worker output goes to "_replay.txt" files
+ * next to each log.
+ */
+public class BatchReplay {
+  private static final List<String> DEFAULT_KEYS =
+      List.of("Odometry/Robot", "SwerveStates/SetpointsOptimized");
+  private static final String SIM_SUFFIX = "_sim";
+
+  /** The outcome of replaying one log. */
+  private static class LogResult {
+    private final File log;
+    private final int exitCode;
+    private final List<ReplayDivergence.Result> divergence;
+
+    private LogResult(File log, int exitCode, List<ReplayDivergence.Result> divergence) {
+      this.log = log;
+      this.exitCode = exitCode;
+      this.divergence = divergence;
+    }
+  }
+
+  public static void main(String[] args) throws InterruptedException, IOException {
+    if (args.length == 0) {
+      System.err.println("Usage: BatchReplay <log directory> [output keys...]");
+      System.exit(1);
+    }
+    File directory = new File(args[0]);
+    List<String> keys =
+        args.length > 1 ? Arrays.asList(args).subList(1, args.length) : DEFAULT_KEYS;
+
+    File[] logs =
+        directory.listFiles(
+            (dir, name) -> name.endsWith(".wpilog") && !name.endsWith(SIM_SUFFIX + ".wpilog"));
+    if (logs == null || logs.length == 0) {
+      System.err.println("No logs found in " + directory);
+      System.exit(1);
+    }
+    Arrays.sort(logs);
+
+    int workers = Runtime.getRuntime().availableProcessors();
+    System.out.printf("Replaying %d logs with %d workers%n", logs.length, workers);
+    ExecutorService executor = Executors.newFixedThreadPool(workers);
+    List<LogResult> results = new ArrayList<>();
+    try {
+      List<Future<LogResult>> futures = new ArrayList<>();
+      for (File log : logs) {
+        futures.add(executor.submit(() -> replay(log, keys)));
+      }
+      for (Future<LogResult> future : futures) {
+        try {
+          LogResult result = future.get();
+          System.out.printf("Finished %s (exit code %d)%n", result.log.getName(), result.exitCode);
+          results.add(result);
+        } catch (ExecutionException e) {
+          e.getCause().printStackTrace();
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    try (PrintWriter csv = new PrintWriter(new File(directory, "replay_summary.csv"))) {
+      csv.println(
+          "log,exit code,key,compared cycles,diverged cycles,max difference,first divergence");
+      System.out.printf(
+          "%n%-32s %-36s %9s %9s %12s %10s%n",
+          "Log", "Key", "compared", "diverged", "max diff", "first (s)");
+      for (LogResult result : results) {
+        if (result.exitCode != 0) {
+          System.out.printf(
+              "%-32s replay failed, see %s%n", result.log.getName(), outputFile(result.log));
+          csv.printf("%s,%d,,,,,%n", result.log.getName(), result.exitCode);
+        }
+        for (ReplayDivergence.Result divergence : result.divergence) {
+          System.out.printf(
+              "%-32s %-36s %9d %9d %12.3g %10.2f%n",
+              result.log.getName(),
+              divergence.key,
+              divergence.comparedCycles,
+              divergence.divergedCycles,
+              divergence.maxDifference,
+              divergence.firstDivergenceSecs);
+          csv.printf(
+              "%s,%d,%s,%d,%d,%g,%f%n",
+              result.log.getName(),
+              result.exitCode,
+              divergence.key,
+              divergence.comparedCycles,
+              divergence.divergedCycles,
+              divergence.maxDifference,
+              divergence.firstDivergenceSecs);
+        }
+      }
+    }
+  }
+
+  /** Replays one log in a new JVM, then compares its outputs with the original. */
+  private static LogResult replay(File log, List<String> keys)
+      throws IOException, InterruptedException {
+    String javaPath =
+        Path.of(System.getProperty("java.home"), "bin", "java").toAbsolutePath().toString();
+    ProcessBuilder builder =
+        new ProcessBuilder(
+            javaPath,
+            "-Djava.library.path=" + System.getProperty("java.library.path"),
+            "-cp",
+            System.getProperty("java.class.path"),
+            Main.class.getName());
+    builder.environment().put(Constants.REPLAY_LOG_ENV, log.getAbsolutePath());
+    builder.redirectErrorStream(true);
+    builder.redirectOutput(outputFile(log));
+    int exitCode = builder.start().waitFor();
+
+    File simLog = new File(LogFileUtil.addPathSuffix(log.getAbsolutePath(), SIM_SUFFIX));
+    List<ReplayDivergence.Result> divergence =
+        simLog.exists()
+            ? ReplayDivergence.compare(log.getAbsolutePath(), simLog.getAbsolutePath(), keys)
+            : List.of();
+    return new LogResult(log, exitCode, divergence);
+  }
+
+  private static File outputFile(File log) {
+    String name = log.getName();
+    return new File(
+        log.getParentFile(), name.substring(0, name.length() - ".wpilog".length()) + "_replay.txt");
+  }
+}
@@ -0,0 +1,133 @@
+package frc.robot.replay;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Headless sweep of pose estimation configurations over match logs. Each log is decoded once, then
+ * every configuration in {@link PoseEstimationConfig#sweep()} is replayed against every log on a
+ * thread pool using all cores. Only the estimation pipeline runs, not the robot loop.
+ *
+ * <p>Run with ./gradlew benchmarkPoseEstimation --args="path/to/match.wpilog [more logs...]"
+ */
+public class PoseEstimationBenchmark {
+  private static final int SUMMARY_ROWS = 20;
+
+  public static void main(String[] args) throws InterruptedException, ExecutionException {
+    if (args.length == 0) {
+      System.err.println("Usage: PoseEstimationBenchmark <log.wpilog> [more logs...]");
+      System.exit(1);
+    }
+
+    int threads = Runtime.getRuntime().availableProcessors();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<PoseEstimationLog>> logFutures = new ArrayList<>();
+      for (String path : args) {
+        logFutures.add(executor.submit(() -> PoseEstimationLog.load(path)));
+      }
+      List<PoseEstimationLog> logs = new ArrayList<>();
+      for (Future<PoseEstimationLog> future : logFutures) {
+        PoseEstimationLog log = future.get();
+        System.out.printf("Loaded %s (%d cycles)%n", log.path, log.cycles.size());
+        logs.add(log);
+      }
+
+      List<PoseEstimationConfig> configs = PoseEstimationConfig.sweep();
+      System.out.printf(
+          "Replaying %d configurations over %d logs on %d threads%n",
+          configs.size(), logs.size(), threads);
+      List<Future<PoseEstimationReplay.Result>> resultFutures = new ArrayList<>();
+      for (PoseEstimationConfig config : configs) {
+        for (PoseEstimationLog log : logs) {
+          resultFutures.add(executor.submit(() -> PoseEstimationReplay.run(log, config)));
+        }
+      }
+
+      Map<String, List<PoseEstimationReplay.Result>> resultsByConfig = new LinkedHashMap<>();
+      for (Future<PoseEstimationReplay.Result> future : resultFutures) {
+        PoseEstimationReplay.Result result = future.get();
+        resultsByConfig.computeIfAbsent(result.configName, k -> new ArrayList<>()).add(result);
+      }
+
+      List<Summary> summaries = new ArrayList<>();
+      for (var entry : resultsByConfig.entrySet()) {
+        summaries.add(new Summary(entry.getKey(), entry.getValue()));
+      }
+      summaries.sort(Comparator.comparingDouble(summary -> summary.rmsErrorMeters));
+
+      String currentName = PoseEstimationConfig.current().name;
+      System.out.printf(
+          "%-40s %9s %9s %9s %9s %7s %9s%n",
+          "Config", "rms (m)", "max (m)", "jump (m)", "max jump", "jumps", "ns/loop");
+      for (int i = 0; i < summaries.size(); i++) {
+        Summary summary = summaries.get(i);
+        if (i < SUMMARY_ROWS || summary.name.equals(currentName)) {
+          System.out.println(summary.format(summary.name.equals(currentName)));
+        }
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /** Results of one configuration combined over every log. */
+  private static class Summary {
+    private final String name;
+    private final double rmsErrorMeters;
+    private final double maxErrorMeters;
+    private final double meanJumpMeters;
+    private final double maxJumpMeters;
+    private final int largeJumpCount;
+    private final double nanosPerLoop;
+
+    private Summary(String name, List<PoseEstimationReplay.Result> results) {
+      this.name = name;
+      double squaredErrorSum = 0.0;
+      int referenceCount = 0;
+      double maxError = 0.0;
+      double jumpSum = 0.0;
+      double maxJump = 0.0;
+      int largeJumps = 0;
+      double nanosSum = 0.0;
+      for (PoseEstimationReplay.Result result : results) {
+        if (result.referenceCount > 0) {
+          squaredErrorSum += result.rmsErrorMeters * result.rmsErrorMeters * result.referenceCount;
+          referenceCount += result.referenceCount;
+        }
+        maxError = Math.max(maxError, result.maxErrorMeters);
+        jumpSum += result.meanJumpMeters;
+        maxJump = Math.max(maxJump, result.maxJumpMeters);
+        largeJumps += result.largeJumpCount;
+        nanosSum += result.nanosPerLoop;
+      }
+      rmsErrorMeters =
+          referenceCount > 0 ? Math.sqrt(squaredErrorSum / referenceCount) : Double.NaN;
+      maxErrorMeters = maxError;
+      meanJumpMeters = jumpSum / results.size();
+      maxJumpMeters = maxJump;
+      largeJumpCount = largeJumps;
+      nanosPerLoop = nanosSum / results.size();
+    }
+
+    private String format(boolean isCurrent) {
+      return String.format(
+          "%-40s %9.3f %9.3f %9.3f %9.3f %7d %9.0f%s",
+          name,
+          rmsErrorMeters,
+          maxErrorMeters,
+          meanJumpMeters,
+          maxJumpMeters,
+          largeJumpCount,
+          nanosPerLoop,
+          isCurrent ? "  <- current" : "");
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package frc.robot.replay;
+
+import frc.robot.subsystems.vision.LegacyVisionTrustModel;
+import frc.robot.subsystems.vision.TableVisionTrustModel;
+import frc.robot.subsystems.vision.VisionTrustConfig;
+import frc.robot.subsystems.vision.VisionTrustModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/** One set of pose estimator parameters to replay. */
+public class PoseEstimationConfig {
+  /** The pose estimator's default odometry std devs, which Drive uses. */
+  public static final double DEFAULT_STATE_STD_DEV = 0.1;
+
+  private static final double[] STATE_STD_DEVS = {0.05, 0.1, 0.2};
+  private static final double[] TABLE_SCALES = {0.5, 0.75, 1.0, 1.5, 2.0};
+  private static final double[] INNOVATION_GAINS = {0.0, 0.5, 1.0, 2.0};
+
+  public final String name;
+  public final VisionTrustModel trustModel;
+  /** Odometry std devs of the estimator, x and y in meters */
+  public final double stateXyStdDev;
+  /** Odometry std dev of the estimator, heading in radians */
+  public final double stateHeadingStdDev;
+
+  public PoseEstimationConfig(
+      VisionTrustModel trustModel, double stateXyStdDev, double stateHeadingStdDev) {
+    this.name =
+        String.format(
+            "%s state %.2f/%.2f", trustModel.getName(), stateXyStdDev, stateHeadingStdDev);
+    this.trustModel = trustModel;
+    this.stateXyStdDev = stateXyStdDev;
+    this.stateHeadingStdDev = stateHeadingStdDev;
+  }
+
+  /** Returns the configuration the robot currently runs. */
+  public static PoseEstimationConfig current() {
+    return new PoseEstimationConfig(
+        new TableVisionTrustModel(VisionTrustConfig.DEFAULT),
+        DEFAULT_STATE_STD_DEV,
+        DEFAULT_STATE_STD_DEV);
+  }
+
+  /**
+   * Returns the configurations compared by default: the legacy rules, every trust preset, and a
+   * sweep of the default tables scaled up and down with different innovation gains and odometry std
+   * devs.
+   */
+  public static List<PoseEstimationConfig> sweep() {
+    List<PoseEstimationConfig> configs = new ArrayList<>();
+    configs.add(
+        new PoseEstimationConfig(
+            new LegacyVisionTrustModel(), DEFAULT_STATE_STD_DEV, DEFAULT_STATE_STD_DEV));
+    for (VisionTrustConfig preset : VisionTrustConfig.PRESETS) {
+      configs.add(
+          new PoseEstimationConfig(
+              new TableVisionTrustModel(preset), DEFAULT_STATE_STD_DEV, DEFAULT_STATE_STD_DEV));
+    }
+
+    for (double tableScale : TABLE_SCALES) {
+      for (double innovationGain : INNOVATION_GAINS) {
+        VisionTrustModel model =
+            new TableVisionTrustModel(
+                VisionTrustConfig.DEFAULT.scaled(
+                    String.format("Default x%.2f innov %.1f", tableScale, innovationGain),
+                    tableScale,
+                    innovationGain));
+        for (double stateStdDev : STATE_STD_DEVS) {
+          configs.add(new PoseEstimationConfig(model, stateStdDev, stateStdDev));
+        }
+      }
+    }
+    return configs;
+  }
+}
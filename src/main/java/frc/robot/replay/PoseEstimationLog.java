@@ -0,0 +1,65 @@
+package frc.robot.replay;
+
+import frc.robot.subsystems.drive.GyroIOInputsAutoLogged;
+import frc.robot.subsystems.drive.ModuleIOInputsAutoLogged;
+import frc.robot.subsystems.vision.AprilTagVisionIOInputsAutoLogged;
+import java.util.ArrayList;
+import java.util.List;
+import org.littletonrobotics.junction.LogTable;
+import org.littletonrobotics.junction.wpilog.WPILOGReader;
+
+/**
+ * The inputs the drive pose estimation pipeline uses, decoded once from an AdvantageKit WPILOG so
+ * many estimator configurations can be replayed against it without reading the file again. The
+ * decoded cycles are never modified, so one log can be shared by replays on several threads.
+ */
+public class PoseEstimationLog {
+  public static final int MAX_CAMERAS = 4;
+
+  /** The inputs of one robot loop. */
+  public static class Cycle {
+    public final boolean enabled;
+    public final GyroIOInputsAutoLogged gyro = new GyroIOInputsAutoLogged();
+    public final ModuleIOInputsAutoLogged[] modules = new ModuleIOInputsAutoLogged[4];
+    public final AprilTagVisionIOInputsAutoLogged[] cameras =
+        new AprilTagVisionIOInputsAutoLogged[MAX_CAMERAS];
+
+    private Cycle(LogTable table) {
+      // Missing without a driver station, which the robot also treats as disabled
+      enabled = table.get("DriverStation/Enabled", false);
+      gyro.fromLog(table.getSubtable("Drive/Gyro"));
+      for (int i = 0; i < 4; i++) {
+        modules[i] = new ModuleIOInputsAutoLogged();
+        modules[i].fromLog(table.getSubtable("Drive/Module" + i));
+      }
+      for (int i = 0; i < MAX_CAMERAS; i++) {
+        cameras[i] = new AprilTagVisionIOInputsAutoLogged();
+        cameras[i].fromLog(table.getSubtable("Vision/Camera" + i));
+      }
+    }
+  }
+
+  public final String path;
+  public final List<Cycle> cycles;
+
+  private PoseEstimationLog(String path, List<Cycle> cycles) {
+    this.path = path;
+    this.cycles = cycles;
+  }
+
+  /**
+   * Reads the drive and vision inputs of every cycle in a log.
+   *
+   * @param path Path to a WPILOG written by WPILOGWriter
+   */
+  public static PoseEstimationLog load(String path) {
+    WPILOGReader reader = new WPILOGReader(path);
+    reader.start();
+    LogTable table = new LogTable(0);
+    List<Cycle> cycles = new ArrayList<>();
+    while (reader.updateTable(table)) {
+      cycles.add(new Cycle(table));
+    }
+    return new PoseEstimationLog(path, cycles);
+  }
+}
@@ -0,0 +1,272 @@
+package frc.robot.replay;
+
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveDriveOdometry;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import frc.robot.Constants;
+import frc.robot.subsystems.drive.Drive;
+import frc.robot.subsystems.drive.GyroIOInputsAutoLogged;
+import frc.robot.subsystems.drive.Module;
+import frc.robot.subsystems.drive.ModuleIOInputsAutoLogged;
+import frc.robot.subsystems.vision.RelocalizationGate;
+import frc.robot.subsystems.vision.VisionObservation;
+import frc.robot.subsystems.vision.VisionObservationMerger;
+import frc.robot.util.PoseHistory;
+
+/**
+ * Runs only the drive pose estimation pipeline (odometry from the logged gyro and module inputs,
+ * then the logged camera observations scored by a trust model) over a decoded log.
+ *
+ * <p>There is no ground truth in a match log, so trajectory error is measured against reference
+ * observations: multi tag observations of close tags. Before a reference observation is fused, the
+ * distance between it and the estimated pose at its timestamp is recorded. A configuration that
+ * trusts bad observations drags the estimate away from the references, one that trusts too little
+ * lets odometry drift. Jumps are how far vision moved the estimate in a single loop.
+ */
+public class PoseEstimationReplay {
+  private static final int REFERENCE_MIN_TAGS = 2;
+  private static final double REFERENCE_MAX_DISTANCE = 3.0;
+  private static final double JUMP_THRESHOLD_METERS = 0.25;
+  private static final double HISTORY_SECS = 2.0;
+
+  /** Statistics of one configuration over one log. */
+  public static class Result {
+    public final String logPath;
+    public final String configName;
+    public final int acceptedCount;
+    public final int rejectedCount;
+    public final int referenceCount;
+    public final double rmsErrorMeters;
+    public final double maxErrorMeters;
+    public final double meanJumpMeters;
+    public final double maxJumpMeters;
+    public final int largeJumpCount;
+    public final double nanosPerLoop;
+
+    private Result(
+        String logPath,
+        String configName,
+        int acceptedCount,
+        int rejectedCount,
+        int referenceCount,
+        double rmsErrorMeters,
+        double maxErrorMeters,
+        double meanJumpMeters,
+        double maxJumpMeters,
+        int largeJumpCount,
+        double nanosPerLoop) {
+      this.logPath = logPath;
+      this.configName = configName;
+      this.acceptedCount = acceptedCount;
+      this.rejectedCount = rejectedCount;
+      this.referenceCount = referenceCount;
+      this.rmsErrorMeters = rmsErrorMeters;
+      this.maxErrorMeters = maxErrorMeters;
+      this.meanJumpMeters = meanJumpMeters;
+      this.maxJumpMeters = maxJumpMeters;
+      this.largeJumpCount = largeJumpCount;
+      this.nanosPerLoop = nanosPerLoop;
+    }
+  }
+
+  /**
+   * Replays one decoded log with a configuration.
+   *
+   * @param log Decoded log, only read
+   * @param config Estimator parameters and trust model
+   * @return Error, jump and timing statistics
+   */
+  public static Result run(PoseEstimationLog log, PoseEstimationConfig config) {
+    SwerveDriveKinematics kinematics = new SwerveDriveKinematics(Drive.getModuleTranslations());
+    SwerveModulePosition[] positions = new SwerveModulePosition[4];
+    SwerveModulePosition[] lastPositions = new SwerveModulePosition[4];
+    SwerveModulePosition[] deltas = new SwerveModulePosition[4];
+    SwerveModuleState[] states = new SwerveModuleState[4];
+    for (int i = 0; i < 4; i++) {
+      lastPositions[i] = new SwerveModulePosition();
+      deltas[i] = new SwerveModulePosition();
+      states[i] = new SwerveModuleState();
+    }
+    // Relative turn encoder offsets, set from the first nonzero absolute angle like Module does
+    Rotation2d[] turnRelativeOffsets = new Rotation2d[4];
+    Rotation2d rawGyroRotation = new Rotation2d();
+    SwerveDrivePoseEstimator poseEstimator =
+        new SwerveDrivePoseEstimator(
+            kinematics,
+            rawGyroRotation,
+            lastPositions,
+            new Pose2d(),
+            VecBuilder.fill(config.stateXyStdDev, config.stateXyStdDev, config.stateHeadingStdDev),
+            VecBuilder.fill(0.9, 0.9, 0.9));
+    // Vision-free odometry history, looked up relative to the current estimate like Drive does
+    SwerveDriveOdometry odometry =
+        new SwerveDriveOdometry(kinematics, rawGyroRotation, lastPositions, new Pose2d());
+    PoseHistory poseHistory = new PoseHistory(HISTORY_SECS, Module.ODOMETRY_FREQUENCY);
+    VisionObservationMerger merger = new VisionObservationMerger(PoseEstimationLog.MAX_CAMERAS);
+
+    boolean initialized = false;
+    RelocalizationGate relocalizationGate = new RelocalizationGate();
+    int acceptedCount = 0;
+    int rejectedCount = 0;
+    int referenceCount = 0;
+    double squaredErrorSum = 0.0;
+    double maxError = 0.0;
+    int jumpCount = 0;
+    double jumpSum = 0.0;
+    double maxJump = 0.0;
+    int largeJumpCount = 0;
+
+    long startNanos = System.nanoTime();
+    for (PoseEstimationLog.Cycle cycle : log.cycles) {
+      GyroIOInputsAutoLogged gyroInputs = cycle.gyro;
+      ModuleIOInputsAutoLogged[] moduleInputs = cycle.modules;
+
+      for (int moduleIndex = 0; moduleIndex < 4; moduleIndex++) {
+        ModuleIOInputsAutoLogged module = moduleInputs[moduleIndex];
+        if (turnRelativeOffsets[moduleIndex] == null
+            && module.turnAbsolutePosition.getRadians() != 0.0) {
+          turnRelativeOffsets[moduleIndex] = module.turnAbsolutePosition.minus(module.turnPosition);
+        }
+      }
+
+      // Rebuild odometry the same way Drive does
+      double[] sampleTimestamps = moduleInputs[0].odometryTimestamps;
+      for (int i = 0; i < sampleTimestamps.length; i++) {
+        for (int moduleIndex = 0; moduleIndex < 4; moduleIndex++) {
+          ModuleIOInputsAutoLogged module = moduleInputs[moduleIndex];
+          if (i >= module.odometryDrivePositionsRad.length
+              || i >= module.odometryTurnPositions.length) {
+            positions[moduleIndex] = lastPositions[moduleIndex];
+            deltas[moduleIndex].distanceMeters = 0.0;
+            continue;
+          }
+          Rotation2d turnOffset = turnRelativeOffsets[moduleIndex];
+          positions[moduleIndex] =
+              new SwerveModulePosition(
+                  module.odometryDrivePositionsRad[i] * Constants.ModuleConstants.WHEEL_RADIUS,
+                  turnOffset == null
+                      ? module.odometryTurnPositions[i]
+                      : module.odometryTurnPositions[i].plus(turnOffset));
+          deltas[moduleIndex].distanceMeters =
+              positions[moduleIndex].distanceMeters - lastPositions[moduleIndex].distanceMeters;
+          deltas[moduleIndex].angle = positions[moduleIndex].angle;
+          lastPositions[moduleIndex] = positions[moduleIndex];
+        }
+        if (gyroInputs.connected && i < gyroInputs.odometryYawPositions.length) {
+          rawGyroRotation = gyroInputs.odometryYawPositions[i];
+        } else {
+          Twist2d twist = kinematics.toTwist2d(deltas);
+          rawGyroRotation = rawGyroRotation.plus(new Rotation2d(twist.dtheta));
+        }
+        poseEstimator.updateWithTime(sampleTimestamps[i], rawGyroRotation, positions);
+        poseHistory.addSample(sampleTimestamps[i], odometry.update(rawGyroRotation, positions));
+      }
+
+      for (int i = 0; i < 4; i++) {
+        states[i].speedMetersPerSecond =
+            moduleInputs[i].driveVelocityRadPerSec * Constants.ModuleConstants.WHEEL_RADIUS;
+        states[i].angle =
+            turnRelativeOffsets[i] == null
+                ? new Rotation2d()
+                : moduleInputs[i].turnPosition.plus(turnRelativeOffsets[i]);
+      }
+      ChassisSpeeds speeds = kinematics.toChassisSpeeds(states);
+      double linearSpeed = Math.hypot(speeds.vxMetersPerSecond, speeds.vyMetersPerSecond);
+      double yawRate =
+          gyroInputs.connected ? gyroInputs.yawVelocityRadPerSec : speeds.omegaRadiansPerSecond;
+
+      Pose2d poseBeforeVision = poseEstimator.getEstimatedPosition();
+      boolean visionApplied = false;
+      merger.reset();
+      VisionObservation observation;
+      while ((observation = merger.next(cycle.cameras)) != null) {
+        boolean isReference =
+            observation.tagCount >= REFERENCE_MIN_TAGS
+                && observation.avgTagDistance < REFERENCE_MAX_DISTANCE;
+
+        // The log doesn't say where the robot started, so start from the first reference
+        if (!initialized) {
+          if (!isReference) {
+            continue;
+          }
+          poseEstimator.resetPosition(rawGyroRotation, lastPositions, observation.pose);
+          odometry.resetPosition(rawGyroRotation, lastPositions, observation.pose);
+          poseHistory.clear();
+          poseBeforeVision = observation.pose;
+          initialized = true;
+        }
+
+        Pose2d referencePose =
+            poseHistory
+                .getPoseAt(observation.timestamp)
+                .map(
+                    pose ->
+                        poseEstimator
+                            .getEstimatedPosition()
+                            .plus(new Transform2d(odometry.getPoseMeters(), pose)))
+                .orElseGet(poseEstimator::getEstimatedPosition);
+        if (isReference) {
+          double error =
+              referencePose.getTranslation().getDistance(observation.pose.getTranslation());
+          squaredErrorSum += error * error;
+          maxError = Math.max(maxError, error);
+          referenceCount++;
+        }
+
+        var stdDevs =
+            config.trustModel.getStdDevs(
+                observation,
+                referencePose,
+                linearSpeed,
+                yawRate,
+                relocalizationGate.shouldSkipGate(observation, !cycle.enabled));
+        if (stdDevs.isPresent()) {
+          poseEstimator.addVisionMeasurement(
+              observation.pose, observation.timestamp, stdDevs.get());
+          relocalizationGate.accepted();
+          visionApplied = true;
+          acceptedCount++;
+        } else {
+          relocalizationGate.rejected(observation);
+          rejectedCount++;
+        }
+      }
+
+      if (visionApplied) {
+        double jump =
+            poseEstimator
+                .getEstimatedPosition()
+                .getTranslation()
+                .getDistance(poseBeforeVision.getTranslation());
+        jumpSum += jump;
+        jumpCount++;
+        maxJump = Math.max(maxJump, jump);
+        if (jump > JUMP_THRESHOLD_METERS) {
+          largeJumpCount++;
+        }
+      }
+    }
+    long elapsedNanos = System.nanoTime() - startNanos;
+
+    return new Result(
+        log.path,
+        config.name,
+        acceptedCount,
+        rejectedCount,
+        referenceCount,
+        referenceCount > 0 ? Math.sqrt(squaredErrorSum / referenceCount) : Double.NaN,
+        maxError,
+        jumpCount > 0 ? jumpSum / jumpCount : 0.0,
+        maxJump,
+        largeJumpCount,
+        log.cycles.isEmpty() ? 0.0 : (double) elapsedNanos / log.cycles.size());
+  }
+}
@@ -0,0 +1,166 @@
+package frc.robot.replay;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.littletonrobotics.junction.LogTable;
+import org.littletonrobotics.junction.LogTable.LogValue;
+import org.littletonrobotics.junction.wpilog.WPILOGReader;
+
+/**
+ * Compares outputs recorded on the robot ("RealOutputs/...") with the same outputs produced by a
+ * replay ("ReplayOutputs/..."), cycle by cycle. Replay timestamps are deterministic, so cycles are
+ * matched by timestamp.
+ *
+ * <p>Numbers, number arrays and structs made of doubles (poses, module states) are compared as
+ * lists of doubles, and the largest absolute difference is reported.
+ */
+public class ReplayDivergence {
+  /** Differences at or below this are treated as equal. */
+  public static final double TOLERANCE = 1e-6;
+
+  /** How one output key diverged over a log. */
+  public static class Result {
+    public final String key;
+    public final int comparedCycles;
+    public final int divergedCycles;
+    public final double maxDifference;
+    /** Timestamp of the first diverged cycle in seconds, NaN if none diverged */
+    public final double firstDivergenceSecs;
+
+    private Result(
+        String key,
+        int comparedCycles,
+        int divergedCycles,
+        double maxDifference,
+        double firstDivergenceSecs) {
+      this.key = key;
+      this.comparedCycles = comparedCycles;
+      this.divergedCycles = divergedCycles;
+      this.maxDifference = maxDifference;
+      this.firstDivergenceSecs = firstDivergenceSecs;
+    }
+  }
+
+  /**
+   * Compares a set of outputs between an original log and its replay.
+   *
+   * @param originalPath Log recorded on the robot
+   * @param replayedPath Log written by replaying the original
+   * @param keys Output keys without the "RealOutputs/" or "ReplayOutputs/" prefix
+   */
+  public static List<Result> compare(String originalPath, String replayedPath, List<String> keys) {
+    List<Map<Long, double[]>> originalValues = new ArrayList<>();
+    for (int i = 0; i < keys.size(); i++) {
+      originalValues.add(new HashMap<>());
+    }
+    WPILOGReader originalReader = new WPILOGReader(originalPath);
+    originalReader.start();
+    LogTable originalTable = new LogTable(0);
+    while (originalReader.updateTable(originalTable)) {
+      for (int i = 0; i < keys.size(); i++) {
+        double[] values = toDoubles(originalTable.get("RealOutputs/" + keys.get(i)));
+        if (values != null) {
+          originalValues.get(i).put(originalTable.getTimestamp(), values);
+        }
+      }
+    }
+
+    int[] comparedCycles = new int[keys.size()];
+    int[] divergedCycles = new int[keys.size()];
+    double[] maxDifference = new double[keys.size()];
+    double[] firstDivergence = new double[keys.size()];
+    Arrays.fill(firstDivergence, Double.NaN);
+
+    WPILOGReader replayedReader = new WPILOGReader(replayedPath);
+    replayedReader.start();
+    LogTable replayedTable = new LogTable(0);
+    while (replayedReader.updateTable(replayedTable)) {
+      long timestamp = replayedTable.getTimestamp();
+      for (int i = 0; i < keys.size(); i++) {
+        double[] original = originalValues.get(i).get(timestamp);
+        double[] replayed = toDoubles(replayedTable.get("ReplayOutputs/" + keys.get(i)));
+        if (original == null || replayed == null) {
+          continue;
+        }
+
+        double difference;
+        if (original.length != replayed.length) {
+          difference = Double.POSITIVE_INFINITY;
+        } else {
+          difference = 0.0;
+          for (int j = 0; j < original.length; j++) {
+            difference = Math.max(difference, Math.abs(original[j] - replayed[j]));
+          }
+        }
+        comparedCycles[i]++;
+        if (difference > TOLERANCE) {
+          divergedCycles[i]++;
+          maxDifference[i] = Math.max(maxDifference[i], difference);
+          if (Double.isNaN(firstDivergence[i])) {
+            firstDivergence[i] = timestamp / 1e6;
+          }
+        }
+      }
+    }
+
+    List<Result> results = new ArrayList<>();
+    for (int i = 0; i < keys.size(); i++) {
+      results.add(
+          new Result(
+              keys.get(i),
+              comparedCycles[i],
+              divergedCycles[i],
+              maxDifference[i],
+              firstDivergence[i]));
+    }
+    return results;
+  }
+
+  /** Returns a logged value as doubles, or null if it is missing or not numeric. */
+  private static double[] toDoubles(LogValue value) {
+    if (value == null) {
+      return null;
+    }
+    switch (value.type) {
+      case Boolean:
+        return new double[] {value.getBoolean() ? 1.0 : 0.0};
+      case Integer:
+        return new double[] {value.getInteger()};
+      case Float:
+        return new double[] {value.getFloat()};
+      case Double:
+        return new double[] {value.getDouble()};
+      case IntegerArray:
+        long[] longs = value.getIntegerArray();
+        double[] fromLongs = new double[longs.length];
+        for (int i = 0; i < longs.length; i++) {
+          fromLongs[i] = longs[i];
+        }
+        return fromLongs;
+      case FloatArray:
+        float[] floats = value.getFloatArray();
+        double[] fromFloats = new double[floats.length];
+        for (int i = 0; i < floats.length; i++) {
+          fromFloats[i] = floats[i];
+        }
+        return fromFloats;
+      case DoubleArray:
+        return value.getDoubleArray();
+      case Raw:
+        // Structs of doubles, e.g. Pose2d or SwerveModuleState[]
+        ByteBuffer buffer = ByteBuffer.wrap(value.getRaw()).order(ByteOrder.LITTLE_ENDIAN);
+        double[] fromStruct = new double[buffer.remaining() / Double.BYTES];
+        for (int i = 0; i < fromStruct.length; i++) {
+          fromStruct[i] = buffer.getDouble();
+        }
+        return fromStruct;
+      default:
+        return null;
+    }
+  }
+}
@@ -0,0 +1,188 @@
+package frc.robot.replay;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import frc.robot.util.FieldConstants;
+import frc.robot.util.ShotLog;
+import frc.robot.util.ShotSolution;
+import frc.robot.util.ShotTable;
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Corrects one profile of the speaker shot table from shots recorded by {@link
+ * frc.robot.util.ShotRecorder}.
+ *
+ * <p>Only shots aimed with that profile are used, taken nearly standing still so the distance
+ * explains the shot, and marked by the operator as scored or as missed high or low. The pivot angle
+ * and flywheel speeds measured as the note left are what actually happened, which the table's
+ * setpoints only approximate. A scored shot's measured angle and speeds are taken as right for its
+ * distance. A shot that missed high or low is taken as right at {@link #MISS_PIVOT_DEG} below or
+ * above its measured angle, a steeper shot landing higher at these angles. Wide misses say nothing
+ * about the table and are skipped.
+ *
+ * <p>Each shot's difference from what the profile gives at that distance and robot position is
+ * split between the two samples around the shot by how close it is to each, the same weights the
+ * table interpolates with. A sample moves by the weighted mean difference of its shots once they
+ * add up to at least {@link #MIN_SHOT_WEIGHT}. Every other sample is left as tuned, and the steps
+ * and spin rules are kept, so the profile keeps its shape and only changes where there's evidence.
+ * Shots outside the profile's range are ignored rather than extending it.
+ *
+ * <p>The corrected calibration is written next to the calibration file as "_refit.json" to review
+ * and copy over. Time of flight isn't measured, so it is left as is.
+ *
+ * <p>Run with ./gradlew refitShots --args="src/main/deploy/shooting/speaker_shots.json teleop
+ * path/to/shots.bin [more logs...]"
+ */
+public class ShotRefit {
+  private static final double MAX_SPEED_METERS_PER_SEC = 0.5;
+  private static final double MIN_SHOT_WEIGHT = 1.0;
+  private static final double MISS_PIVOT_DEG = 1.0;
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 3) {
+      System.err.println(
+          "Usage: ShotRefit <calibration.json> <profile> <shots.bin> [more logs...]");
+      System.exit(1);
+    }
+    File calibrationFile = new File(args[0]);
+    String profileName = args[1];
+    ObjectMapper mapper =
+        new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    ShotTable.Calibration calibration =
+        mapper.readValue(calibrationFile, ShotTable.Calibration.class);
+    ShotTable.Profile profile = calibration.profiles.get(profileName);
+    if (profile == null) {
+      System.err.println("No " + profileName + " profile in " + calibrationFile);
+      System.exit(1);
+    }
+    ShotTable currentTable = new ShotTable(profileName, profile, calibration.tableStepMeters);
+
+    // Same order the table looks up in, the samples of a step keep theirs
+    ShotTable.Sample[] samples = profile.samples.clone();
+    Arrays.sort(samples, (a, b) -> Double.compare(a.distanceMeters, b.distanceMeters));
+    int count = samples.length;
+    double[] weights = new double[count];
+    double[] pivotErrors = new double[count];
+    double[] leftErrors = new double[count];
+    double[] rightErrors = new double[count];
+
+    int total = 0;
+    int matching = 0;
+    int labelled = 0;
+    int used = 0;
+    for (String path : Arrays.asList(args).subList(2, args.length)) {
+      for (ShotLog.Shot shot : ShotLog.read(new File(path))) {
+        total++;
+        if (!shot.profile.equals(profileName)) {
+          continue;
+        }
+        matching++;
+        double pivotCorrection;
+        switch (shot.result) {
+          case SCORED:
+            pivotCorrection = 0.0;
+            break;
+          case MISSED_HIGH:
+            pivotCorrection = -MISS_PIVOT_DEG;
+            break;
+          case MISSED_LOW:
+            pivotCorrection = MISS_PIVOT_DEG;
+            break;
+          default:
+            continue;
+        }
+        labelled++;
+        double distance = shot.distanceMeters;
+        if (shot.getSpeedMetersPerSec() > MAX_SPEED_METERS_PER_SEC
+            || count < 2
+            || distance <= samples[0].distanceMeters
+            || distance > samples[count - 1].distanceMeters) {
+          continue;
+        }
+        used++;
+
+        int segment = 0;
+        while (samples[segment + 1].distanceMeters < distance) {
+          segment++;
+        }
+        double t =
+            (distance - samples[segment].distanceMeters)
+                / (samples[segment + 1].distanceMeters - samples[segment].distanceMeters);
+        ShotSolution current =
+            currentTable.getSolution(distance, shot.y, shot.x > FieldConstants.fieldLength / 2.0);
+        double pivotError = shot.pivotDeg + pivotCorrection - current.pivotDeg;
+        double leftError = shot.leftRpm - current.leftRpm;
+        double rightError = shot.rightRpm - current.rightRpm;
+        for (int i = 0; i < 2; i++) {
+          double weight = i == 0 ? 1.0 - t : t;
+          weights[segment + i] += weight;
+          pivotErrors[segment + i] += weight * pivotError;
+          leftErrors[segment + i] += weight * leftError;
+          rightErrors[segment + i] += weight * rightError;
+        }
+      }
+    }
+    System.out.printf(
+        "%d shots, %d aimed with the %s profile, %d scored or missed high or low, %d usable"
+            + " (standing still, within range)%n",
+        total, matching, profileName, labelled, used);
+    if (used == 0) {
+      System.err.println("No usable shots, calibration unchanged");
+      System.exit(1);
+    }
+
+    int corrected = 0;
+    System.out.println(
+        "distance  weight   pivot (old -> new)     left RPM (old -> new)    right RPM");
+    for (int i = 0; i < count; i++) {
+      if (weights[i] < MIN_SHOT_WEIGHT) {
+        continue;
+      }
+      ShotTable.Sample sample = samples[i];
+      double oldPivot = sample.pivotDeg;
+      double oldLeft = sample.leftRpm;
+      double oldRight = sample.rightRpm;
+      sample.pivotDeg = round(oldPivot + pivotErrors[i] / weights[i], 1000);
+      sample.leftRpm = round(oldLeft + leftErrors[i] / weights[i], 1);
+      sample.rightRpm = round(oldRight + rightErrors[i] / weights[i], 1);
+      System.out.printf(
+          "%6.2f m  %5.1f   %5.1f -> %5.1f deg    %6.0f -> %6.0f    %6.0f -> %6.0f%n",
+          sample.distanceMeters,
+          weights[i],
+          oldPivot,
+          sample.pivotDeg,
+          oldLeft,
+          sample.leftRpm,
+          oldRight,
+          sample.rightRpm);
+      corrected++;
+    }
+    if (corrected == 0) {
+      System.err.println("Not enough shots near any sample, calibration unchanged");
+      System.exit(1);
+    }
+
+    profile.samples = samples;
+    profile.description =
+        profile.description
+            + " Corrected on "
+            + LocalDate.now()
+            + " from "
+            + used
+            + " labelled shots.";
+
+    String path = calibrationFile.getPath();
+    File output =
+        new File(
+            (path.endsWith(".json") ? path.substring(0, path.length() - 5) : path) + "_refit.json");
+    mapper.writerWithDefaultPrettyPrinter().writeValue(output, calibration);
+    System.out.println("Wrote " + output);
+  }
+
+  private static double round(double value, double scale) {
+    return Math.round(value * scale) / scale;
+  }
+}
@@ -26,26 +26,30 @@ import com.pathplanner.lib.util.HolonomicPathFollowerConfig;
 import com.pathplanner.lib.util.PIDConstants;
 import com.pathplanner.lib.util.PathPlannerLogging;
 import com.pathplanner.lib.util.ReplanningConfig;
-import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.Matrix;
 import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Pose3d;
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform2d;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.geometry.Twist2d;
 import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveDriveOdometry;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableInstance;
-import edu.wpi.first.util.CircularBuffer;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
@@ -54,14 +58,19 @@ import frc.robot.Constants.LED_STATE;
 import frc.robot.Constants.NOTE_POSITIONS;
 import frc.robot.subsystems.led.LED;
 import frc.robot.util.AllianceFlipUtil;
+import frc.robot.util.AllocationCounter;
+import frc.robot.util.AutoWarmup;
 import frc.robot.util.FieldConstants;
+import frc.robot.util.GridPathfinder;
 import frc.robot.util.LimelightHelpers;
-import frc.robot.util.LimelightHelpers.PoseEstimate;
-import frc.robot.util.LimelightHelpers.RawFiducial;
 import frc.robot.util.LocalADStarAK;
+import frc.robot.util.LoopTimer;
+import frc.robot.util.PoseHistory;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import org.littletonrobotics.junction.AutoLogOutput;
 import org.littletonrobotics.junction.Logger;
 
@@ -71,9 +80,14 @@ public class Drive extends SubsystemBase {
   private static final double TRACK_WIDTH_Y = Constants.SwerveConstants.TRACK_WIDTH_Y;
   private static final double DRIVE_BASE_RADIUS = Constants.SwerveConstants.DRIVE_BASE_RADIUS;
   private static final double MAX_ANGULAR_SPEED = Constants.SwerveConstants.MAX_ANGULAR_SPEED;
+  private static final Translation2d[] MODULE_TRANSLATIONS = getModuleTranslations();
+  private static final SwerveModuleState[] EMPTY_STATES = new SwerveModuleState[] {};
+  private static final double POSE_HISTORY_SECS = 2.0;
   private static double multiplier = 1.0;
   private static boolean toggle = false;
 
+  static final Lock odometryLock = new ReentrantLock();
+
   private NOTE_POSITIONS targetNote;
 
   private boolean overridePathplanner = false;
@@ -93,22 +107,33 @@ public class Drive extends SubsystemBase {
 
   private SwerveDriveKinematics kinematics = new SwerveDriveKinematics(getModuleTranslations());
   private Rotation2d rawGyroRotation = new Rotation2d();
-  private SwerveModulePosition[] lastModulePositions = // For delta tracking
+  private final SwerveModulePosition[] lastModulePositions = // For delta tracking
       new SwerveModulePosition[] {
         new SwerveModulePosition(),
         new SwerveModulePosition(),
         new SwerveModulePosition(),
         new SwerveModulePosition()
       };
+
+  // Buffers reused every cycle so the control and odometry paths don't allocate
+  private final SwerveModuleState[] setpointStates = new SwerveModuleState[4];
+  private final SwerveModuleState[] optimizedSetpointStates = new SwerveModuleState[4];
+  private final SwerveModuleState[] measuredStates = new SwerveModuleState[4];
+  private final SwerveModulePosition[] measuredPositions = new SwerveModulePosition[4];
+  private final SwerveModulePosition[] odometryPositions = new SwerveModulePosition[4];
+  private final SwerveModulePosition[] odometryDeltas = new SwerveModulePosition[4];
+  private final Rotation2d[] moduleHeadings = new Rotation2d[4];
+
+  private final AllocationCounter periodicAllocations = new AllocationCounter("Drive");
+  private final LoopTimer periodicTimer = new LoopTimer("Drive/Periodic");
+  private final LoopTimer updateInputsTimer = new LoopTimer("Drive/UpdateInputs");
+  private final LoopTimer processInputsTimer = new LoopTimer("Drive/ProcessInputs");
+  private final AllocationCounter runVelocityAllocations =
+      new AllocationCounter("Drive/RunVelocity");
   private SwerveDrivePoseEstimator poseEstimator =
       new SwerveDrivePoseEstimator(kinematics, rawGyroRotation, lastModulePositions, new Pose2d());
   TimestampedT2d lastNoteLocT2d = new TimestampedT2d(new Translation2d(0, 0), -1.);
 
-  public class TimestampedPose2d {
-    Pose2d pose;
-    double time;
-  }
-
   public class TimestampedT2d {
     Translation2d translation;
     double time;
@@ -119,9 +144,29 @@ public class Drive extends SubsystemBase {
     }
   }
 
-  CircularBuffer<TimestampedPose2d> robotPoseBuffer;
+  // Wheel and gyro odometry alone, without vision. The history holds its pose after every sample,
+  // and lookups apply the motion since then to the current estimate, so a vision correction made
+  // after a sample was recorded still shows up in the poses looked up for that time
+  private final SwerveDriveOdometry odometry =
+      new SwerveDriveOdometry(kinematics, rawGyroRotation, lastModulePositions, new Pose2d());
+  private final PoseHistory poseHistory =
+      new PoseHistory(POSE_HISTORY_SECS, Module.ODOMETRY_FREQUENCY);
 
   private HashMap<NOTE_POSITIONS, Translation2d> noteLocations = new HashMap<>();
+  private final NoteApproachCache noteApproachCache =
+      new NoteApproachCache(
+          new PathConstraints(
+              Constants.SwerveConstants.MAX_LINEAR_SPEED,
+              Constants.SwerveConstants.NOTE_APPROACH_MAX_ACCELERATION,
+              Units.degreesToRadians(
+                  Constants.SwerveConstants.NOTE_APPROACH_MAX_ANGULAR_SPEED_DEG_PER_SEC),
+              Units.degreesToRadians(
+                  Constants.SwerveConstants
+                      .NOTE_APPROACH_MAX_ANGULAR_ACCELERATION_DEG_PER_SEC_SQUARED)),
+          Constants.SwerveConstants.NOTE_APPROACH_END_VELOCITY,
+          Constants.SwerveConstants.NOTE_APPROACH_CACHE_SIZE);
+  // Next start region and note combination for warmNoteApproachPaths to try
+  private int noteApproachWarmIndex = 0;
 
   public Drive(
       GyroIO gyroIO,
@@ -137,6 +182,15 @@ public class Drive extends SubsystemBase {
     modules[2] = new Module(blModuleIO, 2);
     modules[3] = new Module(brModuleIO, 3);
 
+    for (int i = 0; i < 4; i++) {
+      setpointStates[i] = new SwerveModuleState();
+      odometryDeltas[i] = new SwerveModulePosition();
+      moduleHeadings[i] = new Rotation2d();
+    }
+
+    // Start odometry thread
+    PhoenixOdometryThread.getInstance().start();
+
     // Configure AutoBuilder for PathPlanner
     AutoBuilder.configureHolonomic(
         this::getPose,
@@ -153,7 +207,7 @@ public class Drive extends SubsystemBase {
             DriverStation.getAlliance().isPresent()
                 && DriverStation.getAlliance().get() == Alliance.Red,
         this);
-    Pathfinding.setPathfinder(new LocalADStarAK());
+    Pathfinding.setPathfinder(new LocalADStarAK(new GridPathfinder()));
     PathPlannerLogging.setLogActivePathCallback(
         (activePath) -> {
           Logger.recordOutput(
@@ -187,7 +241,6 @@ public class Drive extends SubsystemBase {
 
     rotationController.setTolerance(5);
     rotationController.enableContinuousInput(-180, 180);
-    robotPoseBuffer = new CircularBuffer<>(11);
 
     noteLocations.put(NOTE_POSITIONS.C5, FieldConstants.StagingLocations.centerlineTranslations[0]);
     noteLocations.put(NOTE_POSITIONS.C4, FieldConstants.StagingLocations.centerlineTranslations[1]);
@@ -200,10 +253,21 @@ public class Drive extends SubsystemBase {
   }
 
   public void periodic() {
+    periodicAllocations.start();
+    periodicTimer.start();
+    updateInputsTimer.start();
+    odometryLock.lock(); // Prevents odometry updates while reading data
     gyroIO.updateInputs(gyroInputs);
+    for (var module : modules) {
+      module.updateInputs();
+    }
+    odometryLock.unlock();
     visionIO.updateInputs(visionInputs);
+    updateInputsTimer.stop();
+    processInputsTimer.start();
     Logger.processInputs("Vision/Limelight", visionInputs);
     Logger.processInputs("Drive/Gyro", gyroInputs);
+    processInputsTimer.stop();
     for (var module : modules) {
       module.periodic();
     }
@@ -218,36 +282,45 @@ public class Drive extends SubsystemBase {
     }
     // Log empty setpoint states when disabled
     if (DriverStation.isDisabled()) {
-      Logger.recordOutput("SwerveStates/Setpoints", new SwerveModuleState[] {});
-      Logger.recordOutput("SwerveStates/SetpointsOptimized", new SwerveModuleState[] {});
-    }
-
-    // Read wheel positions and deltas from each module
-    SwerveModulePosition[] modulePositions = getModulePositions();
-    SwerveModulePosition[] moduleDeltas = new SwerveModulePosition[4];
-    for (int moduleIndex = 0; moduleIndex < 4; moduleIndex++) {
-      moduleDeltas[moduleIndex] =
-          new SwerveModulePosition(
-              modulePositions[moduleIndex].distanceMeters
-                  - lastModulePositions[moduleIndex].distanceMeters,
-              modulePositions[moduleIndex].angle);
-      lastModulePositions[moduleIndex] = modulePositions[moduleIndex];
+      Logger.recordOutput("SwerveStates/Setpoints", EMPTY_STATES);
+      Logger.recordOutput("SwerveStates/SetpointsOptimized", EMPTY_STATES);
     }
 
     Logger.recordOutput("override", overridePathplanner);
 
-    // Update gyro angle
-    if (gyroInputs.connected) {
-      // Use the real gyro angle
-      rawGyroRotation = gyroInputs.yawPosition;
-    } else {
-      // Use the angle delta from the kinematics and module deltas
-      Twist2d twist = kinematics.toTwist2d(moduleDeltas);
-      rawGyroRotation = rawGyroRotation.plus(new Rotation2d(twist.dtheta));
-    }
+    // Update odometry
+    double[] sampleTimestamps =
+        modules[0].getOdometryTimestamps(); // All signals are sampled together
+    int sampleCount = sampleTimestamps.length;
+    for (int i = 0; i < sampleCount; i++) {
+      // Read wheel positions and deltas from each module
+      for (int moduleIndex = 0; moduleIndex < 4; moduleIndex++) {
+        SwerveModulePosition position = modules[moduleIndex].getOdometryPositions()[i];
+        odometryPositions[moduleIndex] = position;
+        odometryDeltas[moduleIndex].distanceMeters =
+            position.distanceMeters - lastModulePositions[moduleIndex].distanceMeters;
+        odometryDeltas[moduleIndex].angle = position.angle;
+
+        // Copy rather than keep a reference, the module reuses its position objects
+        lastModulePositions[moduleIndex].distanceMeters = position.distanceMeters;
+        lastModulePositions[moduleIndex].angle = position.angle;
+      }
 
-    // Apply odometry update
-    poseEstimator.update(rawGyroRotation, modulePositions);
+      // Update gyro angle
+      if (gyroInputs.connected && i < gyroInputs.odometryYawPositions.length) {
+        // Use the real gyro angle
+        rawGyroRotation = gyroInputs.odometryYawPositions[i];
+      } else {
+        // Use the angle delta from the kinematics and module deltas
+        Twist2d twist = kinematics.toTwist2d(odometryDeltas);
+        rawGyroRotation = rawGyroRotation.plus(new Rotation2d(twist.dtheta));
+      }
+
+      // Apply odometry update
+      poseEstimator.updateWithTime(sampleTimestamps[i], rawGyroRotation, odometryPositions);
+      poseHistory.addSample(
+          sampleTimestamps[i], odometry.update(rawGyroRotation, odometryPositions));
+    }
 
     LimelightHelpers.SetRobotOrientation(
         Constants.LL_ALIGN,
@@ -257,25 +330,8 @@ public class Drive extends SubsystemBase {
         0,
         0,
         0);
-    Logger.recordOutput(
-        "vision something", DriverStation.getAlliance().isPresent() && visionInputs.aTV);
-    Logger.recordOutput("isDisabled", DriverStation.isDisabled());
-
-    if (DriverStation.getAlliance().isPresent() && visionInputs.aTV) {
-      Logger.recordOutput(
-          "tags > 1 or disabled ", visionInputs.tagCount > 1 || DriverStation.isDisabled());
-
-      if (visionInputs.tagCount > 1 || DriverStation.isDisabled()) {
-        visionLogic();
-      } else {
-        // mt2TagFiltering();
-        visionLogic();
-      }
-    }
-
     Logger.recordOutput("note time", getCachedNoteTime());
     // Note Pose estimating
-    updatePoseBuffer();
     if (visionInputs.iTX != 0.0) {
       double taThreshold = 0;
       if (visionInputs.iTA >= taThreshold) {
@@ -293,118 +349,24 @@ public class Drive extends SubsystemBase {
             .getDegrees());
 
     // Logger.recordOutput("dist speaker drive", calculateDistanceToSpeaker());
+    periodicTimer.stop();
+    periodicAllocations.stop();
   }
 
-  private void updatePoseBuffer() {
-    TimestampedPose2d now = new TimestampedPose2d();
-    now.pose = getPose();
-    now.time = Timer.getFPGATimestamp();
-    robotPoseBuffer.addFirst(now);
-  }
-
-  private Pose2d posePicker(double time) {
-    TimestampedPose2d prev = robotPoseBuffer.getFirst();
-    for (int i = 0; i < robotPoseBuffer.size(); i++) {
-      TimestampedPose2d next = robotPoseBuffer.get(i);
-      double delta = next.time - time;
-      if (delta < 0) {
-        double t = ((time - next.time) / (prev.time - next.time));
-        return next.pose.interpolate(prev.pose, t);
-      }
-    }
-    // if the time is before everything in the buffer return the oldest thing
-    return robotPoseBuffer.getLast().pose;
-  }
-
-  public void mt2TagFiltering() {
-    boolean doRejectUpdate = false;
-
-    LimelightHelpers.PoseEstimate mt2 =
-        new PoseEstimate(
-            visionInputs.mt2VisionPose,
-            visionInputs.timestampSeconds,
-            visionInputs.latency,
-            visionInputs.tagCount,
-            visionInputs.tagSpan,
-            visionInputs.avgTagDist,
-            visionInputs.avgTagArea,
-            new RawFiducial[] {});
-    if (Math.abs(gyroInputs.yawVelocityRadPerSec) > Math.toRadians(360)) {
-      doRejectUpdate = true;
-    }
-
-    if (mt2.tagCount == 0) {
-      doRejectUpdate = true;
-    }
-
-    if (mt2.pose.getTranslation().getDistance(new Translation2d(7.9, 4.1)) < 0.4) {
-      doRejectUpdate = true;
-    }
-
-    if (!doRejectUpdate) {
-      poseEstimator.setVisionMeasurementStdDevs(
-          VecBuilder.fill(0.7, 0.7, Units.degreesToRadians(9999999)));
-      poseEstimator.addVisionMeasurement(mt2.pose, mt2.timestampSeconds - (mt2.latency / 1000.));
-    }
-
-    Logger.recordOutput("Vision Measurement", mt2.pose);
-    Logger.recordOutput("Rejecting Tags", doRejectUpdate);
-  }
-
-  public void visionLogic() {
-    LimelightHelpers.PoseEstimate limelightMeasurement =
-        new PoseEstimate(
-            visionInputs.mt1VisionPose,
-            visionInputs.timestampSeconds,
-            visionInputs.latency,
-            visionInputs.tagCount,
-            visionInputs.tagSpan,
-            visionInputs.avgTagDist,
-            visionInputs.avgTagArea,
-            new RawFiducial[] {});
-
-    double xMeterStds;
-    double yMeterStds;
-    double headingDegStds;
-
-    double poseDifference = getVisionPoseDifference(limelightMeasurement.pose);
-
-    boolean isFlipped =
-        DriverStation.getAlliance().isPresent()
-            && DriverStation.getAlliance().get() == Alliance.Red;
-
-    Logger.recordOutput("avg area", limelightMeasurement.avgTagArea);
-
-    if (limelightMeasurement.tagCount >= 2 && limelightMeasurement.avgTagArea > 0.04) {
-      xMeterStds = 0.7;
-      yMeterStds = 0.7;
-      headingDegStds = 8;
-    } else if (limelightMeasurement.tagCount == 1
-        && poseDifference < 0.5) { // && poseDifference < 0.5
-      xMeterStds = 5;
-      yMeterStds = 5;
-      headingDegStds = 30;
-    } else if (limelightMeasurement.tagCount == 1 && poseDifference < 3) { // && poseDifference < 3
-      xMeterStds = 11.43;
-      yMeterStds = 11.43;
-      headingDegStds = 9999;
-    } else return;
-
-    Logger.recordOutput("number of tags", limelightMeasurement.tagCount);
-
-    poseEstimator.setVisionMeasurementStdDevs(
-        VecBuilder.fill(xMeterStds, yMeterStds, Units.degreesToRadians(headingDegStds)));
-
-    Pose2d pose = limelightMeasurement.pose;
-
-    if (isFlipped) {
-      pose.getRotation().plus(new Rotation2d(Math.PI));
+  /**
+   * Returns the estimated pose at a past timestamp, interpolated between odometry samples.
+   *
+   * @param timestamp FPGA timestamp in seconds
+   * @return The pose, empty if the timestamp is older than the stored history or the pose was reset
+   *     since then. Timestamps newer than the latest odometry sample return the latest pose.
+   */
+  public Optional<Pose2d> getPoseAt(double timestamp) {
+    Optional<Pose2d> odometryPose = poseHistory.getPoseAt(timestamp);
+    if (odometryPose.isEmpty()) {
+      return odometryPose;
     }
-
-    Logger.recordOutput("Vision Measurement", limelightMeasurement.pose);
-
-    addVisionMeasurement(
-        pose, limelightMeasurement.timestampSeconds - (limelightMeasurement.latency / 1000.));
+    return Optional.of(
+        getPose().plus(new Transform2d(odometry.getPoseMeters(), odometryPose.get())));
   }
 
   public double getVisionPoseDifference(Pose2d visionPose) {
@@ -440,13 +402,13 @@ public class Drive extends SubsystemBase {
    * @param speeds Speeds in meters/sec
    */
   public void runVelocity(ChassisSpeeds speeds) {
+    runVelocityAllocations.start();
+
     // Calculate module setpoints
-    ChassisSpeeds discreteSpeeds = ChassisSpeeds.discretize(speeds, 0.02);
-    SwerveModuleState[] setpointStates = kinematics.toSwerveModuleStates(discreteSpeeds);
+    calculateSetpointStates(speeds);
     SwerveDriveKinematics.desaturateWheelSpeeds(setpointStates, MAX_LINEAR_SPEED * multiplier);
 
     // Send setpoints to modules
-    SwerveModuleState[] optimizedSetpointStates = new SwerveModuleState[4];
     for (int i = 0; i < 4; i++) {
       // The module returns the optimized state, useful for logging
       optimizedSetpointStates[i] = modules[i].runSetpoint(setpointStates[i]);
@@ -455,6 +417,47 @@ public class Drive extends SubsystemBase {
     // Log setpoint states
     Logger.recordOutput("SwerveStates/Setpoints", setpointStates);
     Logger.recordOutput("SwerveStates/SetpointsOptimized", optimizedSetpointStates);
+    runVelocityAllocations.stop();
+  }
+
+  /**
+   * Fills the setpoint states for the given robot relative speeds. This is the same math as
+   * ChassisSpeeds.discretize followed by SwerveDriveKinematics.toSwerveModuleStates, done in place
+   * so it doesn't allocate a new ChassisSpeeds and state array every cycle.
+   */
+  private void calculateSetpointStates(ChassisSpeeds speeds) {
+    // Discretize by finding the twist that reaches the pose the continuous speeds would reach after
+    // one loop (see Pose2d.log)
+    double dt = Constants.LOOP_PERIOD_SECS;
+    double dx = speeds.vxMetersPerSecond * dt;
+    double dy = speeds.vyMetersPerSecond * dt;
+    double dtheta = speeds.omegaRadiansPerSecond * dt;
+    double halfDtheta = dtheta / 2.0;
+    double cosMinusOne = Math.cos(dtheta) - 1.0;
+    double halfThetaByTanOfHalfDtheta =
+        Math.abs(cosMinusOne) < 1E-9
+            ? 1.0 - 1.0 / 12.0 * dtheta * dtheta
+            : -(halfDtheta * Math.sin(dtheta)) / cosMinusOne;
+    double vx = (dx * halfThetaByTanOfHalfDtheta + dy * halfDtheta) / dt;
+    double vy = (dy * halfThetaByTanOfHalfDtheta - dx * halfDtheta) / dt;
+    double omega = speeds.omegaRadiansPerSecond;
+
+    // Hold the last headings when stopped, like SwerveDriveKinematics does
+    if (vx == 0.0 && vy == 0.0 && omega == 0.0) {
+      for (int i = 0; i < 4; i++) {
+        setpointStates[i].speedMetersPerSecond = 0.0;
+        setpointStates[i].angle = moduleHeadings[i];
+      }
+      return;
+    }
+
+    for (int i = 0; i < 4; i++) {
+      double moduleX = vx - omega * MODULE_TRANSLATIONS[i].getY();
+      double moduleY = vy + omega * MODULE_TRANSLATIONS[i].getX();
+      moduleHeadings[i] = new Rotation2d(moduleX, moduleY);
+      setpointStates[i].speedMetersPerSecond = Math.hypot(moduleX, moduleY);
+      setpointStates[i].angle = moduleHeadings[i];
+    }
   }
 
   /** Stops the drive. */
@@ -467,11 +470,9 @@ public class Drive extends SubsystemBase {
    * return to their normal orientations the next time a nonzero velocity is requested.
    */
   public void stopWithX() {
-    Rotation2d[] headings = new Rotation2d[4];
     for (int i = 0; i < 4; i++) {
-      headings[i] = getModuleTranslations()[i].getAngle();
+      moduleHeadings[i] = MODULE_TRANSLATIONS[i].getAngle();
     }
-    kinematics.resetHeadings(headings);
     stop();
   }
 
@@ -485,23 +486,27 @@ public class Drive extends SubsystemBase {
     return sysId.dynamic(direction);
   }
 
-  /** Returns the module states (turn angles and drive velocities) for all of the modules. */
+  /**
+   * Returns the module states (turn angles and drive velocities) for all of the modules. The array
+   * is reused between calls.
+   */
   @AutoLogOutput(key = "SwerveStates/Measured")
   private SwerveModuleState[] getModuleStates() {
-    SwerveModuleState[] states = new SwerveModuleState[4];
     for (int i = 0; i < 4; i++) {
-      states[i] = modules[i].getState();
+      measuredStates[i] = modules[i].getState();
     }
-    return states;
+    return measuredStates;
   }
 
-  /** Returns the module positions (turn angles and drive positions) for all of the modules. */
+  /**
+   * Returns the module positions (turn angles and drive positions) for all of the modules. The
+   * array is reused between calls.
+   */
   private SwerveModulePosition[] getModulePositions() {
-    SwerveModulePosition[] states = new SwerveModulePosition[4];
     for (int i = 0; i < 4; i++) {
-      states[i] = modules[i].getPosition();
+      measuredPositions[i] = modules[i].getPosition();
     }
-    return states;
+    return measuredPositions;
   }
 
   /** Returns the current odometry pose. */
@@ -510,6 +515,31 @@ public class Drive extends SubsystemBase {
     return poseEstimator.getEstimatedPosition();
   }
 
+  /**
+   * Returns the FPGA timestamp in seconds of the odometry sample {@link #getPose()} was last
+   * updated with, or NaN if there was none since the pose was reset.
+   */
+  public double getPoseTimestamp() {
+    return poseHistory.getNewestTimestamp();
+  }
+
+  /** Returns the robot-relative chassis speeds measured by the modules. */
+  public ChassisSpeeds getChassisSpeeds() {
+    return kinematics.toChassisSpeeds(getModuleStates());
+  }
+
+  /** Returns the chassis speeds measured by the modules, relative to the field. */
+  public ChassisSpeeds getFieldRelativeSpeeds() {
+    return ChassisSpeeds.fromRobotRelativeSpeeds(getChassisSpeeds(), getRotation());
+  }
+
+  /** Returns the measured yaw rate in radians per sec, from the gyro when it is connected. */
+  public double getYawVelocityRadPerSec() {
+    return gyroInputs.connected
+        ? gyroInputs.yawVelocityRadPerSec
+        : getChassisSpeeds().omegaRadiansPerSecond;
+  }
+
   /** Returns the current odometry rotation. */
   public Rotation2d getRotation() {
     return getPose().getRotation();
@@ -518,6 +548,8 @@ public class Drive extends SubsystemBase {
   /** Resets the current odometry pose. */
   public void setPose(Pose2d pose) {
     poseEstimator.resetPosition(rawGyroRotation, getModulePositions(), pose);
+    odometry.resetPosition(rawGyroRotation, getModulePositions(), pose);
+    poseHistory.clear();
   }
 
   /** Resets the current odometry pose. */
@@ -528,6 +560,8 @@ public class Drive extends SubsystemBase {
     }
     Logger.recordOutput("reset pose", pose);
     poseEstimator.resetPosition(rawGyroRotation, getModulePositions(), pose);
+    odometry.resetPosition(rawGyroRotation, getModulePositions(), pose);
+    poseHistory.clear();
   }
 
   /**
@@ -540,6 +574,19 @@ public class Drive extends SubsystemBase {
     poseEstimator.addVisionMeasurement(visionPose, timestamp);
   }
 
+  /**
+   * Adds a vision measurement to the pose estimator.
+   *
+   * @param visionPose The pose of the robot as measured by the vision camera.
+   * @param timestamp The timestamp of the vision measurement in seconds.
+   * @param visionMeasurementStdDevs Standard deviations of the measurement (x and y in meters,
+   *     heading in radians).
+   */
+  public void addVisionMeasurement(
+      Pose2d visionPose, double timestamp, Matrix<N3, N1> visionMeasurementStdDevs) {
+    poseEstimator.addVisionMeasurement(visionPose, timestamp, visionMeasurementStdDevs);
+  }
+
   /** Returns the maximum linear speed in meters per sec. */
   public double getMaxLinearSpeedMetersPerSec() {
     return MAX_LINEAR_SPEED;
@@ -630,11 +677,13 @@ public class Drive extends SubsystemBase {
             .rotateBy(Rotation2d.fromDegrees(0))
             .plus(new Translation2d(Units.inchesToMeters(12), 0));
     Logger.recordOutput("NoteTracking/roboRelNoteLocT2dCorrected", roboRelNoteLocT2dCorrected);
-    Pose2d pickedRobotPose =
-        posePicker(
+    Optional<Pose2d> historicalPose =
+        getPoseAt(
             Timer.getFPGATimestamp()
                 - (visionInputs.iPIPELINELATENCY / 1000.)
                 - (visionInputs.iCAPTURELATENCY / 1000.));
+    Logger.recordOutput("NoteTracking/PoseHistoryMiss", historicalPose.isEmpty());
+    Pose2d pickedRobotPose = historicalPose.orElseGet(this::getPose);
     Translation2d fieldRelNoteLocT2dCorrected =
         roboRelNoteLocT2dCorrected
             .rotateBy(pickedRobotPose.getRotation())
@@ -752,6 +801,79 @@ public class Drive extends SubsystemBase {
     return fieldCoords;
   }
 
+  /**
+   * Returns a command following the paths to the target note from where the robot is, cached by
+   * start region, note and alliance. See {@link NoteApproachCache}. The paths are followed without
+   * initial replanning, which would rebuild the cached paths from the robot's position.
+   *
+   * @param target Where to drive to, from {@link #getTargetNoteLocation()}
+   */
+  public Command getNoteApproachCommand(Translation2d target) {
+    NOTE_POSITIONS note = getNote();
+    List<PathPlannerPath> paths =
+        noteApproachCache.get(
+            getPose().getTranslation(),
+            note,
+            AllianceFlipUtil.apply(noteLocations.get(note)),
+            target,
+            AllianceFlipUtil.shouldFlip());
+    Logger.recordOutput("NoteApproach/CacheHits", noteApproachCache.getHits());
+    Logger.recordOutput("NoteApproach/CacheMisses", noteApproachCache.getMisses());
+    Logger.recordOutput("Target Note Pose3d", new Pose3d(new Pose2d(target, new Rotation2d())));
+
+    Command[] commands = new Command[paths.size()];
+    for (int i = 0; i < commands.length; i++) {
+      commands[i] =
+          new FollowPathHolonomic(
+              paths.get(i),
+              this::getPose,
+              () -> kinematics.toChassisSpeeds(getModuleStates()),
+              this::runVelocity,
+              new HolonomicPathFollowerConfig(
+                  new PIDConstants(5),
+                  new PIDConstants(1.5),
+                  Constants.SwerveConstants.MAX_LINEAR_SPEED,
+                  DRIVE_BASE_RADIUS,
+                  new ReplanningConfig(false, false)),
+              // Note approach paths are already on the current alliance's side
+              () -> false,
+              this);
+    }
+    return Commands.sequence(commands);
+  }
+
+  /**
+   * Builds at most one missing note approach, for the robot's start region and the regions around
+   * it, so the first pickups of auto don't have to. Call each loop while disabled, once the
+   * alliance is known.
+   */
+  public void warmNoteApproachPaths() {
+    if (DriverStation.getAlliance().isEmpty()) {
+      return;
+    }
+    boolean red = AllianceFlipUtil.shouldFlip();
+    NOTE_POSITIONS[] notes = NOTE_POSITIONS.values();
+    int combinations = 9 * notes.length;
+    for (int i = 0; i < combinations; i++) {
+      int index = (noteApproachWarmIndex + i) % combinations;
+      int region = index / notes.length;
+      Translation2d start =
+          getPose()
+              .getTranslation()
+              .plus(
+                  new Translation2d(
+                      (region % 3 - 1) * NoteApproachCache.REGION_SIZE_METERS,
+                      (region / 3 - 1) * NoteApproachCache.REGION_SIZE_METERS));
+      NOTE_POSITIONS note = notes[index % notes.length];
+      if (noteApproachCache.warm(
+          start, note, AllianceFlipUtil.apply(noteLocations.get(note)), red)) {
+        noteApproachWarmIndex = index + 1;
+        Logger.recordOutput("NoteApproach/CacheSize", noteApproachCache.size());
+        return;
+      }
+    }
+  }
+
   public PathPlannerPath generateTrajectoryToNote(
       Translation2d target,
       double maxVelMetersPerSec,
@@ -970,7 +1092,7 @@ public class Drive extends SubsystemBase {
   }
 
   public Command followPathCommand(String pathName, boolean lowerPID) {
-    PathPlannerPath path = PathPlannerPath.fromPathFile(pathName);
+    PathPlannerPath path = AutoWarmup.getPath(pathName);
 
     return new FollowPathHolonomic(
         path,
@@ -25,6 +25,9 @@ public interface GyroIO {
     public double accelerationXDegSecSquared = 0.0;
     public double accelerationYDegSecSquared = 0.0;
     public double accelerationZDegSecSquared = 0.0;
+
+    public double[] odometryYawTimestamps = new double[] {};
+    public Rotation2d[] odometryYawPositions = new Rotation2d[] {};
   }
 
   public default void updateInputs(GyroIOInputs inputs) {}
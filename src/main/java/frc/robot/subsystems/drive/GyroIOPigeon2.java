@@ -21,11 +21,14 @@ import com.ctre.phoenix6.hardware.Pigeon2;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.util.Units;
 import frc.robot.Constants;
+import java.util.Queue;
 
 /** IO implementation for Pigeon2 */
 public class GyroIOPigeon2 implements GyroIO {
   private final Pigeon2 pigeon = new Pigeon2(0, Constants.CANBUS);
   private final StatusSignal<Double> yaw = pigeon.getYaw();
+  private final Queue<Double> yawPositionQueue;
+  private final Queue<Double> yawTimestampQueue;
   private final StatusSignal<Double> yawVelocity = pigeon.getAngularVelocityZWorld();
   private final StatusSignal<Double> accelerationXDegSecSquared = pigeon.getAccelerationX();
   private final StatusSignal<Double> accelerationYDegSecSquared = pigeon.getAccelerationY();
@@ -34,7 +37,7 @@ public class GyroIOPigeon2 implements GyroIO {
   public GyroIOPigeon2() {
     pigeon.getConfigurator().apply(new Pigeon2Configuration());
     pigeon.getConfigurator().setYaw(0.0);
-    yaw.setUpdateFrequency(100.0);
+    yaw.setUpdateFrequency(Module.ODOMETRY_FREQUENCY);
     yawVelocity.setUpdateFrequency(100.0);
 
     accelerationXDegSecSquared.setUpdateFrequency(100.0);
@@ -42,6 +45,8 @@ public class GyroIOPigeon2 implements GyroIO {
     accelerationZDegSecSquared.setUpdateFrequency(100.0);
 
     pigeon.optimizeBusUtilization();
+    yawTimestampQueue = PhoenixOdometryThread.getInstance().makeTimestampQueue();
+    yawPositionQueue = PhoenixOdometryThread.getInstance().registerSignal(pigeon, pigeon.getYaw());
   }
 
   @Override
@@ -60,5 +65,15 @@ public class GyroIOPigeon2 implements GyroIO {
     inputs.accelerationXDegSecSquared = accelerationXDegSecSquared.getValueAsDouble();
     inputs.accelerationYDegSecSquared = accelerationYDegSecSquared.getValueAsDouble();
     inputs.accelerationZDegSecSquared = accelerationZDegSecSquared.getValueAsDouble();
+
+    int sampleCount = Math.min(yawTimestampQueue.size(), yawPositionQueue.size());
+    inputs.odometryYawTimestamps = new double[sampleCount];
+    inputs.odometryYawPositions = new Rotation2d[sampleCount];
+    for (int i = 0; i < sampleCount; i++) {
+      inputs.odometryYawTimestamps[i] = yawTimestampQueue.poll();
+      inputs.odometryYawPositions[i] = Rotation2d.fromDegrees(yawPositionQueue.poll());
+    }
+    yawTimestampQueue.clear();
+    yawPositionQueue.clear();
   }
 }
@@ -13,31 +13,46 @@
 
 package frc.robot.subsystems.drive;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
 import frc.robot.Constants;
+import frc.robot.util.LoopTimer;
 import org.littletonrobotics.junction.Logger;
 
 public class Module {
   private static final double WHEEL_RADIUS = Constants.ModuleConstants.WHEEL_RADIUS;
+  public static final double ODOMETRY_FREQUENCY = 250.0;
+  private static final Rotation2d ZERO_ROTATION = new Rotation2d();
+  private static final Rotation2d HALF_ROTATION = Rotation2d.fromDegrees(180.0);
+  private static final LoopTimer processInputsTimer =
+      new LoopTimer("Drive/Modules/ProcessInputs"); // Shared by all four modules
 
   private final ModuleIO io;
   private final ModuleIOInputsAutoLogged inputs = new ModuleIOInputsAutoLogged();
-  private final int index;
+  private final String inputsKey;
 
   private final SimpleMotorFeedforward driveFeedforward;
   private final PIDController driveFeedback;
   private final PIDController turnFeedback;
   private Rotation2d angleSetpoint = null; // Setpoint for closed loop control, null for open loop
-  private Double speedSetpoint = null; // Setpoint for closed loop control, null for open loop
+  private double speedSetpoint = 0.0; // Setpoint for closed loop control
+  private boolean speedClosedLoop = false; // False for open loop
   private Rotation2d turnRelativeOffset = null; // Relative + Offset = Absolute
+  private Rotation2d angle = ZERO_ROTATION; // Cached once per cycle in "periodic"
+
+  // Reused every cycle to keep the control loop from allocating, callers must not hold on to them
+  private final SwerveModulePosition position = new SwerveModulePosition();
+  private final SwerveModuleState state = new SwerveModuleState();
+  private final SwerveModuleState optimizedState = new SwerveModuleState();
+  private SwerveModulePosition[] odometryPositions = new SwerveModulePosition[0];
 
   public Module(ModuleIO io, int index) {
     this.io = io;
-    this.index = index;
+    this.inputsKey = "Drive/Module" + Integer.toString(index);
 
     // Switch constants based on mode (the physics simulator is treated as a
     // separate robot with different tuning)
@@ -68,15 +83,26 @@ public class Module {
     setBrakeMode(true);
   }
 
-  public void periodic() {
+  /**
+   * Update inputs without running the rest of the periodic logic. This is useful since these
+   * updates need to be properly thread-locked.
+   */
+  public void updateInputs() {
     io.updateInputs(inputs);
-    Logger.processInputs("Drive/Module" + Integer.toString(index), inputs);
+  }
+
+  public void periodic() {
+    processInputsTimer.start();
+    Logger.processInputs(inputsKey, inputs);
+    processInputsTimer.stop();
 
     // On first cycle, reset relative turn encoder
     // Wait until absolute angle is nonzero in case it wasn't initialized yet
     if (turnRelativeOffset == null && inputs.turnAbsolutePosition.getRadians() != 0.0) {
       turnRelativeOffset = inputs.turnAbsolutePosition.minus(inputs.turnPosition);
     }
+    angle =
+        turnRelativeOffset == null ? ZERO_ROTATION : inputs.turnPosition.plus(turnRelativeOffset);
 
     // Run closed loop turn control
     if (angleSetpoint != null) {
@@ -85,7 +111,7 @@ public class Module {
 
       // Run closed loop drive control
       // Only allowed if closed loop turn control is running
-      if (speedSetpoint != null) {
+      if (speedClosedLoop) {
         // Scale velocity based on turn error
         //
         // When the error is 90°, the velocity setpoint should be 0. As the wheel turns
@@ -100,17 +126,46 @@ public class Module {
                 + driveFeedback.calculate(inputs.driveVelocityRadPerSec, velocityRadPerSec));
       }
     }
+
+    // Calculate positions for odometry
+    int sampleCount = inputs.odometryTimestamps.length; // All signals are sampled together
+    if (odometryPositions.length < sampleCount) {
+      SwerveModulePosition[] grown = new SwerveModulePosition[sampleCount];
+      System.arraycopy(odometryPositions, 0, grown, 0, odometryPositions.length);
+      for (int i = odometryPositions.length; i < sampleCount; i++) {
+        grown[i] = new SwerveModulePosition();
+      }
+      odometryPositions = grown;
+    }
+    for (int i = 0; i < sampleCount; i++) {
+      odometryPositions[i].distanceMeters = inputs.odometryDrivePositionsRad[i] * WHEEL_RADIUS;
+      odometryPositions[i].angle =
+          turnRelativeOffset == null
+              ? inputs.odometryTurnPositions[i]
+              : inputs.odometryTurnPositions[i].plus(turnRelativeOffset);
+    }
   }
 
-  /** Runs the module with the specified setpoint state. Returns the optimized state. */
+  /**
+   * Runs the module with the specified setpoint state. Returns the optimized state, which is reused
+   * on the next call.
+   */
   public SwerveModuleState runSetpoint(SwerveModuleState state) {
-    // Optimize state based on current angle
+    // Optimize state based on current angle, same as SwerveModuleState.optimize but in place
     // Controllers run in "periodic" when the setpoint is not null
-    var optimizedState = SwerveModuleState.optimize(state, getAngle());
+    double delta = MathUtil.angleModulus(state.angle.getRadians() - getAngle().getRadians());
+    if (Math.abs(delta) > Math.PI / 2.0) {
+      optimizedState.speedMetersPerSecond = -state.speedMetersPerSecond;
+      optimizedState.angle = state.angle.rotateBy(HALF_ROTATION);
+    } else {
+      optimizedState.speedMetersPerSecond = state.speedMetersPerSecond;
+      optimizedState.angle = state.angle;
+    }
 
     // Update setpoints, controllers run in "periodic"
     angleSetpoint = optimizedState.angle;
     speedSetpoint = optimizedState.speedMetersPerSecond;
+    speedClosedLoop = true;
 
     return optimizedState;
   }
@@ -118,11 +173,11 @@ public class Module {
   /** Runs the module with the specified voltage while controlling to zero degrees. */
   public void runCharacterization(double volts) {
     // Closed loop turn control
-    angleSetpoint = new Rotation2d();
+    angleSetpoint = ZERO_ROTATION;
 
     // Open loop drive control
     io.setDriveVoltage(volts);
-    speedSetpoint = null;
+    speedClosedLoop = false;
   }
 
   /** Disables all outputs to motors. */
@@ -132,7 +187,7 @@ public class Module {
 
     // Disable closed loop control for turn and drive
     angleSetpoint = null;
-    speedSetpoint = null;
+    speedClosedLoop = false;
   }
 
   /** Sets whether brake mode is enabled. */
@@ -143,11 +198,7 @@ public class Module {
 
   /** Returns the current turn angle of the module. */
   public Rotation2d getAngle() {
-    if (turnRelativeOffset == null) {
-      return new Rotation2d();
-    } else {
-      return inputs.turnPosition.plus(turnRelativeOffset);
-    }
+    return angle;
   }
 
   public void setDriveRamp(double seconds) {
@@ -164,14 +215,37 @@ public class Module {
     return inputs.driveVelocityRadPerSec * WHEEL_RADIUS;
   }
 
-  /** Returns the module position (turn angle and drive position). */
+  /**
+   * Returns the module position (turn angle and drive position). The returned object is reused,
+   * copy it if it needs to outlive the current cycle.
+   */
   public SwerveModulePosition getPosition() {
-    return new SwerveModulePosition(getPositionMeters(), getAngle());
+    position.distanceMeters = getPositionMeters();
+    position.angle = getAngle();
+    return position;
   }
 
-  /** Returns the module state (turn angle and drive velocity). */
+  /**
+   * Returns the module state (turn angle and drive velocity). The returned object is reused, copy
+   * it if it needs to outlive the current cycle.
+   */
   public SwerveModuleState getState() {
-    return new SwerveModuleState(getVelocityMetersPerSec(), getAngle());
+    state.speedMetersPerSecond = getVelocityMetersPerSec();
+    state.angle = getAngle();
+    return state;
+  }
+
+  /**
+   * Returns the module positions received this cycle. The array is reused and may be longer than
+   * the number of samples, use the length of {@link #getOdometryTimestamps()} as the count.
+   */
+  public SwerveModulePosition[] getOdometryPositions() {
+    return odometryPositions;
+  }
+
+  /** Returns the timestamps of the samples received this cycle. */
+  public double[] getOdometryTimestamps() {
+    return inputs.odometryTimestamps;
   }
 
   /** Returns the drive velocity in radians/sec. */
@@ -27,6 +27,7 @@ import com.ctre.phoenix6.signals.NeutralModeValue;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.util.Units;
 import frc.robot.Constants;
+import java.util.Queue;
 
 /**
  * Module IO implementation for Talon FX drive motor controller, Talon FX turn motor controller, and
@@ -46,16 +47,24 @@ public class ModuleIOTalonFX implements ModuleIO {
   private final CANcoder cancoder;
 
   private final StatusSignal<Double> drivePosition;
+  private final Queue<Double> drivePositionQueue;
   private final StatusSignal<Double> driveVelocity;
   private final StatusSignal<Double> driveAppliedVolts;
   private final StatusSignal<Double> driveCurrent;
 
   private final StatusSignal<Double> turnAbsolutePosition;
   private final StatusSignal<Double> turnPosition;
+  private final Queue<Double> turnPositionQueue;
   private final StatusSignal<Double> turnVelocity;
   private final StatusSignal<Double> turnAppliedVolts;
   private final StatusSignal<Double> turnCurrent;
 
+  private final Queue<Double> timestampQueue;
+
+  // Control requests are reused, Phoenix only sends the new output
+  private final VoltageOut driveVoltageRequest = new VoltageOut(0.0);
+  private final VoltageOut turnVoltageRequest = new VoltageOut(0.0);
+
   // Gear ratios for SDS MK4i L3, adjust as necessary
   private final double DRIVE_GEAR_RATIO = Constants.ModuleConstants.DRIVE_GEAR_RATIO;
   private final double TURN_GEAR_RATIO = Constants.ModuleConstants.TURN_GEAR_RATIO;
@@ -121,19 +130,25 @@ public class ModuleIOTalonFX implements ModuleIO {
 
     cancoder.getConfigurator().apply(new CANcoderConfiguration());
 
+    timestampQueue = PhoenixOdometryThread.getInstance().makeTimestampQueue();
+
     drivePosition = driveTalon.getPosition();
+    drivePositionQueue =
+        PhoenixOdometryThread.getInstance().registerSignal(driveTalon, driveTalon.getPosition());
     driveVelocity = driveTalon.getVelocity();
     driveAppliedVolts = driveTalon.getMotorVoltage();
     driveCurrent = driveTalon.getStatorCurrent();
 
     turnAbsolutePosition = cancoder.getAbsolutePosition();
     turnPosition = turnTalon.getPosition();
+    turnPositionQueue =
+        PhoenixOdometryThread.getInstance().registerSignal(turnTalon, turnTalon.getPosition());
     turnVelocity = turnTalon.getVelocity();
     turnAppliedVolts = turnTalon.getMotorVoltage();
     turnCurrent = turnTalon.getStatorCurrent();
 
     BaseStatusSignal.setUpdateFrequencyForAll(
-        100.0, drivePosition, turnPosition); // Required for odometry, use faster rate
+        Module.ODOMETRY_FREQUENCY, drivePosition, turnPosition); // Required for odometry
     BaseStatusSignal.setUpdateFrequencyForAll(
         50.0,
         driveVelocity,
@@ -165,6 +180,7 @@ public class ModuleIOTalonFX implements ModuleIO {
     inputs.driveVelocityRadPerSec =
         Units.rotationsToRadians(driveVelocity.getValueAsDouble()) / DRIVE_GEAR_RATIO;
     inputs.driveAppliedVolts = driveAppliedVolts.getValueAsDouble();
+    // Arrays are handed to the log receivers by reference, so they can't be reused between cycles
     inputs.driveCurrentAmps = new double[] {driveCurrent.getValueAsDouble()};
 
     inputs.turnAbsolutePosition =
@@ -176,11 +192,29 @@ public class ModuleIOTalonFX implements ModuleIO {
         Units.rotationsToRadians(turnVelocity.getValueAsDouble()) / TURN_GEAR_RATIO;
     inputs.turnAppliedVolts = turnAppliedVolts.getValueAsDouble();
     inputs.turnCurrentAmps = new double[] {turnCurrent.getValueAsDouble()};
+
+    // Drain the odometry samples, all queues are filled together by the odometry thread
+    int sampleCount =
+        Math.min(
+            timestampQueue.size(), Math.min(drivePositionQueue.size(), turnPositionQueue.size()));
+    inputs.odometryTimestamps = new double[sampleCount];
+    inputs.odometryDrivePositionsRad = new double[sampleCount];
+    inputs.odometryTurnPositions = new Rotation2d[sampleCount];
+    for (int i = 0; i < sampleCount; i++) {
+      inputs.odometryTimestamps[i] = timestampQueue.poll();
+      inputs.odometryDrivePositionsRad[i] =
+          Units.rotationsToRadians(drivePositionQueue.poll()) / DRIVE_GEAR_RATIO;
+      inputs.odometryTurnPositions[i] =
+          Rotation2d.fromRotations(turnPositionQueue.poll() / TURN_GEAR_RATIO);
+    }
+    timestampQueue.clear();
+    drivePositionQueue.clear();
+    turnPositionQueue.clear();
   }
 
   @Override
   public void setDriveVoltage(double volts) {
-    driveTalon.setControl(new VoltageOut(volts));
+    driveTalon.setControl(driveVoltageRequest.withOutput(volts));
   }
 
   @Override
@@ -193,7 +227,7 @@ public class ModuleIOTalonFX implements ModuleIO {
 
   @Override
   public void setTurnVoltage(double volts) {
-    turnTalon.setControl(new VoltageOut(volts));
+    turnTalon.setControl(turnVoltageRequest.withOutput(volts));
   }
 
   @Override
@@ -0,0 +1,208 @@
+package frc.robot.subsystems.drive;
+
+import com.pathplanner.lib.path.GoalEndState;
+import com.pathplanner.lib.path.PathConstraints;
+import com.pathplanner.lib.path.PathPlannerPath;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import frc.robot.Constants.NOTE_POSITIONS;
+import frc.robot.util.FieldConstants;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Paths to the staged notes, built ahead of time instead of when a pickup starts. The field is
+ * split into square start regions, and every start in a region shares the paths to a note, which
+ * begin at the region center. The robot is at most half a region diagonal off that start, which the
+ * path follower's feedback takes out while driving. The paths are meant to be followed without
+ * initial replanning, which would otherwise rebuild them from the robot's position.
+ *
+ * <p>Each approach is two paths: a lead-in to an approach point short of the note, then the last
+ * segment straight in. When vision puts the note somewhere else, only the last segment is rebuilt
+ * to the seen position, the lead-in is followed as is. Notes too close to the region center for an
+ * approach point only have the last segment. The least recently used approaches are dropped once
+ * the cache is full.
+ */
+public class NoteApproachCache {
+  // Small enough that the robot starts within 0.36 m of the path start
+  public static final double REGION_SIZE_METERS = 0.5;
+  private static final double APPROACH_DISTANCE_METERS = 1.0;
+  // Vision positions closer than this to the staged note use the cached last segment. Above the
+  // scatter of note positions seen from across the field, so noise alone doesn't rebuild it.
+  private static final double REFINE_THRESHOLD_METERS = 0.3;
+  private static final int NOTE_COUNT = NOTE_POSITIONS.values().length;
+  private static final int REGIONS_Y =
+      (int) Math.ceil(FieldConstants.fieldWidth / REGION_SIZE_METERS);
+
+  /**
+   * A cached approach: the lead-in to the approach point, null when the note is too close for one,
+   * and the last segment from the approach point to the staged note.
+   */
+  private static class Approach {
+    private final PathPlannerPath leadIn;
+    private final Pose2d approachPose;
+    private final PathPlannerPath lastSegment;
+
+    private Approach(PathPlannerPath leadIn, Pose2d approachPose, PathPlannerPath lastSegment) {
+      this.leadIn = leadIn;
+      this.approachPose = approachPose;
+      this.lastSegment = lastSegment;
+    }
+  }
+
+  private final PathConstraints constraints;
+  private final double endVelocityMetersPerSec;
+  private final double approachVelocityMetersPerSec;
+  private final Map<Integer, Approach> approaches;
+  private int hits = 0;
+  private int misses = 0;
+
+  /**
+   * Create a new NoteApproachCache
+   *
+   * @param constraints Constraints for every approach path
+   * @param endVelocityMetersPerSec Velocity at the note, to drive through it into the intake
+   * @param capacity Most approaches kept
+   */
+  public NoteApproachCache(
+      PathConstraints constraints, double endVelocityMetersPerSec, int capacity) {
+    this.constraints = constraints;
+    this.endVelocityMetersPerSec = endVelocityMetersPerSec;
+    // As fast as the last segment can still brake from to the end velocity
+    this.approachVelocityMetersPerSec =
+        Math.min(
+            Math.sqrt(
+                endVelocityMetersPerSec * endVelocityMetersPerSec
+                    + 2 * constraints.getMaxAccelerationMpsSq() * APPROACH_DISTANCE_METERS),
+            constraints.getMaxVelocityMps());
+    this.approaches =
+        new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Integer, Approach> eldest) {
+            return size() > capacity;
+          }
+        };
+  }
+
+  /**
+   * Returns the paths from a start to a note, to follow in order without initial replanning: the
+   * lead-in when there is one, then the last segment.
+   *
+   * @param start Where the robot is
+   * @param note Which staged note
+   * @param noteLocation Staged location of the note for the current alliance
+   * @param target Where to drive to, the seen note position or the staged location
+   * @param red Whether on the red alliance
+   */
+  public List<PathPlannerPath> get(
+      Translation2d start,
+      NOTE_POSITIONS note,
+      Translation2d noteLocation,
+      Translation2d target,
+      boolean red) {
+    int key = getKey(start, note, red);
+    Approach approach = approaches.get(key);
+    if (approach == null) {
+      misses++;
+      approach = build(getRegionCenter(start), noteLocation);
+      approaches.put(key, approach);
+    } else {
+      hits++;
+    }
+
+    PathPlannerPath lastSegment =
+        target.getDistance(noteLocation) <= REFINE_THRESHOLD_METERS
+            ? approach.lastSegment
+            : createLastSegment(approach.approachPose, target);
+    return approach.leadIn == null ? List.of(lastSegment) : List.of(approach.leadIn, lastSegment);
+  }
+
+  /**
+   * Builds the paths from a start region to a note if they aren't cached yet, without counting as a
+   * use.
+   *
+   * @param start Any point in the start region
+   * @param note Which staged note
+   * @param noteLocation Staged location of the note for the current alliance
+   * @param red Whether on the red alliance
+   * @return Whether paths were built
+   */
+  public boolean warm(
+      Translation2d start, NOTE_POSITIONS note, Translation2d noteLocation, boolean red) {
+    int key = getKey(start, note, red);
+    if (approaches.containsKey(key)) {
+      return false;
+    }
+    approaches.put(key, build(getRegionCenter(start), noteLocation));
+    return true;
+  }
+
+  /** Returns how many lookups found their paths cached. */
+  public int getHits() {
+    return hits;
+  }
+
+  /** Returns how many lookups had to build their paths. */
+  public int getMisses() {
+    return misses;
+  }
+
+  /** Returns how many approaches are cached. */
+  public int size() {
+    return approaches.size();
+  }
+
+  private Approach build(Translation2d regionCenter, Translation2d noteLocation) {
+    Rotation2d heading = noteLocation.minus(regionCenter).getAngle();
+    Pose2d startPose = new Pose2d(regionCenter, heading);
+
+    // Too close for a separate approach point, the whole approach is the last segment
+    if (noteLocation.getDistance(regionCenter) <= 2 * APPROACH_DISTANCE_METERS) {
+      return new Approach(null, startPose, createLastSegment(startPose, noteLocation));
+    }
+    Pose2d approachPose =
+        new Pose2d(
+            noteLocation.minus(new Translation2d(APPROACH_DISTANCE_METERS, heading)), heading);
+    // Drive through the approach point without stopping, the last segment carries on from there
+    PathPlannerPath leadIn =
+        createPath(
+            PathPlannerPath.bezierFromPoses(startPose, approachPose),
+            heading,
+            approachVelocityMetersPerSec);
+    return new Approach(leadIn, approachPose, createLastSegment(approachPose, noteLocation));
+  }
+
+  private PathPlannerPath createLastSegment(Pose2d approachPose, Translation2d target) {
+    Rotation2d heading = target.minus(approachPose.getTranslation()).getAngle();
+    // Leave the approach point along the lead-in so the two paths join smoothly
+    return createPath(
+        PathPlannerPath.bezierFromPoses(approachPose, new Pose2d(target, heading)),
+        heading,
+        endVelocityMetersPerSec);
+  }
+
+  private PathPlannerPath createPath(
+      List<Translation2d> points, Rotation2d heading, double endVelocityMetersPerSec) {
+    PathPlannerPath path =
+        new PathPlannerPath(
+            points, constraints, new GoalEndState(endVelocityMetersPerSec, heading, true));
+    // Points are already on the current alliance's side
+    path.preventFlipping = true;
+    return path;
+  }
+
+  private static int getKey(Translation2d start, NOTE_POSITIONS note, boolean red) {
+    int regionX = (int) Math.floor(start.getX() / REGION_SIZE_METERS);
+    int regionY = (int) Math.floor(start.getY() / REGION_SIZE_METERS);
+    int region = regionX * REGIONS_Y + regionY;
+    return (region * NOTE_COUNT + note.ordinal()) * 2 + (red ? 1 : 0);
+  }
+
+  private static Translation2d getRegionCenter(Translation2d start) {
+    return new Translation2d(
+        (Math.floor(start.getX() / REGION_SIZE_METERS) + 0.5) * REGION_SIZE_METERS,
+        (Math.floor(start.getY() / REGION_SIZE_METERS) + 0.5) * REGION_SIZE_METERS);
+  }
+}
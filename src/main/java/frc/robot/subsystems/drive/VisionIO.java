@@ -1,21 +1,11 @@
 package frc.robot.subsystems.drive;
 
-import edu.wpi.first.math.geometry.Pose2d;
 import org.littletonrobotics.junction.AutoLog;
 
 public interface VisionIO {
 
   @AutoLog
   public static class VisionIOInputs {
-    public Pose2d mt2VisionPose = new Pose2d();
-    public Pose2d mt1VisionPose = new Pose2d();
-    public double timestampSeconds;
-    public int tagCount;
-    public double latency;
-    public double tagSpan;
-    public double avgTagDist;
-    public double avgTagArea;
-
     public double iTX;
     public double iTY;
     public double iTA;
@@ -39,6 +29,8 @@ public interface VisionIO {
 
     public double aPIPELINELATENCY;
     public double aCAPTURELATENCY;
+
+    public double readTimeMs;
   }
 
   public default void updateInputs(VisionIOInputs inputs) {}
@@ -1,54 +1,76 @@
 package frc.robot.subsystems.drive;
 
+import edu.wpi.first.networktables.DoubleSubscriber;
+import edu.wpi.first.networktables.NetworkTable;
 import frc.robot.Constants;
 import frc.robot.util.LimelightHelpers;
+import org.littletonrobotics.junction.Logger;
 
+/**
+ * Reads the targeting values of both Limelights through subscribers created once at startup,
+ * instead of looking up every entry by name each loop. AprilTag pose estimates are handled by the
+ * vision subsystem.
+ */
 public class VisionIOLimelight implements VisionIO {
+  private final LimelightTargetSubscribers intake;
+  private final LimelightTargetSubscribers align;
 
-  public VisionIOLimelight() {}
+  public VisionIOLimelight() {
+    intake = new LimelightTargetSubscribers(Constants.LL_INTAKE);
+    align = new LimelightTargetSubscribers(Constants.LL_ALIGN);
+  }
 
   @Override
   public void updateInputs(VisionIOInputs inputs) {
-    inputs.mt2VisionPose =
-        LimelightHelpers.getBotPoseEstimate_wpiBlue_MegaTag2(Constants.LL_ALIGN).pose;
-    inputs.mt1VisionPose = LimelightHelpers.getBotPose2d_wpiBlue(Constants.LL_ALIGN);
-    inputs.timestampSeconds =
-        LimelightHelpers.getBotPoseEstimate_wpiBlue_MegaTag2(Constants.LL_ALIGN).timestampSeconds;
-    inputs.tagCount =
-        LimelightHelpers.getBotPoseEstimate_wpiBlue_MegaTag2(Constants.LL_ALIGN).tagCount;
-    inputs.tagSpan =
-        LimelightHelpers.getBotPoseEstimate_wpiBlue_MegaTag2(Constants.LL_ALIGN).tagSpan;
-    inputs.latency =
-        LimelightHelpers.getBotPoseEstimate_wpiBlue_MegaTag2(Constants.LL_ALIGN).latency;
-    inputs.avgTagDist =
-        LimelightHelpers.getBotPoseEstimate_wpiBlue_MegaTag2(Constants.LL_ALIGN).avgTagDist;
-    inputs.avgTagArea =
-        LimelightHelpers.getBotPoseEstimate_wpiBlue_MegaTag2(Constants.LL_ALIGN).avgTagArea;
+    long readStart = Logger.getRealTimestamp();
 
     // Raw Limelight Data
-    inputs.iTX = LimelightHelpers.getTX(Constants.LL_INTAKE);
-    inputs.iTY = LimelightHelpers.getTY(Constants.LL_INTAKE);
-    inputs.iTA = LimelightHelpers.getTA(Constants.LL_INTAKE);
-    inputs.iHB =
-        LimelightHelpers.getLimelightNTTableEntry(Constants.LL_INTAKE, "hb").getDouble(0.0);
-    inputs.iTV = LimelightHelpers.getTV(Constants.LL_INTAKE);
-    inputs.iPIPELINELATENCY = LimelightHelpers.getLatency_Pipeline(Constants.LL_INTAKE);
-    inputs.iCAPTURELATENCY = LimelightHelpers.getLatency_Capture(Constants.LL_INTAKE);
-    inputs.iTHOR =
-        LimelightHelpers.getLimelightNTTableEntry(Constants.LL_INTAKE, "thor").getDouble(0.0);
-    inputs.iTVERT =
-        LimelightHelpers.getLimelightNTTableEntry(Constants.LL_INTAKE, "tvert").getDouble(0.0);
-
-    inputs.aTX = LimelightHelpers.getTX(Constants.LL_ALIGN);
-    inputs.aTY = LimelightHelpers.getTY(Constants.LL_ALIGN);
-    inputs.aTA = LimelightHelpers.getTA(Constants.LL_ALIGN);
-    inputs.aHB = LimelightHelpers.getLimelightNTTableEntry(Constants.LL_ALIGN, "hb").getDouble(0.0);
-    inputs.aTV = LimelightHelpers.getTV(Constants.LL_ALIGN);
-    inputs.aPIPELINELATENCY = LimelightHelpers.getLatency_Pipeline(Constants.LL_ALIGN);
-    inputs.aCAPTURELATENCY = LimelightHelpers.getLatency_Capture(Constants.LL_ALIGN);
-    inputs.aTHOR =
-        LimelightHelpers.getLimelightNTTableEntry(Constants.LL_ALIGN, "thor").getDouble(0.0);
-    inputs.aTVERT =
-        LimelightHelpers.getLimelightNTTableEntry(Constants.LL_ALIGN, "tvert").getDouble(0.0);
+    inputs.iTX = intake.tx.get();
+    inputs.iTY = intake.ty.get();
+    inputs.iTA = intake.ta.get();
+    inputs.iHB = intake.hb.get();
+    inputs.iTV = intake.tv.get() == 1.0;
+    inputs.iPIPELINELATENCY = intake.pipelineLatency.get();
+    inputs.iCAPTURELATENCY = intake.captureLatency.get();
+    inputs.iTHOR = intake.thor.get();
+    inputs.iTVERT = intake.tvert.get();
+
+    inputs.aTX = align.tx.get();
+    inputs.aTY = align.ty.get();
+    inputs.aTA = align.ta.get();
+    inputs.aHB = align.hb.get();
+    inputs.aTV = align.tv.get() == 1.0;
+    inputs.aPIPELINELATENCY = align.pipelineLatency.get();
+    inputs.aCAPTURELATENCY = align.captureLatency.get();
+    inputs.aTHOR = align.thor.get();
+    inputs.aTVERT = align.tvert.get();
+
+    inputs.readTimeMs = (Logger.getRealTimestamp() - readStart) / 1000.0;
+  }
+
+  /** Subscribers for the basic targeting values published by one Limelight. */
+  private static class LimelightTargetSubscribers {
+    private final DoubleSubscriber tx;
+    private final DoubleSubscriber ty;
+    private final DoubleSubscriber ta;
+    private final DoubleSubscriber hb;
+    private final DoubleSubscriber tv;
+    private final DoubleSubscriber pipelineLatency;
+    private final DoubleSubscriber captureLatency;
+    private final DoubleSubscriber thor;
+    private final DoubleSubscriber tvert;
+
+    private LimelightTargetSubscribers(String limelightName) {
+      NetworkTable table = LimelightHelpers.getLimelightNTTable(limelightName);
+      tx = table.getDoubleTopic("tx").subscribe(0.0);
+      ty = table.getDoubleTopic("ty").subscribe(0.0);
+      ta = table.getDoubleTopic("ta").subscribe(0.0);
+      hb = table.getDoubleTopic("hb").subscribe(0.0);
+      tv = table.getDoubleTopic("tv").subscribe(0.0);
+      pipelineLatency = table.getDoubleTopic("tl").subscribe(0.0);
+      captureLatency = table.getDoubleTopic("cl").subscribe(0.0);
+      thor = table.getDoubleTopic("thor").subscribe(0.0);
+      tvert = table.getDoubleTopic("tvert").subscribe(0.0);
+    }
   }
 }
@@ -6,7 +6,9 @@ import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants;
+import frc.robot.util.AllocationCounter;
 import frc.robot.util.LoggedTunableNumber;
+import frc.robot.util.LoopTimer;
 import org.littletonrobotics.junction.Logger;
 
 public class Elevator extends SubsystemBase {
@@ -16,6 +18,10 @@ public class Elevator extends SubsystemBase {
 
   private final ElevatorIOInputsAutoLogged eInputs = new ElevatorIOInputsAutoLogged();
   private final AmpBarIOInputsAutoLogged aInputs = new AmpBarIOInputsAutoLogged();
+  private final AllocationCounter periodicAllocations = new AllocationCounter("Elevator");
+  private final LoopTimer periodicTimer = new LoopTimer("Elevator/Periodic");
+  private final LoopTimer updateInputsTimer = new LoopTimer("Elevator/UpdateInputs");
+  private final LoopTimer processInputsTimer = new LoopTimer("Elevator/ProcessInputs");
 
   private static final LoggedTunableNumber kP = new LoggedTunableNumber("Elevator/kP");
   private static final LoggedTunableNumber kI = new LoggedTunableNumber("Elevator/kI");
@@ -227,10 +233,14 @@ public class Elevator extends SubsystemBase {
 
   @Override
   public void periodic() {
+    periodicAllocations.start();
+    periodicTimer.start();
     Logger.recordOutput("Alliance", DriverStation.getAlliance().isPresent());
 
+    updateInputsTimer.start();
     elevator.updateInputs(eInputs);
     ampBar.updateInputs(aInputs);
+    updateInputsTimer.stop();
 
     extenderCurrent =
         extenderProfile.calculate(Constants.LOOP_PERIOD_SECS, extenderCurrent, extenderGoal);
@@ -241,8 +251,10 @@ public class Elevator extends SubsystemBase {
 
     setBarPosition(barCurrent.position, barCurrent.velocity);
 
+    processInputsTimer.start();
     Logger.processInputs("Elevator", eInputs);
     Logger.processInputs("Amp bar inputs", aInputs);
+    processInputsTimer.stop();
 
     Logger.recordOutput("amp bar error", getBarError());
     Logger.recordOutput("amp bar goal", barGoal.position);
@@ -256,5 +268,7 @@ public class Elevator extends SubsystemBase {
         || barkG.hasChanged(hashCode())) {
       ampBar.configurePID(barkP.get(), 0, 0);
     }
+    periodicTimer.stop();
+    periodicAllocations.stop();
   }
 }
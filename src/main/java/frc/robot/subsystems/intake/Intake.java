@@ -5,6 +5,8 @@
 package frc.robot.subsystems.intake;
 
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.util.AllocationCounter;
+import frc.robot.util.LoopTimer;
 import org.littletonrobotics.junction.Logger;
 
 public class Intake extends SubsystemBase {
@@ -14,6 +16,10 @@ public class Intake extends SubsystemBase {
   private boolean ledBool;
 
   private final IntakeRollerIOInputsAutoLogged rInputs = new IntakeRollerIOInputsAutoLogged();
+  private final AllocationCounter periodicAllocations = new AllocationCounter("Intake");
+  private final LoopTimer periodicTimer = new LoopTimer("Intake/Periodic");
+  private final LoopTimer updateInputsTimer = new LoopTimer("Intake/UpdateInputs");
+  private final LoopTimer processInputsTimer = new LoopTimer("Intake/ProcessInputs");
 
   public Intake(IntakeRollerIO roller) {
     this.roller = roller;
@@ -54,9 +60,17 @@ public class Intake extends SubsystemBase {
 
   @Override
   public void periodic() {
+    periodicAllocations.start();
+    periodicTimer.start();
     // This method will be called once per scheduler run
+    updateInputsTimer.start();
     roller.updateInputs(rInputs);
+    updateInputsTimer.stop();
 
+    processInputsTimer.start();
     Logger.processInputs("Intake", rInputs);
+    processInputsTimer.stop();
+    periodicTimer.stop();
+    periodicAllocations.stop();
   }
 }
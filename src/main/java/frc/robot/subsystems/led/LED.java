@@ -6,12 +6,19 @@ package frc.robot.subsystems.led;
 
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants.LED_STATE;
+import frc.robot.util.AllocationCounter;
+import frc.robot.util.LoopTimer;
 import org.littletonrobotics.junction.Logger;
 
 /** Add your docs here. */
 public class LED extends SubsystemBase {
   private final LED_IO led;
   private final LED_IOInputsAutoLogged lInputs = new LED_IOInputsAutoLogged();
+  private final AllocationCounter periodicAllocations = new AllocationCounter("LED");
+  private final LoopTimer periodicTimer = new LoopTimer("LED/Periodic");
+  private final LoopTimer updateInputsTimer = new LoopTimer("LED/UpdateInputs");
+  private final LoopTimer processInputsTimer = new LoopTimer("LED/ProcessInputs");
+  private final LoopTimer outputTimer = new LoopTimer("LED/SetState");
 
   public LED(LED_IO led) {
     this.led = led;
@@ -19,11 +26,21 @@ public class LED extends SubsystemBase {
 
   @Override
   public void periodic() {
+    periodicAllocations.start();
+    periodicTimer.start();
+    updateInputsTimer.start();
     led.updateInputs(lInputs);
+    updateInputsTimer.stop();
 
+    outputTimer.start();
     setState(lInputs.ledState);
+    outputTimer.stop();
 
+    processInputsTimer.start();
     Logger.processInputs("LED Inputs", lInputs);
+    processInputsTimer.stop();
+    periodicTimer.stop();
+    periodicAllocations.stop();
   }
 
   public void noBumpersPressed() {
@@ -5,16 +5,24 @@
 package frc.robot.subsystems.pivot;
 
 import edu.wpi.first.math.MathUtil;
-import edu.wpi.first.math.controller.ArmFeedforward;
-import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.math.filter.LinearFilter;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants;
 import frc.robot.Constants.SHOOT_STATE;
+import frc.robot.util.AllocationCounter;
+import frc.robot.util.LoopTimer;
 import org.littletonrobotics.junction.Logger;
 
 public class Pivot extends SubsystemBase {
+  // Goal changes smaller than this, like the aimbot's frame to frame jitter, aren't resent
+  private static final double GOAL_RESEND_DEG = 0.1;
+
   private final PivotIO pivot;
   private final PivotIOInputsAutoLogged pInputs = new PivotIOInputsAutoLogged();
+  private final AllocationCounter periodicAllocations = new AllocationCounter("Pivot");
+  private final LoopTimer periodicTimer = new LoopTimer("Pivot/Periodic");
+  private final LoopTimer updateInputsTimer = new LoopTimer("Pivot/UpdateInputs");
+  private final LoopTimer processInputsTimer = new LoopTimer("Pivot/ProcessInputs");
 
   private static double kP;
   private static double kG;
@@ -23,22 +31,17 @@ public class Pivot extends SubsystemBase {
   private static double maxVelocityDegPerSec;
   private static double maxAccelerationDegPerSecSquared;
 
-  private TrapezoidProfile pivotProfile;
-  private TrapezoidProfile.Constraints pivotConstraints;
-
-  private TrapezoidProfile.State pivotGoal = new TrapezoidProfile.State();
-  private TrapezoidProfile.State pivotCurrent = new TrapezoidProfile.State();
-
-  double currTarget;
-  double lastTarget;
-
   double goal;
+  // Goal last sent to the IO, NaN to send the next one regardless
+  private double sentGoal = Double.NaN;
+  private double sentGoalVelocity = 0.0;
+  private double lastGoal = Double.NaN;
+  private final LinearFilter goalVelocityFilter = LinearFilter.movingAverage(3);
+  private boolean tracking = false;
 
   boolean isAimbot;
   SHOOT_STATE shootState;
 
-  private ArmFeedforward pivotFFModel;
-
   /** Creates a new Pivot. */
   public Pivot(PivotIO pivot) {
     this.pivot = pivot;
@@ -70,20 +73,14 @@ public class Pivot extends SubsystemBase {
 
     shootState = SHOOT_STATE.AIMBOT;
 
-    maxVelocityDegPerSec = 150;
-    maxAccelerationDegPerSecSquared = 226;
-    // maxAccelerationDegPerSecSquared = 180;
-
-    pivotConstraints =
-        new TrapezoidProfile.Constraints(maxVelocityDegPerSec, maxAccelerationDegPerSecSquared);
-    pivotProfile = new TrapezoidProfile(pivotConstraints);
-
-    // setPivotGoal(90);
-    // setPivotCurrent(getPivotPositionDegs());
-    pivotCurrent = pivotProfile.calculate(0, pivotCurrent, pivotGoal);
+    maxVelocityDegPerSec = Constants.PivotConstants.MOTION_CRUISE_VELOCITY_DEG_PER_SEC;
+    maxAccelerationDegPerSecSquared =
+        Constants.PivotConstants.MOTION_ACCELERATION_DEG_PER_SEC_SQUARED;
 
     pivot.configurePID(kP, 0, 0);
-    pivotFFModel = new ArmFeedforward(0, kG, kV, 0);
+    // kV is in volts per radian per second
+    pivot.configureMotion(
+        kG, Math.toRadians(kV), maxVelocityDegPerSec, maxAccelerationDegPerSecSquared);
   }
 
   public void setBrakeMode(boolean bool) {
@@ -106,24 +103,25 @@ public class Pivot extends SubsystemBase {
     return pInputs.positionSetpointDegs - pInputs.positionDegs;
   }
 
-  public void setPositionDegs(double positionDegs, double velocityDegsPerSec) {
-    positionDegs = MathUtil.clamp(positionDegs, 33, 120);
-    pivot.setPositionSetpointDegs(
-        positionDegs,
-        pivotFFModel.calculate(Math.toRadians(positionDegs), Math.toRadians(velocityDegsPerSec)));
-  }
-
   public void pivotStop() {
     pivot.stop();
+    sentGoal = Double.NaN;
+  }
+
+  public double getPivotGoal() {
+    return goal;
   }
 
   public void setPivotGoal(double setpoint) {
     goal = setpoint;
-    pivotGoal = new TrapezoidProfile.State(setpoint, 0);
   }
 
+  /**
+   * Restarts the motion profile from where the pivot is, by sending the goal again on the next
+   * loop. The profile always starts from the measured state, so the position isn't needed.
+   */
   public void setPivotCurrent(double current) {
-    pivotCurrent = new TrapezoidProfile.State(current, 0);
+    sentGoal = Double.NaN;
   }
 
   public boolean isAimbot() {
@@ -142,18 +140,64 @@ public class Pivot extends SubsystemBase {
     this.isAimbot = isAimbot;
   }
 
+  /**
+   * Sends the goal to the IO. The profile runs in the IO, so only a changed goal goes out over CAN.
+   * Once the pivot is on target, goal changes within {@link
+   * Constants.PivotConstants#TRACKING_WINDOW_DEG} are followed directly as a tracking reference
+   * with the goal's rate fed forward, instead of re-planning a profile for each one. Larger jumps
+   * go back to the profile.
+   */
+  private void updateGoal() {
+    double clampedGoal =
+        MathUtil.clamp(
+            goal, Constants.PivotConstants.MIN_ANGLE_DEG, Constants.PivotConstants.MAX_ANGLE_DEG);
+    double goalVelocity =
+        goalVelocityFilter.calculate(
+            Double.isNaN(lastGoal) ? 0.0 : (clampedGoal - lastGoal) / Constants.LOOP_PERIOD_SECS);
+    lastGoal = clampedGoal;
+
+    boolean smallChange =
+        !Double.isNaN(sentGoal)
+            && Math.abs(clampedGoal - sentGoal) <= Constants.PivotConstants.TRACKING_WINDOW_DEG
+            && Math.abs(clampedGoal - pInputs.positionDegs)
+                <= Constants.PivotConstants.TRACKING_WINDOW_DEG;
+    if (smallChange) {
+      if (!tracking || clampedGoal != sentGoal || goalVelocity != sentGoalVelocity) {
+        pivot.setTrackingReference(clampedGoal, goalVelocity);
+        sentGoal = clampedGoal;
+        sentGoalVelocity = goalVelocity;
+        tracking = true;
+      }
+    } else if (tracking
+        || Double.isNaN(sentGoal)
+        || Math.abs(clampedGoal - sentGoal) > GOAL_RESEND_DEG) {
+      pivot.setGoalDegs(clampedGoal);
+      sentGoal = clampedGoal;
+      tracking = false;
+    }
+  }
+
   @Override
   public void periodic() {
+    periodicAllocations.start();
+    periodicTimer.start();
+    updateInputsTimer.start();
     pivot.updateInputs(pInputs);
+    updateInputsTimer.stop();
+    processInputsTimer.start();
+    Logger.processInputs("Pivot", pInputs);
+    processInputsTimer.stop();
 
-    pivotCurrent = pivotProfile.calculate(Constants.LOOP_PERIOD_SECS, pivotCurrent, pivotGoal);
-
-    setPositionDegs(pivotCurrent.position, pivotCurrent.velocity);
+    updateGoal();
 
-    Logger.processInputs("Pivot", pInputs);
     Logger.recordOutput("pivot error", getPivotError());
 
     Logger.recordOutput("pivot goal", goal);
+    Logger.recordOutput("Pivot/Tracking", tracking);
+    Logger.recordOutput("Pivot/TrackingErrorDeg", goal - pInputs.positionDegs);
+    Logger.recordOutput("Pivot/GoalVelocityDegPerSec", sentGoalVelocity);
     // This method will be called once per scheduler run
+    periodicTimer.stop();
+    periodicAllocations.stop();
   }
 }
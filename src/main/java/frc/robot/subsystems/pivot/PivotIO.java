@@ -19,11 +19,35 @@ public interface PivotIO {
 
   public default void setBrakeMode(boolean bool) {}
 
-  public default void setPositionSetpointDegs(double positionDegs, double ffVolts) {}
+  /**
+   * Moves the pivot to a goal angle with a motion profile run by the IO. Only needs to be called
+   * when the goal changes, the profile setpoint is reported as positionSetpointDegs.
+   */
+  public default void setGoalDegs(double positionDegs) {}
+
+  /**
+   * Follows a moving reference directly, without re-planning a profile. For small goal changes
+   * while the pivot is already on target, like an aimbot tracking a moving robot.
+   *
+   * @param positionDegs Reference angle
+   * @param velocityDegsPerSec Rate the reference is moving at, fed forward
+   */
+  public default void setTrackingReference(double positionDegs, double velocityDegsPerSec) {}
 
   public default void setVoltage(double volts) {}
 
   public default void stop() {}
 
   public default void configurePID(double kP, double kI, double kD) {}
+
+  /**
+   * Configures the motion profile and its feedforward.
+   *
+   * @param kG Volts to hold the pivot level against gravity, scaled by the cosine of the angle
+   * @param kV Volts per degree per second
+   * @param cruiseVelocityDegPerSec Profile velocity limit
+   * @param accelerationDegPerSecSquared Profile acceleration limit
+   */
+  public default void configureMotion(
+      double kG, double kV, double cruiseVelocityDegPerSec, double accelerationDegPerSecSquared) {}
 }
@@ -7,11 +7,15 @@ package frc.robot.subsystems.pivot;
 import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.math.util.Units;
 import edu.wpi.first.wpilibj.simulation.SingleJointedArmSim;
 import frc.robot.Constants;
 
-/** Add your docs here. */
+/**
+ * Simulated pivot. Runs the motion profile, tracking reference and gravity feedforward the TalonFX
+ * does on board.
+ */
 public class PivotIOSim implements PivotIO {
   private final DCMotor pivotGearbox = DCMotor.getFalcon500(2);
   private final SingleJointedArmSim sim =
@@ -32,13 +36,35 @@ public class PivotIOSim implements PivotIO {
   private double positionRads = 0.0;
   private double positionSetpointRads = 0.0;
 
+  private TrapezoidProfile profile =
+      new TrapezoidProfile(
+          new TrapezoidProfile.Constraints(
+              Constants.PivotConstants.MOTION_CRUISE_VELOCITY_DEG_PER_SEC,
+              Constants.PivotConstants.MOTION_ACCELERATION_DEG_PER_SEC_SQUARED));
+  private final TrapezoidProfile.State goal = new TrapezoidProfile.State();
+  private TrapezoidProfile.State setpoint = new TrapezoidProfile.State();
+  private boolean closedLoop = false;
+  private boolean profiling = false;
+  private double kG = 0.0;
+  private double kV = 0.0;
+
   @Override
   public void updateInputs(PivotIOInputs inputs) {
+    if (closedLoop) {
+      if (profiling) {
+        setpoint = profile.calculate(Constants.LOOP_PERIOD_SECS, setpoint, goal);
+      }
+      pid.setSetpoint(Math.toRadians(setpoint.position));
+      appliedVolts =
+          MathUtil.clamp(
+              kG * Math.cos(Math.toRadians(setpoint.position))
+                  + kV * setpoint.velocity
+                  + pid.calculate(sim.getAngleRads()),
+              -12.0,
+              12.0);
+    }
     positionSetpointRads = pid.getSetpoint();
 
-    appliedVolts +=
-        MathUtil.clamp(pid.calculate(sim.getAngleRads(), positionSetpointRads), -12.0, 12);
-
     sim.setInputVoltage(appliedVolts);
 
     positionRads = sim.getAngleRads();
@@ -55,13 +81,29 @@ public class PivotIOSim implements PivotIO {
   }
 
   @Override
-  public void setPositionSetpointDegs(double positionDegs, double ffVolts) {
-    appliedVolts = ffVolts;
-    pid.setSetpoint(Math.toRadians(positionDegs));
+  public void setGoalDegs(double positionDegs) {
+    if (!closedLoop) {
+      setpoint =
+          new TrapezoidProfile.State(
+              Math.toDegrees(sim.getAngleRads()), Math.toDegrees(sim.getVelocityRadPerSec()));
+    }
+    closedLoop = true;
+    profiling = true;
+    goal.position = positionDegs;
+  }
+
+  @Override
+  public void setTrackingReference(double positionDegs, double velocityDegsPerSec) {
+    closedLoop = true;
+    profiling = false;
+    setpoint.position = positionDegs;
+    setpoint.velocity = velocityDegsPerSec;
   }
 
   @Override
   public void stop() {
+    closedLoop = false;
+    profiling = false;
     appliedVolts = 0;
     pid.setSetpoint(sim.getAngleRads());
   }
@@ -70,4 +112,15 @@ public class PivotIOSim implements PivotIO {
   public void configurePID(double kP, double kI, double kD) {
     pid.setPID(kP, kI, kD);
   }
+
+  @Override
+  public void configureMotion(
+      double kG, double kV, double cruiseVelocityDegPerSec, double accelerationDegPerSecSquared) {
+    this.kG = kG;
+    this.kV = kV;
+    profile =
+        new TrapezoidProfile(
+            new TrapezoidProfile.Constraints(
+                cruiseVelocityDegPerSec, accelerationDegPerSecSquared));
+  }
 }
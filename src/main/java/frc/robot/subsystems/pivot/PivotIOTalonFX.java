@@ -3,31 +3,46 @@ package frc.robot.subsystems.pivot;
 import com.ctre.phoenix6.BaseStatusSignal;
 import com.ctre.phoenix6.StatusCode;
 import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.MotionMagicConfigs;
+import com.ctre.phoenix6.configs.MotorOutputConfigs;
 import com.ctre.phoenix6.configs.Slot0Configs;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.controls.Follower;
+import com.ctre.phoenix6.controls.MotionMagicVoltage;
 import com.ctre.phoenix6.controls.PositionVoltage;
 import com.ctre.phoenix6.hardware.Pigeon2;
 import com.ctre.phoenix6.hardware.TalonFX;
 import com.ctre.phoenix6.signals.FeedbackSensorSourceValue;
+import com.ctre.phoenix6.signals.GravityTypeValue;
 import com.ctre.phoenix6.signals.InvertedValue;
 import com.ctre.phoenix6.signals.NeutralModeValue;
 import frc.robot.Constants;
 import frc.robot.util.Conversions;
 import org.littletonrobotics.junction.Logger;
 
+/**
+ * Pivot on two TalonFXs. The leader runs Motion Magic to the goal with the gravity feedforward
+ * computed on the controller, so a goal is only sent when it changes. Tracking references use a
+ * plain position request on the same gains, with the reference velocity fed forward through kV.
+ * Positions on the leader are in mechanism rotations from level, through the sensor to mechanism
+ * ratio.
+ */
 public class PivotIOTalonFX implements PivotIO {
   private final TalonFX leader;
   private final TalonFX follower;
 
   private final Pigeon2 pigeon;
 
-  private double positionSetpointDegs;
+  private final MotionMagicVoltage motionRequest = new MotionMagicVoltage(0).withEnableFOC(false);
+  private final PositionVoltage trackingRequest =
+      new PositionVoltage(0, 0, false, 0, 0, false, false, false);
+  private final Slot0Configs slot0 = new Slot0Configs();
 
   private double startAngleDegs;
 
-  private final StatusSignal<Double> leaderPositionDegs;
-  private final StatusSignal<Double> velocityDegsPerSec;
+  private final StatusSignal<Double> leaderPositionRotations;
+  private final StatusSignal<Double> velocityRotationsPerSec;
+  private final StatusSignal<Double> closedLoopReference;
   private final StatusSignal<Double> appliedVolts;
   private final StatusSignal<Double> currentAmps;
   private final StatusSignal<Double> pitch;
@@ -39,6 +54,15 @@ public class PivotIOTalonFX implements PivotIO {
     config.MotorOutput.NeutralMode = NeutralModeValue.Coast;
     config.MotorOutput.Inverted = InvertedValue.Clockwise_Positive;
     config.Feedback.FeedbackSensorSource = FeedbackSensorSourceValue.RotorSensor;
+    config.Feedback.SensorToMechanismRatio = Constants.PivotConstants.REDUCTION;
+    config.SoftwareLimitSwitch.ForwardSoftLimitEnable = true;
+    config.SoftwareLimitSwitch.ForwardSoftLimitThreshold =
+        Constants.PivotConstants.MAX_ANGLE_DEG / 360.0;
+    config.SoftwareLimitSwitch.ReverseSoftLimitEnable = true;
+    config.SoftwareLimitSwitch.ReverseSoftLimitThreshold =
+        Constants.PivotConstants.MIN_ANGLE_DEG / 360.0;
+    slot0.GravityType = GravityTypeValue.Arm_Cosine;
+    config.Slot0 = slot0;
     leader = new TalonFX(leadID, Constants.CANBUS);
     follower = new TalonFX(followID, Constants.CANBUS);
     pigeon = new Pigeon2(gyroID, Constants.CANBUS);
@@ -52,21 +76,19 @@ public class PivotIOTalonFX implements PivotIO {
 
     startAngleDegs = pitch.getValueAsDouble();
 
-    leader.setPosition(
-        Conversions.degreesToFalcon(startAngleDegs, Constants.PivotConstants.REDUCTION));
+    leader.setPosition((startAngleDegs + 59) / 360.0);
 
     follower.setPosition(
         Conversions.degreesToFalcon(startAngleDegs, Constants.PivotConstants.REDUCTION));
 
-    leaderPositionDegs = leader.getPosition();
-    velocityDegsPerSec = leader.getVelocity();
+    leaderPositionRotations = leader.getPosition();
+    velocityRotationsPerSec = leader.getVelocity();
+    closedLoopReference = leader.getClosedLoopReference();
     appliedVolts = leader.getMotorVoltage();
     currentAmps = leader.getStatorCurrent();
 
     // leader.get
 
-    positionSetpointDegs = Constants.PivotConstants.STOW_SETPOINT_DEG;
-
     Logger.recordOutput("start angle", startAngleDegs);
 
     pigeon.optimizeBusUtilization();
@@ -74,7 +96,8 @@ public class PivotIOTalonFX implements PivotIO {
     follower.optimizeBusUtilization();
 
     BaseStatusSignal.setUpdateFrequencyForAll(
-        100, leaderPositionDegs, velocityDegsPerSec, appliedVolts, currentAmps, pitch);
+        100, leaderPositionRotations, velocityRotationsPerSec, appliedVolts, currentAmps, pitch);
+    closedLoopReference.setUpdateFrequency(50);
 
     // setBrakeMode(false);
   }
@@ -82,67 +105,73 @@ public class PivotIOTalonFX implements PivotIO {
   @Override
   public void updateInputs(PivotIOInputs inputs) {
     BaseStatusSignal.refreshAll(
-        leaderPositionDegs, velocityDegsPerSec, appliedVolts, currentAmps, pitch);
+        leaderPositionRotations,
+        velocityRotationsPerSec,
+        closedLoopReference,
+        appliedVolts,
+        currentAmps,
+        pitch);
     inputs.gyroConnected = BaseStatusSignal.refreshAll(pitch).equals(StatusCode.OK);
     inputs.pitch = pitch.getValueAsDouble() + 59;
-    inputs.positionDegs =
-        Conversions.falconToDegrees(
-                (leaderPositionDegs.getValueAsDouble()), Constants.PivotConstants.REDUCTION)
-            + 59;
-
-    // inputs.velocityDegsPerSec =
-    //     Conversions.falconToDegrees(
-    //         (followPositionDegs.getValueAsDouble()), Constants.PivotConstants.REDUCTION);
-    inputs.velocityDegsPerSec =
-        Conversions.falconToDegrees(
-            velocityDegsPerSec.getValueAsDouble() * 2048, Constants.PivotConstants.REDUCTION);
+    inputs.positionDegs = leaderPositionRotations.getValueAsDouble() * 360.0;
+    inputs.velocityDegsPerSec = velocityRotationsPerSec.getValueAsDouble() * 360.0;
     inputs.appliedVolts = appliedVolts.getValueAsDouble();
     inputs.currentAmps = currentAmps.getValueAsDouble();
-    inputs.positionSetpointDegs = positionSetpointDegs;
+    inputs.positionSetpointDegs = closedLoopReference.getValueAsDouble() * 360.0;
   }
 
   @Override
   public void setBrakeMode(boolean bool) {
-    TalonFXConfiguration config = new TalonFXConfiguration();
-    if (bool) {
-      config.MotorOutput.NeutralMode = NeutralModeValue.Brake;
-    } else {
-      config.MotorOutput.NeutralMode = NeutralModeValue.Coast;
-    }
+    NeutralModeValue neutralMode = bool ? NeutralModeValue.Brake : NeutralModeValue.Coast;
+    // Only the motor output, applying a whole configuration would reset the gains and limits
+    leader
+        .getConfigurator()
+        .apply(
+            new MotorOutputConfigs()
+                .withNeutralMode(neutralMode)
+                .withInverted(InvertedValue.Clockwise_Positive));
+    follower.getConfigurator().apply(new MotorOutputConfigs().withNeutralMode(neutralMode));
+  }
 
-    leader.getConfigurator().apply(config);
-    follower.getConfigurator().apply(config);
+  @Override
+  public void setGoalDegs(double positionDegs) {
+    leader.setControl(motionRequest.withPosition(positionDegs / 360.0));
   }
 
   @Override
-  public void setPositionSetpointDegs(double positionDegs, double ffVolts) {
-    this.positionSetpointDegs = positionDegs;
+  public void setTrackingReference(double positionDegs, double velocityDegsPerSec) {
     leader.setControl(
-        new PositionVoltage(
-            Conversions.degreesToFalcon(positionDegs - 59, Constants.PivotConstants.REDUCTION),
-            0,
-            false,
-            ffVolts,
-            0,
-            false,
-            false,
-            false));
+        trackingRequest
+            .withPosition(positionDegs / 360.0)
+            .withVelocity(velocityDegsPerSec / 360.0));
   }
 
   @Override
   public void stop() {
-    this.positionSetpointDegs = leaderPositionDegs.getValueAsDouble();
     leader.stopMotor();
   }
 
   @Override
   public void configurePID(double kP, double kI, double kD) {
-    Slot0Configs config = new Slot0Configs();
+    // Gains are given per motor rotation, the controller works in mechanism rotations
+    slot0.kP = kP * Constants.PivotConstants.REDUCTION;
+    slot0.kI = kI * Constants.PivotConstants.REDUCTION;
+    slot0.kD = kD * Constants.PivotConstants.REDUCTION;
 
-    config.kP = kP;
-    config.kI = kI;
-    config.kD = kD;
+    leader.getConfigurator().apply(slot0);
+  }
 
-    leader.getConfigurator().apply(config);
+  @Override
+  public void configureMotion(
+      double kG, double kV, double cruiseVelocityDegPerSec, double accelerationDegPerSecSquared) {
+    slot0.kG = kG;
+    slot0.kV = kV * 360.0;
+    leader.getConfigurator().apply(slot0);
+    leader
+        .getConfigurator()
+        .apply(
+            new MotionMagicConfigs()
+                .withMotionMagicCruiseVelocity(cruiseVelocityDegPerSec / 360.0)
+                .withMotionMagicAcceleration(accelerationDegPerSecSquared / 360.0));
   }
 }
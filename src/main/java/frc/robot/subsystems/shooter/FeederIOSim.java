@@ -27,6 +27,7 @@ public class FeederIOSim implements FeederIO {
 
     inputs.velocitySetpointRPM = velocitySetpointRPS * 60.;
     inputs.feederVelocityRPM = sim.getAngularVelocityRPM();
+    inputs.feederRotations = sim.getAngularPositionRotations();
     inputs.appliedVolts = appliedVolts;
     inputs.currentAmps = sim.getCurrentDrawAmps();
   }
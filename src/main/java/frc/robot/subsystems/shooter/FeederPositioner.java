@@ -0,0 +1,119 @@
+package frc.robot.subsystems.shooter;
+
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import frc.robot.Constants;
+import frc.robot.Constants.ShooterConstants;
+
+/**
+ * Parks the note at the same depth in the feeder every time. Updated once a loop by {@link
+ * Shooter}.
+ *
+ * <p>The reference is the feeder position, in rotations, where the leading edge of the note crossed
+ * the distance sensor on the way in. The sensor is only read once a loop, which at intake speed is
+ * a large fraction of a rotation, so the crossing is interpolated between the two readings either
+ * side of the threshold using how fast the reading was rising. Staging then profiles the feeder to
+ * a fixed offset from that edge, closing the remaining position error on top of the profile
+ * velocity. Without an edge, like a note loaded by hand, the offset is taken from where the feeder
+ * is when staging starts.
+ */
+public class FeederPositioner {
+  private final TrapezoidProfile profile =
+      new TrapezoidProfile(
+          new TrapezoidProfile.Constraints(
+              ShooterConstants.FEEDER_STAGE_MAX_RPS,
+              ShooterConstants.FEEDER_STAGE_MAX_ACCELERATION_RPS_PER_SEC));
+  private TrapezoidProfile.State setpoint = new TrapezoidProfile.State();
+  private final TrapezoidProfile.State goal = new TrapezoidProfile.State();
+
+  private double lastDistance = Double.NaN;
+  private double lastRotations = Double.NaN;
+  private double edgeRotations = Double.NaN;
+  private double positionErrorRotations = 0.0;
+  private double velocityCommandRPS = 0.0;
+  private boolean active = false;
+  private boolean staged = false;
+
+  /**
+   * Adds this loop's readings and advances the profile if staging.
+   *
+   * @param distance Raw distance sensor reading
+   * @param rotations Feeder position
+   * @param velocityRPS Feeder velocity
+   */
+  public void update(double distance, double rotations, double velocityRPS) {
+    if (!Double.isNaN(lastDistance)
+        && rotations > lastRotations
+        && lastDistance <= ShooterConstants.FEEDER_DIST
+        && distance > ShooterConstants.FEEDER_DIST
+        && Double.isNaN(edgeRotations)) {
+      double fraction = (ShooterConstants.FEEDER_DIST - lastDistance) / (distance - lastDistance);
+      edgeRotations = lastRotations + fraction * (rotations - lastRotations);
+    }
+    lastDistance = distance;
+    lastRotations = rotations;
+
+    positionErrorRotations = goal.position - rotations;
+    if (!active) {
+      return;
+    }
+    setpoint = profile.calculate(Constants.LOOP_PERIOD_SECS, setpoint, goal);
+    velocityCommandRPS =
+        setpoint.velocity + ShooterConstants.FEEDER_STAGE_KP * (setpoint.position - rotations);
+    if (setpoint.position == goal.position
+        && Math.abs(positionErrorRotations) <= ShooterConstants.FEEDER_STAGE_TOLERANCE_ROTATIONS) {
+      active = false;
+      staged = true;
+      velocityCommandRPS = 0.0;
+    }
+  }
+
+  /**
+   * Starts profiling the note to its staged depth.
+   *
+   * @param rotations Current feeder position
+   * @param velocityRPS Current feeder velocity
+   */
+  public void start(double rotations, double velocityRPS) {
+    double reference = Double.isNaN(edgeRotations) ? rotations : edgeRotations;
+    goal.position = reference + ShooterConstants.NOTE_STAGE_OFFSET_ROTATIONS;
+    setpoint = new TrapezoidProfile.State(rotations, velocityRPS);
+    active = true;
+    staged = false;
+  }
+
+  /** Stops staging, leaving the feeder to whatever else commands it. */
+  public void cancel() {
+    active = false;
+    staged = false;
+  }
+
+  /** Forgets the sensor edge, once the note has left the feeder. */
+  public void clearEdge() {
+    edgeRotations = Double.NaN;
+  }
+
+  /** Returns whether the note is being profiled to its staged depth. */
+  public boolean isActive() {
+    return active;
+  }
+
+  /** Returns whether the last staging finished with the note at its depth. */
+  public boolean isStaged() {
+    return staged;
+  }
+
+  /** Returns the feeder velocity to command this loop while staging. */
+  public double getVelocityCommandRPS() {
+    return velocityCommandRPS;
+  }
+
+  /** Returns the distance from the feeder to the staged depth in rotations. */
+  public double getPositionErrorRotations() {
+    return positionErrorRotations;
+  }
+
+  /** Returns the feeder position where the note crossed the sensor, NaN if it hasn't. */
+  public double getEdgeRotations() {
+    return edgeRotations;
+  }
+}
@@ -25,6 +25,12 @@ public interface FlywheelIO {
   public default void setVelocityRPS(
       double leftVelocity, double rightVelocity, double leftFFVolts, double rightFFVolts) {}
 
+  /**
+   * Switches the velocity loop between the normal gains and the high gain recovery gains, which
+   * drive the wheels at full output until they're back near the setpoint.
+   */
+  public default void setRecoveryEnabled(boolean enabled) {}
+
   public default void stop() {}
 
   public default void configurePID(double kP, double kI, double kD) {}
@@ -19,6 +19,7 @@ public class FlywheelIOSim implements FlywheelIO {
   private PIDController rightPID = new PIDController(0.0, 0.0, 0.0);
 
   private boolean closedLoop = false;
+  private boolean recovery = false;
 
   private double leftFFVolts = 0.0;
   private double leftAppliedVolts = 0.0;
@@ -32,8 +33,10 @@ public class FlywheelIOSim implements FlywheelIO {
   public void updateInputs(FlywheelIOInputs inputs) {
     if (closedLoop) {
       leftAppliedVolts =
-          MathUtil.clamp(
-              leftPID.calculate(left.getAngularVelocityRPM() / 60.) + leftFFVolts, -12.0, 12.0);
+          recovery && left.getAngularVelocityRPM() < leftVelocitySetpointRPM
+              ? 12.0
+              : MathUtil.clamp(
+                  leftPID.calculate(left.getAngularVelocityRPM() / 60.) + leftFFVolts, -12.0, 12.0);
       left.setInputVoltage(leftAppliedVolts);
     }
 
@@ -46,8 +49,12 @@ public class FlywheelIOSim implements FlywheelIO {
 
     if (closedLoop) {
       rightAppliedVolts =
-          MathUtil.clamp(
-              rightPID.calculate(right.getAngularVelocityRPM() / 60.) + rightFFVolts, -12.0, 12.0);
+          recovery && right.getAngularVelocityRPM() < rightVelocitySetpointRPM
+              ? 12.0
+              : MathUtil.clamp(
+                  rightPID.calculate(right.getAngularVelocityRPM() / 60.) + rightFFVolts,
+                  -12.0,
+                  12.0);
       right.setInputVoltage(rightAppliedVolts);
     }
 
@@ -84,6 +91,11 @@ public class FlywheelIOSim implements FlywheelIO {
     this.rightFFVolts = rightFFVolts;
   }
 
+  @Override
+  public void setRecoveryEnabled(boolean enabled) {
+    recovery = enabled;
+  }
+
   @Override
   public void stop() {
     leftVelocitySetpointRPM = 0;
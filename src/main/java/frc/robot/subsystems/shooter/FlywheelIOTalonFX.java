@@ -27,6 +27,13 @@ public class FlywheelIOTalonFX implements FlywheelIO {
   private final StatusSignal<Double> rightRotations;
   private double rightSetpointRPM = 0.0;
 
+  private final VelocityVoltage leftRequest =
+      new VelocityVoltage(0, 0, false, 0, 0, false, false, false);
+  private final VelocityVoltage rightRequest =
+      new VelocityVoltage(0, 0, false, 0, 0, false, false, false);
+  private boolean closedLoop = false;
+  private int slot = 0;
+
   public FlywheelIOTalonFX(int leftID, int rightID) {
     TalonFXConfiguration leftConfig = new TalonFXConfiguration();
     leftConfig.CurrentLimits.StatorCurrentLimit = Constants.ShooterConstants.FLYWHEEL_CURRENT_LIMIT;
@@ -46,6 +53,10 @@ public class FlywheelIOTalonFX implements FlywheelIO {
     left = new TalonFX(leftID, Constants.CANBUS);
     right = new TalonFX(rightID, Constants.CANBUS);
 
+    // Recovery gains, only proportional so the wheels saturate until they're close
+    leftConfig.Slot1.kP = Constants.ShooterConstants.FLYWHEEL_RECOVERY_KP;
+    rightConfig.Slot1.kP = Constants.ShooterConstants.FLYWHEEL_RECOVERY_KP;
+
     left.getConfigurator().apply(leftConfig);
     right.getConfigurator().apply(rightConfig);
 
@@ -108,17 +119,33 @@ public class FlywheelIOTalonFX implements FlywheelIO {
       double leftVelocityRPS, double rightVelocityRPS, double leftFFVolts, double rightFFVolts) {
     this.leftSetpointRPM = leftVelocityRPS * 60.;
     this.rightSetpointRPM = rightVelocityRPS * 60.;
+    closedLoop = true;
 
     left.setControl(
-        new VelocityVoltage(leftVelocityRPS, 0, false, leftFFVolts, 0, false, false, false));
+        leftRequest.withVelocity(leftVelocityRPS).withFeedForward(leftFFVolts).withSlot(slot));
     right.setControl(
-        new VelocityVoltage(rightVelocityRPS, 0, false, rightFFVolts, 0, false, false, false));
+        rightRequest.withVelocity(rightVelocityRPS).withFeedForward(rightFFVolts).withSlot(slot));
+  }
+
+  @Override
+  public void setRecoveryEnabled(boolean enabled) {
+    int newSlot = enabled ? 1 : 0;
+    if (newSlot == slot) {
+      return;
+    }
+    slot = newSlot;
+    // Resend the last setpoints so the new gains apply right away
+    if (closedLoop) {
+      left.setControl(leftRequest.withSlot(slot));
+      right.setControl(rightRequest.withSlot(slot));
+    }
   }
 
   @Override
   public void stop() {
     leftSetpointRPM = 0;
     rightSetpointRPM = 0;
+    closedLoop = false;
 
     left.stopMotor();
     right.stopMotor();
@@ -0,0 +1,130 @@
+package frc.robot.subsystems.shooter;
+
+import edu.wpi.first.math.filter.LinearFilter;
+import frc.robot.Constants;
+import frc.robot.Constants.ShooterConstants;
+
+/**
+ * Estimates how soon one flywheel will be at its setpoint and how steady it is once there, from the
+ * measured velocity, applied voltage and stator current. Updated once a loop by {@link Shooter}.
+ *
+ * <p>While the motor is saturated, at the supply voltage or the stator current limit, the torque is
+ * roughly constant and the wheel closes the error at its measured acceleration. Out of saturation
+ * the velocity loop closes the remaining error exponentially, with a time constant of the error
+ * over its rate of change. The spread is the standard deviation of the velocity error about a line
+ * fit through the last {@link #WINDOW_LOOPS} loops, the variation in exit speed a note would see.
+ * Removing the trend keeps a steady spin-up from counting as noise, so a shot can be started while
+ * the wheels are still closing in.
+ */
+public class FlywheelReadiness {
+  private static final int WINDOW_LOOPS = 10;
+  private static final double SATURATION_VOLTS = 11.0;
+  private static final double SATURATION_CURRENT_AMPS =
+      0.95 * ShooterConstants.FLYWHEEL_CURRENT_LIMIT;
+  // Closing slower than this is treated as not closing at all
+  private static final double MIN_CLOSING_RPM_PER_SEC = 50.0;
+
+  private final LinearFilter accelerationFilter = LinearFilter.movingAverage(3);
+  private final double[] errorWindow = new double[WINDOW_LOOPS];
+  private int windowIndex = 0;
+  private int windowCount = 0;
+
+  private double lastVelocityRpm = Double.NaN;
+  private double errorRpm = 0.0;
+  private double accelerationRpmPerSec = 0.0;
+  private double timeToSetpointSecs = Double.POSITIVE_INFINITY;
+  private double spreadRpm = Double.POSITIVE_INFINITY;
+
+  /**
+   * Adds this loop's measurements.
+   *
+   * @param velocityRpm Measured velocity
+   * @param setpointRpm Velocity setpoint
+   * @param appliedVolts Voltage applied to the motor
+   * @param currentAmps Stator current
+   */
+  public void update(
+      double velocityRpm, double setpointRpm, double appliedVolts, double currentAmps) {
+    errorRpm = setpointRpm - velocityRpm;
+    accelerationRpmPerSec =
+        accelerationFilter.calculate(
+            Double.isNaN(lastVelocityRpm)
+                ? 0.0
+                : (velocityRpm - lastVelocityRpm) / Constants.LOOP_PERIOD_SECS);
+    lastVelocityRpm = velocityRpm;
+
+    errorWindow[windowIndex] = errorRpm;
+    windowIndex = (windowIndex + 1) % WINDOW_LOOPS;
+    windowCount = Math.min(windowCount + 1, WINDOW_LOOPS);
+    spreadRpm = calculateSpreadRpm();
+
+    double remainingRpm = Math.abs(errorRpm) - ShooterConstants.FLYWHEEL_THRESHOLD;
+    double closingRpmPerSec = Math.signum(errorRpm) * accelerationRpmPerSec;
+    if (remainingRpm <= 0.0) {
+      timeToSetpointSecs = 0.0;
+    } else if (closingRpmPerSec < MIN_CLOSING_RPM_PER_SEC) {
+      timeToSetpointSecs = Double.POSITIVE_INFINITY;
+    } else if (Math.abs(appliedVolts) >= SATURATION_VOLTS
+        || Math.abs(currentAmps) >= SATURATION_CURRENT_AMPS) {
+      timeToSetpointSecs = remainingRpm / closingRpmPerSec;
+    } else {
+      double timeConstantSecs = Math.abs(errorRpm) / closingRpmPerSec;
+      timeToSetpointSecs =
+          timeConstantSecs * Math.log(Math.abs(errorRpm) / ShooterConstants.FLYWHEEL_THRESHOLD);
+    }
+  }
+
+  /** Returns the velocity error of the last update in RPM. */
+  public double getErrorRpm() {
+    return errorRpm;
+  }
+
+  /** Returns the filtered acceleration in RPM per sec. */
+  public double getAccelerationRpmPerSec() {
+    return accelerationRpmPerSec;
+  }
+
+  /**
+   * Returns the estimated time until the error is within the threshold, infinite if it isn't
+   * closing.
+   */
+  public double getTimeToSetpointSecs() {
+    return timeToSetpointSecs;
+  }
+
+  /** Returns the standard deviation of the velocity error about its recent trend in RPM. */
+  public double getSpreadRpm() {
+    return spreadRpm;
+  }
+
+  /** Least squares line through the window, oldest sample first, and the RMS residual about it. */
+  private double calculateSpreadRpm() {
+    int n = windowCount;
+    if (n < 3) {
+      return Double.POSITIVE_INFINITY;
+    }
+    int oldest = (windowIndex - n + WINDOW_LOOPS) % WINDOW_LOOPS;
+    double meanX = (n - 1) / 2.0;
+    double meanY = 0.0;
+    for (int k = 0; k < n; k++) {
+      meanY += errorWindow[(oldest + k) % WINDOW_LOOPS];
+    }
+    meanY /= n;
+
+    double sxx = 0.0;
+    double sxy = 0.0;
+    for (int k = 0; k < n; k++) {
+      double dx = k - meanX;
+      sxx += dx * dx;
+      sxy += dx * (errorWindow[(oldest + k) % WINDOW_LOOPS] - meanY);
+    }
+    double slope = sxy / sxx;
+
+    double sumSquares = 0.0;
+    for (int k = 0; k < n; k++) {
+      double residual = errorWindow[(oldest + k) % WINDOW_LOOPS] - meanY - slope * (k - meanX);
+      sumSquares += residual * residual;
+    }
+    return Math.sqrt(sumSquares / n);
+  }
+}
@@ -0,0 +1,159 @@
+package frc.robot.subsystems.shooter;
+
+import frc.robot.Constants.IntakeConstants;
+import frc.robot.Constants.NoteState;
+import frc.robot.Constants.ShooterConstants;
+
+/**
+ * Tracks where the note is from the feeder distance sensor, feeder current and intake roller
+ * readings. Updated once a loop by {@link Shooter} after its inputs are read, so every command sees
+ * the same answer for the whole loop and reading it is free.
+ *
+ * <p>Every signal counts as soon as it comes on, so nothing waits on a note that has arrived, but
+ * has to drop out for a moment before the note counts as gone, so a note sliding past the sensor
+ * doesn't flicker. The sensor wins over current, and the intake stalling on a note only counts
+ * while neither sees it in the feeder. The raw sensor reading is also available, for when the
+ * moment the note leaves matters more than a steady answer.
+ */
+public class NoteTracker {
+  /** A signal that turns on immediately but has to stay off for a while before it turns off. */
+  private static class DebouncedSignal {
+    private final double fallSecs;
+    private boolean raw = false;
+    private double rawChangedTimestamp = 0.0;
+    private boolean value = false;
+
+    DebouncedSignal(double fallSecs) {
+      this.fallSecs = fallSecs;
+    }
+
+    void update(boolean raw, double timestamp) {
+      if (raw != this.raw) {
+        this.raw = raw;
+        rawChangedTimestamp = timestamp;
+      }
+      if (raw != value && (raw || timestamp - rawChangedTimestamp >= fallSecs)) {
+        value = raw;
+      }
+    }
+  }
+
+  private final DebouncedSignal sensor =
+      new DebouncedSignal(ShooterConstants.NOTE_FALL_DEBOUNCE_SECS);
+  private final DebouncedSignal current =
+      new DebouncedSignal(ShooterConstants.NOTE_FALL_DEBOUNCE_SECS);
+  private final DebouncedSignal intakeStall =
+      new DebouncedSignal(ShooterConstants.NOTE_FALL_DEBOUNCE_SECS);
+
+  private NoteState state = NoteState.Init;
+  private double stateTimestamp = 0.0;
+  private double contactTimestamp = Double.NaN;
+  private double acquiredTimestamp = Double.NaN;
+  private double lostTimestamp = Double.NaN;
+
+  /**
+   * Adds this loop's readings.
+   *
+   * @param distance Raw distance sensor reading
+   * @param feederAmps Feeder stator current
+   * @param intakeVolts Voltage applied to the intake rollers
+   * @param intakeAmps Intake roller current
+   * @param intakeRpm Intake roller velocity
+   * @param timestamp Current time in seconds
+   */
+  public void update(
+      double distance,
+      double feederAmps,
+      double intakeVolts,
+      double intakeAmps,
+      double intakeRpm,
+      double timestamp) {
+    sensor.update(
+        distance > ShooterConstants.FEEDER_DIST && distance < ShooterConstants.FEEDER_DIST_MAX,
+        timestamp);
+    current.update(feederAmps > ShooterConstants.NOTE_FEEDER_CURRENT_AMPS, timestamp);
+    intakeStall.update(
+        intakeVolts < IntakeConstants.STALL_MAX_VOLTS
+            && intakeAmps > IntakeConstants.STALL_CURRENT_AMPS
+            && intakeRpm < IntakeConstants.STALL_MAX_RPM,
+        timestamp);
+
+    NoteState next;
+    if (sensor.value) {
+      next = NoteState.SENSOR;
+    } else if (current.value) {
+      next = NoteState.CURRENT;
+    } else if (intakeStall.value) {
+      next = NoteState.INTAKE;
+    } else {
+      next = NoteState.NO_NOTE;
+    }
+    if (next == state) {
+      return;
+    }
+
+    boolean had = hasNote();
+    boolean touching = state != NoteState.NO_NOTE && state != NoteState.Init;
+    state = next;
+    stateTimestamp = timestamp;
+    // Stamp transitions with when the signal actually changed, not when the debounce let it through
+    if (!touching && state != NoteState.NO_NOTE) {
+      contactTimestamp = getRiseTimestamp(state);
+    }
+    if (!had && hasNote()) {
+      acquiredTimestamp = getRiseTimestamp(state);
+    } else if (had && !hasNote()) {
+      lostTimestamp = Math.max(sensor.rawChangedTimestamp, current.rawChangedTimestamp);
+    }
+  }
+
+  /** Returns when the signal behind a state last came on. */
+  private double getRiseTimestamp(NoteState state) {
+    switch (state) {
+      case SENSOR:
+        return sensor.rawChangedTimestamp;
+      case CURRENT:
+        return current.rawChangedTimestamp;
+      default:
+        return intakeStall.rawChangedTimestamp;
+    }
+  }
+
+  /** Returns where the note is as of this loop. */
+  public NoteState getState() {
+    return state;
+  }
+
+  /** Returns whether the distance sensor sees the note this loop, without the debounce. */
+  public boolean sensorSeesNote() {
+    return sensor.raw;
+  }
+
+  /** Returns whether the note is in the feeder, seen by either the sensor or the current. */
+  public boolean hasNote() {
+    return state == NoteState.SENSOR || state == NoteState.CURRENT;
+  }
+
+  /** Returns when the state last changed, in seconds. */
+  public double getStateTimestamp() {
+    return stateTimestamp;
+  }
+
+  /**
+   * Returns when a note was first felt by the intake or feeder after there being none, in seconds,
+   * NaN if one never has.
+   */
+  public double getContactTimestamp() {
+    return contactTimestamp;
+  }
+
+  /** Returns when the note last arrived in the feeder in seconds, NaN if it never has. */
+  public double getAcquiredTimestamp() {
+    return acquiredTimestamp;
+  }
+
+  /** Returns when the note last left the feeder in seconds, NaN if it never has. */
+  public double getLostTimestamp() {
+    return lostTimestamp;
+  }
+}
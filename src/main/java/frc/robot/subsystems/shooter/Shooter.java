@@ -7,13 +7,20 @@ package frc.robot.subsystems.shooter;
 import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.robot.Constants;
 import frc.robot.Constants.NoteState;
+import frc.robot.subsystems.intake.Intake;
+import frc.robot.util.AllocationCounter;
 import frc.robot.util.LoggedTunableNumber;
+import frc.robot.util.LoopTimer;
 import org.littletonrobotics.junction.Logger;
 
 public class Shooter extends SubsystemBase {
+  // How long after a note leaves the feeder the flywheels are expected to sag, if they do
+  private static final double FEED_SAG_WINDOW_SECS = 0.1;
+
   /** Creates a new Shooter. */
   private final FlywheelIO flywheels;
 
@@ -22,11 +29,34 @@ public class Shooter extends SubsystemBase {
   private final LeafBlowerIO leafBlower;
   private final FeederIO feeder;
   private DistanceSensorIO dist;
-  private NoteState lastNoteState;
+  private final Intake intake;
+  private final NoteTracker noteTracker = new NoteTracker();
+  private final FeederPositioner feederPositioner = new FeederPositioner();
 
   private final FlywheelIOInputsAutoLogged flyInputs = new FlywheelIOInputsAutoLogged();
   private final FeederIOInputsAutoLogged feedInputs = new FeederIOInputsAutoLogged();
   private final DistanceSensorIOInputsAutoLogged sInputs = new DistanceSensorIOInputsAutoLogged();
+  private final FlywheelReadiness leftReadiness = new FlywheelReadiness();
+  private final FlywheelReadiness rightReadiness = new FlywheelReadiness();
+  // Last commanded flywheel velocities, the inputs only report the setpoint a loop or more later
+  private double leftTargetRPM = 0.0;
+  private double rightTargetRPM = 0.0;
+  // Shot table profile the targets came from, empty when set by hand
+  private String shotProfile = "";
+
+  private boolean noteWasInFeeder = false;
+  private boolean sensorSawNote = false;
+  // Whether the note in the feeder hasn't been counted as shot yet
+  private boolean shotArmed = false;
+  private int shotCount = 0;
+  private boolean shotPending = false;
+  private boolean recovering = false;
+  private boolean sagged = false;
+  private double shotTimestamp = 0.0;
+  private final AllocationCounter periodicAllocations = new AllocationCounter("Shooter");
+  private final LoopTimer periodicTimer = new LoopTimer("Shooter/Periodic");
+  private final LoopTimer updateInputsTimer = new LoopTimer("Shooter/UpdateInputs");
+  private final LoopTimer processInputsTimer = new LoopTimer("Shooter/ProcessInputs");
 
   private final SimpleMotorFeedforward leftFlywheelFFModel;
   private final SimpleMotorFeedforward rightFlywheelFFModel;
@@ -41,7 +71,11 @@ public class Shooter extends SubsystemBase {
   private static final LoggedTunableNumber feederkD = new LoggedTunableNumber("feederkD");
 
   public Shooter(
-      FlywheelIO flywheels, FeederIO feeder, DistanceSensorIO dist, LeafBlowerIO leafBlower) {
+      FlywheelIO flywheels,
+      FeederIO feeder,
+      DistanceSensorIO dist,
+      LeafBlowerIO leafBlower,
+      Intake intake) {
     switch (Constants.getMode()) {
       case REAL:
         leftFlywheelFFModel = new SimpleMotorFeedforward(0.23, 0.18, 0); // make constant
@@ -56,7 +90,6 @@ public class Shooter extends SubsystemBase {
         feederkP.initDefault(0.23); // make constant
         feederkI.initDefault(5); // make constant
         feederkD.initDefault(0);
-        lastNoteState = NoteState.Init;
         break;
       case REPLAY:
         leftFlywheelFFModel = new SimpleMotorFeedforward(0, 0.03);
@@ -91,21 +124,42 @@ public class Shooter extends SubsystemBase {
 
     this.leafBlower = leafBlower;
     this.dist = dist;
+    this.intake = intake;
   }
 
   public void stopFlywheels() {
+    leftTargetRPM = 0.0;
+    rightTargetRPM = 0.0;
+    shotProfile = "";
     flywheels.stop();
   }
 
   public void stopFeeders() {
+    feederPositioner.cancel();
     feeder.stop();
   }
 
   public void setFeedersRPM(double velocityRPM) {
+    feederPositioner.cancel();
     feeder.setVelocityRPS(velocityRPM / 60.0, feederFFModel.calculate(velocityRPM / 60.));
   }
 
   public void setFlywheelRPMs(double leftVelocityRPM, double rightVelocityRPM) {
+    setFlywheelRPMs(leftVelocityRPM, rightVelocityRPM, "");
+  }
+
+  /**
+   * Sets the flywheel velocities from a shot table.
+   *
+   * @param leftVelocityRPM Left flywheel velocity
+   * @param rightVelocityRPM Right flywheel velocity
+   * @param shotProfile Name of the shot table profile the velocities came from, recorded with the
+   *     shot
+   */
+  public void setFlywheelRPMs(double leftVelocityRPM, double rightVelocityRPM, String shotProfile) {
+    leftTargetRPM = leftVelocityRPM;
+    rightTargetRPM = rightVelocityRPM;
+    this.shotProfile = shotProfile;
 
     ff = leftFlywheelFFModel.calculate(rightVelocityRPM / 60.);
     flywheels.setVelocityRPS(
@@ -117,64 +171,112 @@ public class Shooter extends SubsystemBase {
 
   public void setFlywheelRPMSSource() {
     if (DriverStation.getAlliance().get() == Alliance.Blue) {
+      setFlywheelTargets(5000, 4200);
       flywheels.setVelocityRPS(
-          5000,
-          4200,
+          5000 / 60.,
+          4200 / 60.,
           leftFlywheelFFModel.calculate(5000 / 60.),
-          leftFlywheelFFModel.calculate(4200 / 60.));
+          rightFlywheelFFModel.calculate(4200 / 60.));
     } else {
+      setFlywheelTargets(4200, 5000);
       flywheels.setVelocityRPS(
-          4200,
-          5000,
-          leftFlywheelFFModel.calculate(5000 / 60.),
-          leftFlywheelFFModel.calculate(4200 / 60.));
+          4200 / 60.,
+          5000 / 60.,
+          leftFlywheelFFModel.calculate(4200 / 60.),
+          rightFlywheelFFModel.calculate(5000 / 60.));
     }
   }
 
   public void setFlywheelRPMSAmp() {
     if (DriverStation.getAlliance().get() == Alliance.Blue) {
+      setFlywheelTargets(4200, 5000);
       flywheels.setVelocityRPS(
-          4200,
-          5000,
+          4200 / 60.,
+          5000 / 60.,
           leftFlywheelFFModel.calculate(4200 / 60.),
-          leftFlywheelFFModel.calculate(5000 / 60.));
+          rightFlywheelFFModel.calculate(5000 / 60.));
     } else {
+      setFlywheelTargets(5000, 4200);
       flywheels.setVelocityRPS(
-          5000,
-          4200,
+          5000 / 60.,
+          4200 / 60.,
           leftFlywheelFFModel.calculate(5000 / 60.),
-          leftFlywheelFFModel.calculate(4200 / 60.));
+          rightFlywheelFFModel.calculate(4200 / 60.));
     }
   }
 
+  /** Records commanded velocities as the readiness targets. */
+  private void setFlywheelTargets(double leftVelocityRPM, double rightVelocityRPM) {
+    leftTargetRPM = leftVelocityRPM;
+    rightTargetRPM = rightVelocityRPM;
+    shotProfile = "";
+  }
+
+  /** Returns the left flywheel target in RPM, 0 when stopped. */
+  public double getLeftTargetRPM() {
+    return leftTargetRPM;
+  }
+
+  /** Returns the right flywheel target in RPM, 0 when stopped. */
+  public double getRightTargetRPM() {
+    return rightTargetRPM;
+  }
+
+  /** Returns the shot table profile the flywheel targets came from, empty if set by hand. */
+  public String getShotProfile() {
+    return shotProfile;
+  }
+
+  /**
+   * Returns how many shots have been seen, a note leaving the feeder with the flywheels spinning.
+   */
+  public int getShotCount() {
+    return shotCount;
+  }
+
   public double[] getFlywheelVelocitiesRPM() {
     return new double[] {flyInputs.leftVelocityRPM, flyInputs.rightVelocityRPM};
   }
 
   public double[] getFlywheelErrors() {
     return new double[] {
-      flyInputs.leftVelocitySetpointRPM - getFlywheelVelocitiesRPM()[0],
-      flyInputs.rightVelocitySetpointRPM - getFlywheelVelocitiesRPM()[1]
+      flyInputs.leftVelocitySetpointRPM - flyInputs.leftVelocityRPM,
+      flyInputs.rightVelocitySetpointRPM - flyInputs.rightVelocityRPM
     };
   }
 
   public boolean atFlywheelSetpoints() {
-    Logger.recordOutput("err left", getFlywheelErrors()[0]);
-    Logger.recordOutput("err right", getFlywheelErrors()[1]);
+    double leftError = flyInputs.leftVelocitySetpointRPM - flyInputs.leftVelocityRPM;
+    double rightError = flyInputs.rightVelocitySetpointRPM - flyInputs.rightVelocityRPM;
+    return Math.abs(leftError) <= Constants.ShooterConstants.FLYWHEEL_THRESHOLD
+        && Math.abs(rightError) <= Constants.ShooterConstants.FLYWHEEL_THRESHOLD
+        && flyInputs.leftVelocitySetpointRPM > 0
+        && flyInputs.rightVelocitySetpointRPM > 0;
+  }
 
-    Logger.recordOutput(
-        "at left",
-        Math.abs(getFlywheelErrors()[0]) <= Constants.ShooterConstants.FLYWHEEL_THRESHOLD);
-    Logger.recordOutput(
-        "at right",
-        Math.abs(getFlywheelErrors()[1]) <= Constants.ShooterConstants.FLYWHEEL_THRESHOLD);
+  /**
+   * Returns the estimated time until both flywheels are within the threshold of their setpoints.
+   */
+  public double getFlywheelTimeToSetpointSecs() {
+    return Math.max(leftReadiness.getTimeToSetpointSecs(), rightReadiness.getTimeToSetpointSecs());
+  }
 
-    Logger.recordOutput(
-        "at yes", flyInputs.leftVelocitySetpointRPM > 0 && flyInputs.rightVelocitySetpointRPM > 0);
+  /** Returns the larger of the two flywheels' recent velocity spreads in RPM. */
+  public double getFlywheelSpreadRpm() {
+    return Math.max(leftReadiness.getSpreadRpm(), rightReadiness.getSpreadRpm());
+  }
 
-    return (Math.abs(getFlywheelErrors()[0]) <= Constants.ShooterConstants.FLYWHEEL_THRESHOLD
-            && Math.abs(getFlywheelErrors()[1]) <= Constants.ShooterConstants.FLYWHEEL_THRESHOLD)
-        && (flyInputs.leftVelocitySetpointRPM > 0 && flyInputs.rightVelocitySetpointRPM > 0);
+  /**
+   * Returns whether a note fed now would leave at the target speed: both flywheels are spinning
+   * forward, will be within the threshold by the time the note reaches them, and are steady enough
+   * that the exit speed is repeatable. Lets shots go as soon as they'll land instead of after a
+   * fixed wait.
+   */
+  public boolean flywheelsReadyToShoot() {
+    return leftTargetRPM > 0
+        && rightTargetRPM > 0
+        && getFlywheelTimeToSetpointSecs() <= Constants.ShooterConstants.FEED_TO_FLYWHEEL_SECS
+        && getFlywheelSpreadRpm() <= Constants.ShooterConstants.FLYWHEEL_MAX_SPREAD_RPM;
   }
 
   public double getFeederRPM() {
@@ -189,28 +291,37 @@ public class Shooter extends SubsystemBase {
     return Math.abs(getFeederError()) <= Constants.ShooterConstants.FEEDER_THRESHOLD;
   }
 
-  public NoteState seesNote() {
-    Logger.recordOutput("see note val", "default");
-    if ((sInputs.distance > Constants.ShooterConstants.FEEDER_DIST && sInputs.distance < 2150)) {
-      Logger.recordOutput("see note val", "sensor");
-      lastNoteState = NoteState.SENSOR;
-      return NoteState.SENSOR;
+  /**
+   * Starts profiling the note in the feeder to its staged depth, see {@link FeederPositioner}. Runs
+   * until staged or until the feeders are commanded otherwise.
+   */
+  public void stageNote() {
+    feederPositioner.start(feedInputs.feederRotations, feedInputs.feederVelocityRPM / 60.0);
+  }
+
+  /** Returns whether the note has been staged since {@link #stageNote()} was last called. */
+  public boolean isNoteStaged() {
+    return feederPositioner.isStaged();
+  }
 
-    } else if (feedInputs.currentAmps > 13) {
-      // } else if (feedInputs.currentAmps > 10000) {
-      Logger.recordOutput("see note val", "current");
-      lastNoteState = NoteState.CURRENT;
-      return NoteState.CURRENT;
+  /** Returns where the note is as of this loop, from the {@link NoteTracker}. */
+  public NoteState getNoteState() {
+    return noteTracker.getState();
+  }
 
-    } else {
-      Logger.recordOutput("see note val", "no note");
-      lastNoteState = NoteState.NO_NOTE;
-      return NoteState.NO_NOTE;
-    }
+  /** Returns whether the note is in the feeder as of this loop. */
+  public boolean hasNote() {
+    return noteTracker.hasNote();
   }
 
-  public NoteState getLastNoteState() {
-    return lastNoteState;
+  /** Returns when the note last arrived in the feeder in seconds, NaN if it never has. */
+  public double getNoteAcquiredTimestamp() {
+    return noteTracker.getAcquiredTimestamp();
+  }
+
+  /** Returns when the note last left the feeder in seconds, NaN if it never has. */
+  public double getNoteLostTimestamp() {
+    return noteTracker.getLostTimestamp();
   }
 
   public void turnOnFan() {
@@ -221,17 +332,141 @@ public class Shooter extends SubsystemBase {
     leafBlower.stop();
   }
 
+  /**
+   * Watches for a note leaving the feeder while the flywheels are spinning and counts it for {@link
+   * #getShotCount()}. The shot is taken from the loop the distance sensor stops seeing the note,
+   * before the note tracker's debounce lets the loss through, so the sag window starts with the
+   * note actually leaving. A note only the feeder current saw counts when the tracker loses it.
+   * Each note counts once, however the sensor flickers as it leaves. After a shot, the flywheels
+   * run on their recovery gains while either wheel is below its setpoint by more than the recovery
+   * band, and the time from the shot until both are back within the band is logged. If neither
+   * wheel sags shortly after the shot, it is logged as recovered immediately.
+   */
+  private void updateRecovery() {
+    double now = Timer.getFPGATimestamp();
+    boolean spinning = leftTargetRPM > 0 && rightTargetRPM > 0;
+    boolean noteInFeeder = noteTracker.hasNote();
+    boolean sensorSeesNote = noteTracker.sensorSeesNote();
+    if (noteInFeeder && !noteWasInFeeder) {
+      shotArmed = true;
+    }
+    boolean shot = false;
+    if (shotArmed && spinning) {
+      if (sensorSawNote && !sensorSeesNote) {
+        shot = true;
+        shotTimestamp = now;
+      } else if (noteWasInFeeder && !noteInFeeder) {
+        shot = true;
+        shotTimestamp = noteTracker.getLostTimestamp();
+      }
+    }
+    if (shot) {
+      shotArmed = false;
+      shotCount++;
+    }
+    if (shot && Constants.ShooterConstants.FLYWHEEL_RECOVERY_ENABLED) {
+      shotPending = true;
+      sagged = false;
+    }
+    noteWasInFeeder = noteInFeeder;
+    sensorSawNote = sensorSeesNote;
+
+    boolean belowBand =
+        leftReadiness.getErrorRpm() > Constants.ShooterConstants.FLYWHEEL_RECOVERY_BAND_RPM
+            || rightReadiness.getErrorRpm() > Constants.ShooterConstants.FLYWHEEL_RECOVERY_BAND_RPM;
+    double sinceShot = now - shotTimestamp;
+    if (shotPending) {
+      if (!spinning || sinceShot > Constants.ShooterConstants.FLYWHEEL_RECOVERY_TIMEOUT_SECS) {
+        shotPending = false;
+      } else if (belowBand) {
+        sagged = true;
+      } else if (sagged || sinceShot > FEED_SAG_WINDOW_SECS) {
+        Logger.recordOutput("Flywheels/RecoveryTimeSecs", sagged ? sinceShot : 0.0);
+        shotPending = false;
+      }
+    }
+
+    boolean shouldRecover = shotPending && belowBand;
+    if (shouldRecover != recovering) {
+      recovering = shouldRecover;
+      flywheels.setRecoveryEnabled(recovering);
+    }
+    Logger.recordOutput("Flywheels/Recovering", recovering);
+  }
+
+  /**
+   * Runs the feeder positioner and drives the feeder from it while staging. The time from the note
+   * first touching the intake to staged is logged when staging finishes.
+   */
+  private void updateStaging() {
+    if (noteTracker.getState() == NoteState.NO_NOTE) {
+      feederPositioner.clearEdge();
+    }
+    boolean wasActive = feederPositioner.isActive();
+    feederPositioner.update(
+        sInputs.distance, feedInputs.feederRotations, feedInputs.feederVelocityRPM / 60.0);
+    if (feederPositioner.isActive()) {
+      double velocityRPS = feederPositioner.getVelocityCommandRPS();
+      feeder.setVelocityRPS(velocityRPS, feederFFModel.calculate(velocityRPS));
+    } else if (wasActive) {
+      feeder.stop();
+      Logger.recordOutput(
+          "Feeder/StagingTimeSecs", Timer.getFPGATimestamp() - noteTracker.getContactTimestamp());
+    }
+    Logger.recordOutput("Feeder/Staging", feederPositioner.isActive());
+    Logger.recordOutput("Feeder/Staged", feederPositioner.isStaged());
+    Logger.recordOutput("Feeder/StageErrorRotations", feederPositioner.getPositionErrorRotations());
+    Logger.recordOutput("Feeder/SensorEdgeRotations", feederPositioner.getEdgeRotations());
+  }
+
   @Override
   public void periodic() {
+    periodicAllocations.start();
+    periodicTimer.start();
     // This method will be called once per scheduler run
-    // Logger.recordOutput("see note", seesNote());
+    updateInputsTimer.start();
     flywheels.updateInputs(flyInputs);
     feeder.updateInputs(feedInputs);
     dist.updateInputs(sInputs);
+    updateInputsTimer.stop();
 
+    processInputsTimer.start();
     Logger.processInputs("Flywheels", flyInputs);
     Logger.processInputs("Feeder", feedInputs);
     Logger.processInputs("Distance Sensor", sInputs);
+    processInputsTimer.stop();
+
+    noteTracker.update(
+        sInputs.distance,
+        feedInputs.currentAmps,
+        intake.getVolts(),
+        intake.getAmps(),
+        intake.getRPM(),
+        Timer.getFPGATimestamp());
+    Logger.recordOutput("NoteTracker/State", noteTracker.getState());
+    Logger.recordOutput("NoteTracker/StateTimestamp", noteTracker.getStateTimestamp());
+
+    updateStaging();
+
+    leftReadiness.update(
+        flyInputs.leftVelocityRPM,
+        leftTargetRPM,
+        flyInputs.leftAppliedVolts,
+        flyInputs.leftCurrentAmps);
+    rightReadiness.update(
+        flyInputs.rightVelocityRPM,
+        rightTargetRPM,
+        flyInputs.rightAppliedVolts,
+        flyInputs.rightCurrentAmps);
+    Logger.recordOutput("err left", flyInputs.leftVelocitySetpointRPM - flyInputs.leftVelocityRPM);
+    Logger.recordOutput(
+        "err right", flyInputs.rightVelocitySetpointRPM - flyInputs.rightVelocityRPM);
+    Logger.recordOutput("at yes", atFlywheelSetpoints());
+    Logger.recordOutput("Flywheels/TimeToSetpointSecs", getFlywheelTimeToSetpointSecs());
+    Logger.recordOutput("Flywheels/SpreadRPM", getFlywheelSpreadRpm());
+    Logger.recordOutput("Flywheels/ReadyToShoot", flywheelsReadyToShoot());
+
+    updateRecovery();
 
     Logger.recordOutput("ffvolt", ff);
 
@@ -246,5 +481,7 @@ public class Shooter extends SubsystemBase {
         || flywheelkD.hasChanged(hashCode())) {
       flywheels.configurePID(flywheelkP.get(), flywheelkI.get(), flywheelkD.get());
     }
+    periodicTimer.stop();
+    periodicAllocations.stop();
   }
 }
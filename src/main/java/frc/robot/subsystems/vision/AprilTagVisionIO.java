@@ -0,0 +1,28 @@
+package frc.robot.subsystems.vision;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import org.littletonrobotics.junction.AutoLog;
+
+public interface AprilTagVisionIO {
+  /**
+   * Every pose observation received since the last update, oldest first. The arrays are parallel,
+   * one entry per observation, except the tag arrays which hold the tags of every observation back
+   * to back (tagCounts[i] tags for observation i). Unknown tag IDs are -1.
+   */
+  @AutoLog
+  public static class AprilTagVisionIOInputs {
+    public boolean connected = false;
+
+    public double[] timestamps = new double[] {};
+    public Pose2d[] poses = new Pose2d[] {};
+    public int[] tagCounts = new int[] {};
+    public double[] avgTagDistances = new double[] {};
+    public double[] avgTagAreas = new double[] {};
+
+    public int[] tagIds = new int[] {};
+    public double[] tagDistances = new double[] {};
+    public double[] tagAmbiguities = new double[] {};
+  }
+
+  public default void updateInputs(AprilTagVisionIOInputs inputs) {}
+}
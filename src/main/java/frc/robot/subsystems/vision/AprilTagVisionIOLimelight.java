@@ -0,0 +1,119 @@
+package frc.robot.subsystems.vision;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.networktables.DoubleArraySubscriber;
+import edu.wpi.first.networktables.DoubleSubscriber;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.PubSubOption;
+import edu.wpi.first.networktables.TimestampedDoubleArray;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.robot.util.LimelightHelpers;
+
+/**
+ * Queues every botpose update a Limelight publishes, so frames that arrive between robot loops are
+ * not lost. The subscriber keeps duplicate values and stores up to {@link #QUEUE_SIZE} updates,
+ * which are drained each loop with readQueue().
+ */
+public class AprilTagVisionIOLimelight implements AprilTagVisionIO {
+  private static final int QUEUE_SIZE = 20;
+  private static final long DISCONNECTED_TIMEOUT_MICROS = 250000;
+
+  // botpose layout is [x, y, z, roll, pitch, yaw, latency, tag count, tag span, avg tag dist,
+  // avg tag area], followed by 7 values per fiducial [id, txnc, tync, ta, dist to camera,
+  // dist to robot, ambiguity]
+  private static final int BASE_VALUES = 11;
+  private static final int VALUES_PER_FIDUCIAL = 7;
+
+  private final DoubleArraySubscriber poseSubscriber;
+  private final DoubleSubscriber heartbeatSubscriber;
+
+  /**
+   * Create a new AprilTagVisionIOLimelight
+   *
+   * @param limelightName NetworkTables name of the Limelight
+   */
+  public AprilTagVisionIOLimelight(String limelightName) {
+    NetworkTable table = LimelightHelpers.getLimelightNTTable(limelightName);
+    poseSubscriber =
+        table
+            .getDoubleArrayTopic("botpose_wpiblue")
+            .subscribe(
+                new double[] {},
+                PubSubOption.keepDuplicates(true),
+                PubSubOption.pollStorage(QUEUE_SIZE));
+    heartbeatSubscriber = table.getDoubleTopic("hb").subscribe(0.0);
+  }
+
+  @Override
+  public void updateInputs(AprilTagVisionIOInputs inputs) {
+    inputs.connected =
+        RobotController.getFPGATime() - heartbeatSubscriber.getLastChange()
+            < DISCONNECTED_TIMEOUT_MICROS;
+
+    TimestampedDoubleArray[] queue = poseSubscriber.readQueue();
+
+    // Count the frames that actually saw tags
+    int observationCount = 0;
+    int tagCount = 0;
+    for (TimestampedDoubleArray frame : queue) {
+      if (isValid(frame.value)) {
+        observationCount++;
+        tagCount += (int) frame.value[7];
+      }
+    }
+
+    inputs.timestamps = new double[observationCount];
+    inputs.poses = new Pose2d[observationCount];
+    inputs.tagCounts = new int[observationCount];
+    inputs.avgTagDistances = new double[observationCount];
+    inputs.avgTagAreas = new double[observationCount];
+    inputs.tagIds = new int[tagCount];
+    inputs.tagDistances = new double[tagCount];
+    inputs.tagAmbiguities = new double[tagCount];
+
+    int i = 0;
+    int tagIndex = 0;
+    for (TimestampedDoubleArray frame : queue) {
+      double[] values = frame.value;
+      if (!isValid(values)) {
+        continue;
+      }
+      double latencyMs = values[6];
+      // Last change is in microseconds, Limelight latency is in milliseconds
+      inputs.timestamps[i] = (frame.timestamp / 1000000.0) - (latencyMs / 1000.0);
+      inputs.poses[i] =
+          new Pose2d(values[0], values[1], new Rotation2d(Units.degreesToRadians(values[5])));
+      inputs.avgTagDistances[i] = values[9];
+      inputs.avgTagAreas[i] = values[10];
+
+      int observationTagCount = (int) values[7];
+      inputs.tagCounts[i] = observationTagCount;
+      boolean hasRawFiducials = hasRawFiducials(values);
+      for (int j = 0; j < observationTagCount; j++) {
+        if (hasRawFiducials) {
+          int baseIndex = BASE_VALUES + j * VALUES_PER_FIDUCIAL;
+          inputs.tagIds[tagIndex] = (int) values[baseIndex];
+          inputs.tagDistances[tagIndex] = values[baseIndex + 4];
+          inputs.tagAmbiguities[tagIndex] = values[baseIndex + 6];
+        } else {
+          // Older firmware doesn't publish raw fiducials, assume the worst
+          inputs.tagIds[tagIndex] = -1;
+          inputs.tagDistances[tagIndex] = values[9];
+          inputs.tagAmbiguities[tagIndex] = 1.0;
+        }
+        tagIndex++;
+      }
+      i++;
+    }
+  }
+
+  private static boolean isValid(double[] values) {
+    return values.length >= BASE_VALUES && values[7] > 0;
+  }
+
+  private static boolean hasRawFiducials(double[] values) {
+    return values.length == BASE_VALUES + VALUES_PER_FIDUCIAL * (int) values[7];
+  }
+}
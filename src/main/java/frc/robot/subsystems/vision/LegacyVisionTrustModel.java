@@ -0,0 +1,47 @@
+package frc.robot.subsystems.vision;
+
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.Vector;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.numbers.N3;
+import edu.wpi.first.math.util.Units;
+import java.util.Optional;
+
+/**
+ * The tag count and area rules the robot used before {@link TableVisionTrustModel}, kept as the
+ * baseline for evaluation.
+ */
+public class LegacyVisionTrustModel implements VisionTrustModel {
+  @Override
+  public Optional<Vector<N3>> getStdDevs(
+      VisionObservation observation,
+      Pose2d referencePose,
+      double linearSpeedMetersPerSec,
+      double yawRateRadPerSec,
+      boolean skipGate) {
+    double poseDifference =
+        referencePose.getTranslation().getDistance(observation.pose.getTranslation());
+
+    double xyStdDev;
+    double headingStdDevDeg;
+    if (observation.tagCount >= 2 && observation.avgTagArea > 0.04) {
+      xyStdDev = 0.7;
+      headingStdDevDeg = 8;
+    } else if (observation.tagCount == 1 && poseDifference < 0.5) {
+      xyStdDev = 5;
+      headingStdDevDeg = 30;
+    } else if (observation.tagCount == 1 && poseDifference < 3) {
+      xyStdDev = 11.43;
+      headingStdDevDeg = 9999;
+    } else {
+      return Optional.empty();
+    }
+    return Optional.of(
+        VecBuilder.fill(xyStdDev, xyStdDev, Units.degreesToRadians(headingStdDevDeg)));
+  }
+
+  @Override
+  public String getName() {
+    return "Legacy";
+  }
+}
@@ -0,0 +1,20 @@
+package frc.robot.subsystems.vision;
+
+import org.littletonrobotics.junction.AutoLog;
+
+public interface ObstacleIO {
+  /**
+   * Robots seen in the latest detector frame. The angle arrays are parallel, one entry per
+   * detection, and only change when newFrame is set.
+   */
+  @AutoLog
+  public static class ObstacleIOInputs {
+    public boolean connected = false;
+    public boolean newFrame = false;
+    public double timestamp = 0.0;
+    public double[] txDegs = new double[] {};
+    public double[] tyDegs = new double[] {};
+  }
+
+  public default void updateInputs(ObstacleIOInputs inputs) {}
+}
@@ -0,0 +1,74 @@
+package frc.robot.subsystems.vision;
+
+import edu.wpi.first.networktables.DoubleSubscriber;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.StringSubscriber;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.robot.Constants.ObstacleConstants;
+import frc.robot.util.LimelightHelpers;
+
+/**
+ * Reads robot detections from a Limelight running a detector pipeline. The JSON results are only
+ * parsed when the Limelight has published a new frame, since parsing is the expensive part.
+ */
+public class ObstacleIOLimelight implements ObstacleIO {
+  private static final long DISCONNECTED_TIMEOUT_MICROS = 250000;
+
+  private final String limelightName;
+  private final StringSubscriber jsonSubscriber;
+  private final DoubleSubscriber heartbeatSubscriber;
+  private long lastJsonChange = 0;
+
+  /**
+   * Create a new ObstacleIOLimelight
+   *
+   * @param limelightName NetworkTables name of the Limelight
+   */
+  public ObstacleIOLimelight(String limelightName) {
+    this.limelightName = limelightName;
+    NetworkTable table = LimelightHelpers.getLimelightNTTable(limelightName);
+    jsonSubscriber = table.getStringTopic("json").subscribe("");
+    heartbeatSubscriber = table.getDoubleTopic("hb").subscribe(0.0);
+  }
+
+  @Override
+  public void updateInputs(ObstacleIOInputs inputs) {
+    inputs.connected =
+        RobotController.getFPGATime() - heartbeatSubscriber.getLastChange()
+            < DISCONNECTED_TIMEOUT_MICROS;
+
+    long jsonChange = jsonSubscriber.getLastChange();
+    inputs.newFrame = jsonChange != lastJsonChange;
+    if (!inputs.newFrame) {
+      return;
+    }
+    lastJsonChange = jsonChange;
+
+    LimelightHelpers.Results results =
+        LimelightHelpers.getLatestResults(limelightName).targetingResults;
+    int count = 0;
+    for (LimelightHelpers.LimelightTarget_Detector target : results.targets_Detector) {
+      if (isRobot(target)) {
+        count++;
+      }
+    }
+    inputs.txDegs = new double[count];
+    inputs.tyDegs = new double[count];
+    int i = 0;
+    for (LimelightHelpers.LimelightTarget_Detector target : results.targets_Detector) {
+      if (isRobot(target)) {
+        inputs.txDegs[i] = target.tx;
+        inputs.tyDegs[i] = target.ty;
+        i++;
+      }
+    }
+    // Last change is in microseconds, Limelight latency is in milliseconds
+    inputs.timestamp =
+        (jsonChange / 1000000.0) - (results.latency_pipeline + results.latency_capture) / 1000.0;
+  }
+
+  private static boolean isRobot(LimelightHelpers.LimelightTarget_Detector target) {
+    return ObstacleConstants.CLASS_NAME.equals(target.className)
+        && target.confidence >= ObstacleConstants.MIN_CONFIDENCE;
+  }
+}
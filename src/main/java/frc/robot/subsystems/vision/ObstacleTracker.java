@@ -0,0 +1,231 @@
+package frc.robot.subsystems.vision;
+
+import com.pathplanner.lib.pathfinding.Pathfinding;
+import edu.wpi.first.math.Pair;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants;
+import frc.robot.Constants.ObstacleConstants;
+import frc.robot.subsystems.drive.Drive;
+import java.util.ArrayList;
+import java.util.List;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Tracks other robots seen by a detector camera as obstacles for on-the-fly pathfinding.
+ *
+ * <p>Each detection is placed on the field from its angles, assuming the middle of the robot's
+ * bounding box is at {@link ObstacleConstants#TARGET_HEIGHT_METERS}, and from where our robot was
+ * when the frame was captured. A detection close to a tracked robot moves that track, otherwise it
+ * starts a new one. Tracks not seen for {@link ObstacleConstants#LIFETIME_SECS} are dropped, so a
+ * robot that drove away stops blocking the field. Overlapping boxes are merged into one.
+ *
+ * <p>Every change to the obstacles makes the pathfinder replan, so they're sent at most every
+ * {@link ObstacleConstants#PUBLISH_PERIOD_SECS}, and only when a box appeared, disappeared or moved
+ * more than {@link ObstacleConstants#REPUBLISH_DISTANCE_METERS}.
+ *
+ * <p>Must be created after {@link Drive} so the pose for the loop is up to date.
+ */
+public class ObstacleTracker extends SubsystemBase {
+  /** Axis-aligned box on the field. */
+  private static class Box {
+    double minX;
+    double minY;
+    double maxX;
+    double maxY;
+
+    Box(double minX, double minY, double maxX, double maxY) {
+      this.minX = minX;
+      this.minY = minY;
+      this.maxX = maxX;
+      this.maxY = maxY;
+    }
+
+    boolean overlaps(Box other) {
+      return minX <= other.maxX && other.minX <= maxX && minY <= other.maxY && other.minY <= maxY;
+    }
+
+    void add(Box other) {
+      minX = Math.min(minX, other.minX);
+      minY = Math.min(minY, other.minY);
+      maxX = Math.max(maxX, other.maxX);
+      maxY = Math.max(maxY, other.maxY);
+    }
+
+    boolean isNear(Box other, double toleranceMeters) {
+      return Math.abs(minX - other.minX) <= toleranceMeters
+          && Math.abs(minY - other.minY) <= toleranceMeters
+          && Math.abs(maxX - other.maxX) <= toleranceMeters
+          && Math.abs(maxY - other.maxY) <= toleranceMeters;
+    }
+  }
+
+  /** A robot seen recently. */
+  private static class Track {
+    double x;
+    double y;
+    double lastSeenTimestamp;
+
+    Track(double x, double y, double lastSeenTimestamp) {
+      this.x = x;
+      this.y = y;
+      this.lastSeenTimestamp = lastSeenTimestamp;
+    }
+  }
+
+  private final Drive drive;
+  private final ObstacleIO io;
+  private final ObstacleIOInputsAutoLogged inputs = new ObstacleIOInputsAutoLogged();
+
+  private final List<Track> tracks = new ArrayList<>();
+  private List<Box> boxes = new ArrayList<>();
+  private List<Box> publishedBoxes = new ArrayList<>();
+  private double lastPublishTimestamp = Double.NEGATIVE_INFINITY;
+
+  /**
+   * Create a new ObstacleTracker
+   *
+   * @param drive Drive whose pose places the detections on the field
+   * @param io Detector camera
+   */
+  public ObstacleTracker(Drive drive, ObstacleIO io) {
+    this.drive = drive;
+    this.io = io;
+  }
+
+  @Override
+  public void periodic() {
+    io.updateInputs(inputs);
+    Logger.processInputs("Obstacles", inputs);
+
+    if (inputs.newFrame) {
+      Pose2d robotPose = drive.getPoseAt(inputs.timestamp).orElseGet(drive::getPose);
+      for (int i = 0; i < inputs.txDegs.length; i++) {
+        Translation2d position = toField(robotPose, inputs.txDegs[i], inputs.tyDegs[i]);
+        if (position != null) {
+          addDetection(position, inputs.timestamp);
+        }
+      }
+    }
+
+    double now = Timer.getFPGATimestamp();
+    tracks.removeIf(track -> now - track.lastSeenTimestamp > ObstacleConstants.LIFETIME_SECS);
+    boxes = mergeBoxes();
+
+    boolean published = false;
+    if (now - lastPublishTimestamp >= ObstacleConstants.PUBLISH_PERIOD_SECS
+        && hasChanged(boxes, publishedBoxes)) {
+      List<Pair<Translation2d, Translation2d>> obstacles = new ArrayList<>(boxes.size());
+      for (Box box : boxes) {
+        obstacles.add(
+            Pair.of(new Translation2d(box.minX, box.minY), new Translation2d(box.maxX, box.maxY)));
+      }
+      Pathfinding.setDynamicObstacles(obstacles, drive.getPose().getTranslation());
+      publishedBoxes = boxes;
+      lastPublishTimestamp = now;
+      published = true;
+    }
+
+    Translation2d[] centers = new Translation2d[tracks.size()];
+    for (int i = 0; i < centers.length; i++) {
+      centers[i] = new Translation2d(tracks.get(i).x, tracks.get(i).y);
+    }
+    Logger.recordOutput("Obstacles/Tracks", centers);
+    Logger.recordOutput("Obstacles/BoxCount", boxes.size());
+    Logger.recordOutput("Obstacles/Published", published);
+  }
+
+  /** Returns the number of robots being tracked. */
+  public int getTrackCount() {
+    return tracks.size();
+  }
+
+  /**
+   * Places a detection on the field, or returns null if it's at or above the horizon or out of
+   * range.
+   */
+  private static Translation2d toField(Pose2d robotPose, double txDegs, double tyDegs) {
+    double belowHorizonRad = Math.toRadians(-(Constants.INTAKE_LL_ANGLE + tyDegs));
+    if (belowHorizonRad <= Math.toRadians(1.0)) {
+      return null;
+    }
+    double distance =
+        (Constants.INTAKE_LL_HEIGHT_METERS - ObstacleConstants.TARGET_HEIGHT_METERS)
+            / Math.tan(belowHorizonRad);
+    if (distance > ObstacleConstants.MAX_RANGE_METERS) {
+      return null;
+    }
+    // The camera sees the near face, the robot's center is half a robot further along
+    Translation2d robotRelative =
+        new Translation2d(
+                distance + ObstacleConstants.HALF_SIZE_METERS, Rotation2d.fromDegrees(-txDegs))
+            .plus(new Translation2d(ObstacleConstants.CAMERA_FORWARD_OFFSET_METERS, 0));
+    return robotRelative.rotateBy(robotPose.getRotation()).plus(robotPose.getTranslation());
+  }
+
+  /** Moves the nearest track within the association distance, or starts a new one. */
+  private void addDetection(Translation2d position, double timestamp) {
+    Track nearest = null;
+    double nearestDistance = ObstacleConstants.ASSOCIATION_DISTANCE_METERS;
+    for (Track track : tracks) {
+      double distance = Math.hypot(track.x - position.getX(), track.y - position.getY());
+      if (distance <= nearestDistance) {
+        nearest = track;
+        nearestDistance = distance;
+      }
+    }
+    if (nearest == null) {
+      tracks.add(new Track(position.getX(), position.getY(), timestamp));
+    } else {
+      nearest.x = position.getX();
+      nearest.y = position.getY();
+      nearest.lastSeenTimestamp = Math.max(nearest.lastSeenTimestamp, timestamp);
+    }
+  }
+
+  /** Boxes around every track, with overlapping ones merged until none overlap. */
+  private List<Box> mergeBoxes() {
+    double halfSize = ObstacleConstants.HALF_SIZE_METERS;
+    List<Box> merged = new ArrayList<>(tracks.size());
+    for (Track track : tracks) {
+      merged.add(
+          new Box(track.x - halfSize, track.y - halfSize, track.x + halfSize, track.y + halfSize));
+    }
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (int i = 0; i < merged.size() && !changed; i++) {
+        for (int j = i + 1; j < merged.size(); j++) {
+          if (merged.get(i).overlaps(merged.get(j))) {
+            merged.get(i).add(merged.remove(j));
+            changed = true;
+            break;
+          }
+        }
+      }
+    }
+    return merged;
+  }
+
+  private static boolean hasChanged(List<Box> current, List<Box> published) {
+    if (current.size() != published.size()) {
+      return true;
+    }
+    for (Box box : current) {
+      boolean matched = false;
+      for (Box other : published) {
+        if (box.isNear(other, ObstacleConstants.REPUBLISH_DISTANCE_METERS)) {
+          matched = true;
+          break;
+        }
+      }
+      if (!matched) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
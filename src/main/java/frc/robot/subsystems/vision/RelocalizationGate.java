@@ -0,0 +1,53 @@
+package frc.robot.subsystems.vision;
+
+/**
+ * Decides when single tag observations should skip the innovation gate of a {@link
+ * VisionTrustModel}. The gate assumes the estimate is right, so after boot, a bad pose reset or
+ * drift it would reject every correct fix. The gate is skipped while the robot is disabled, and
+ * once {@link #AGREEING_FRAMES} single tag frames in a row were rejected while agreeing with each
+ * other to within {@link #AGREEMENT_METERS}: one wrong frame after a gap is not enough, but several
+ * consistent ones mean the estimate is what's wrong.
+ *
+ * <p>Only remembers where the current streak started, so it allocates nothing per frame.
+ */
+public class RelocalizationGate {
+  public static final int AGREEING_FRAMES = 3;
+  public static final double AGREEMENT_METERS = 0.3;
+
+  private int rejectedCount = 0;
+  private double streakX;
+  private double streakY;
+
+  /**
+   * Returns whether the innovation gate should be skipped for an observation.
+   *
+   * @param observation The observation about to be scored
+   * @param disabled Whether the robot is disabled
+   */
+  public boolean shouldSkipGate(VisionObservation observation, boolean disabled) {
+    return disabled || (rejectedCount >= AGREEING_FRAMES && agreesWithStreak(observation));
+  }
+
+  /** Records that an observation was accepted, which ends any streak of rejected frames. */
+  public void accepted() {
+    rejectedCount = 0;
+  }
+
+  /** Records that an observation was rejected. Only single tag frames count towards a streak. */
+  public void rejected(VisionObservation observation) {
+    if (observation.tagCount != 1) {
+      return;
+    }
+    if (rejectedCount == 0 || !agreesWithStreak(observation)) {
+      streakX = observation.pose.getX();
+      streakY = observation.pose.getY();
+      rejectedCount = 0;
+    }
+    rejectedCount++;
+  }
+
+  private boolean agreesWithStreak(VisionObservation observation) {
+    return Math.hypot(observation.pose.getX() - streakX, observation.pose.getY() - streakY)
+        <= AGREEMENT_METERS;
+  }
+}
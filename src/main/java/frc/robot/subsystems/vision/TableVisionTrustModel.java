@@ -0,0 +1,94 @@
+package frc.robot.subsystems.vision;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.Vector;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.numbers.N3;
+import java.util.Optional;
+
+/**
+ * Scores observations from per-tag distance and ambiguity, robot speed and innovation against the
+ * estimated pose, using the tables and gains in a {@link VisionTrustConfig}.
+ *
+ * <p>Only single tag observations are gated on innovation, and the caller can skip the gate when
+ * the estimate itself is suspect, see {@link RelocalizationGate}. Multi tag solves are never gated.
+ * Innovation always scales the std devs, so an observation let through the gate still only pulls a
+ * disagreeing estimate over gradually.
+ */
+public class TableVisionTrustModel implements VisionTrustModel {
+  private final VisionTrustConfig config;
+
+  /**
+   * Create a new TableVisionTrustModel
+   *
+   * @param config Tables and gains to score with
+   */
+  public TableVisionTrustModel(VisionTrustConfig config) {
+    this.config = config;
+  }
+
+  @Override
+  public Optional<Vector<N3>> getStdDevs(
+      VisionObservation observation,
+      Pose2d referencePose,
+      double linearSpeedMetersPerSec,
+      double yawRateRadPerSec,
+      boolean skipGate) {
+    if (observation.tagCount < 1 || Math.abs(yawRateRadPerSec) > config.maxYawRateRadPerSec) {
+      return Optional.empty();
+    }
+
+    boolean singleTag = observation.tagCount == 1;
+    // Ambiguity only describes single tag solves, multi tag poses are solved from every corner
+    double ambiguity = singleTag ? observation.getMaxAmbiguity() : 0.0;
+    if (ambiguity > config.maxAmbiguity) {
+      return Optional.empty();
+    }
+
+    double innovation =
+        referencePose.getTranslation().getDistance(observation.pose.getTranslation());
+    if (singleTag && !skipGate && innovation > config.maxSingleTagInnovationMeters) {
+      return Optional.empty();
+    }
+
+    // Single tag observations are only as good as the closest tag, multi tag ones use the average
+    double[][] table = singleTag ? config.singleTagTable : config.multiTagTable;
+    double distance = singleTag ? observation.getMinTagDistance() : observation.avgTagDistance;
+    double xyStdDev = lookup(table, distance, 1);
+    double headingStdDev = lookup(table, distance, 2);
+    if (!singleTag) {
+      // Tables are for two tags, each extra tag adds another independent set of corners
+      double tagScale = Math.sqrt(2.0 / observation.tagCount);
+      xyStdDev *= tagScale;
+      headingStdDev *= tagScale;
+    }
+
+    double scale =
+        (1.0 + config.ambiguityGain * ambiguity)
+            * (1.0
+                + config.linearSpeedGain * linearSpeedMetersPerSec
+                + config.yawRateGain * Math.abs(yawRateRadPerSec))
+            * (1.0 + config.innovationGain * innovation);
+    return Optional.of(VecBuilder.fill(xyStdDev * scale, xyStdDev * scale, headingStdDev * scale));
+  }
+
+  @Override
+  public String getName() {
+    return config.name;
+  }
+
+  /** Linearly interpolates a column of a table sorted by its first column. */
+  private static double lookup(double[][] table, double key, int column) {
+    if (key <= table[0][0]) {
+      return table[0][column];
+    }
+    for (int i = 1; i < table.length; i++) {
+      if (key <= table[i][0]) {
+        double t = (key - table[i - 1][0]) / (table[i][0] - table[i - 1][0]);
+        return MathUtil.interpolate(table[i - 1][column], table[i][column], t);
+      }
+    }
+    return table[table.length - 1][column];
+  }
+}
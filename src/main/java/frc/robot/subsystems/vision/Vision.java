@@ -0,0 +1,106 @@
+package frc.robot.subsystems.vision;
+
+import edu.wpi.first.math.Vector;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.numbers.N3;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.subsystems.drive.Drive;
+import frc.robot.util.AllocationCounter;
+import frc.robot.util.LoopTimer;
+import java.util.Optional;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Fuses AprilTag pose observations from any number of cameras into the drive pose estimator. Each
+ * camera queues every frame it receives, and all queued observations are applied in timestamp order
+ * so the estimator never sees a measurement older than one it already applied this loop.
+ *
+ * <p>Must be created after {@link Drive} so odometry for the loop is applied before vision.
+ */
+public class Vision extends SubsystemBase {
+  private final Drive drive;
+  private final AprilTagVisionIO[] io;
+  private final AprilTagVisionIOInputsAutoLogged[] inputs;
+  private final String[] inputsKeys;
+  private final VisionObservationMerger merger;
+  private final AllocationCounter periodicAllocations = new AllocationCounter("Vision");
+  private final LoopTimer periodicTimer = new LoopTimer("Vision/Periodic");
+  private final LoopTimer updateInputsTimer = new LoopTimer("Vision/UpdateInputs");
+  private final LoopTimer processInputsTimer = new LoopTimer("Vision/ProcessInputs");
+
+  private final RelocalizationGate relocalizationGate = new RelocalizationGate();
+  private VisionTrustModel trustModel = new TableVisionTrustModel(VisionTrustConfig.DEFAULT);
+
+  /**
+   * Create a new Vision subsystem
+   *
+   * @param drive Drive whose pose estimator receives the observations
+   * @param io One IO per camera, in a fixed order so replayed logs line up
+   */
+  public Vision(Drive drive, AprilTagVisionIO... io) {
+    this.drive = drive;
+    this.io = io;
+    inputs = new AprilTagVisionIOInputsAutoLogged[io.length];
+    inputsKeys = new String[io.length];
+    merger = new VisionObservationMerger(io.length);
+    for (int i = 0; i < io.length; i++) {
+      inputs[i] = new AprilTagVisionIOInputsAutoLogged();
+      inputsKeys[i] = "Vision/Camera" + i;
+    }
+  }
+
+  /** Sets the model that decides how much each observation is trusted. */
+  public void setTrustModel(VisionTrustModel trustModel) {
+    this.trustModel = trustModel;
+  }
+
+  @Override
+  public void periodic() {
+    periodicAllocations.start();
+    periodicTimer.start();
+    for (int i = 0; i < io.length; i++) {
+      updateInputsTimer.start();
+      io[i].updateInputs(inputs[i]);
+      updateInputsTimer.stop();
+      processInputsTimer.start();
+      Logger.processInputs(inputsKeys[i], inputs[i]);
+      processInputsTimer.stop();
+    }
+
+    ChassisSpeeds speeds = drive.getChassisSpeeds();
+    double linearSpeed = Math.hypot(speeds.vxMetersPerSecond, speeds.vyMetersPerSecond);
+    double yawRate = drive.getYawVelocityRadPerSec();
+
+    int acceptedCount = 0;
+    int rejectedCount = 0;
+    merger.reset();
+    VisionObservation observation;
+    while ((observation = merger.next(inputs)) != null) {
+      // Compare against where the robot was when the frame was captured, not where it is now
+      Pose2d referencePose = drive.getPoseAt(observation.timestamp).orElseGet(drive::getPose);
+      Optional<Vector<N3>> stdDevs =
+          trustModel.getStdDevs(
+              observation,
+              referencePose,
+              linearSpeed,
+              yawRate,
+              relocalizationGate.shouldSkipGate(observation, DriverStation.isDisabled()));
+      if (stdDevs.isPresent()) {
+        drive.addVisionMeasurement(observation.pose, observation.timestamp, stdDevs.get());
+        relocalizationGate.accepted();
+        acceptedCount++;
+      } else {
+        relocalizationGate.rejected(observation);
+        rejectedCount++;
+      }
+    }
+
+    Logger.recordOutput("Vision/TrustModel", trustModel.getName());
+    Logger.recordOutput("Vision/AcceptedCount", acceptedCount);
+    Logger.recordOutput("Vision/RejectedCount", rejectedCount);
+    periodicTimer.stop();
+    periodicAllocations.stop();
+  }
+}
@@ -0,0 +1,61 @@
+package frc.robot.subsystems.vision;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import frc.robot.subsystems.vision.AprilTagVisionIO.AprilTagVisionIOInputs;
+
+/**
+ * One AprilTag pose observation from a camera, with the per-tag data a {@link VisionTrustModel}
+ * scores it with. Instances are reused, the tag arrays may be longer than tagCount.
+ */
+public class VisionObservation {
+  public double timestamp;
+  public Pose2d pose = new Pose2d();
+  public int tagCount;
+  public double avgTagDistance;
+  public double avgTagArea;
+  public int[] tagIds = new int[4];
+  public double[] tagDistances = new double[4];
+  public double[] tagAmbiguities = new double[4];
+
+  /**
+   * Copies one observation out of a camera's inputs.
+   *
+   * @param inputs Camera inputs
+   * @param index Index of the observation
+   * @param tagStart Index of the observation's first tag in the flattened tag arrays
+   */
+  public void set(AprilTagVisionIOInputs inputs, int index, int tagStart) {
+    timestamp = inputs.timestamps[index];
+    pose = inputs.poses[index];
+    tagCount = inputs.tagCounts[index];
+    avgTagDistance = inputs.avgTagDistances[index];
+    avgTagArea = inputs.avgTagAreas[index];
+
+    if (tagIds.length < tagCount) {
+      tagIds = new int[tagCount];
+      tagDistances = new double[tagCount];
+      tagAmbiguities = new double[tagCount];
+    }
+    System.arraycopy(inputs.tagIds, tagStart, tagIds, 0, tagCount);
+    System.arraycopy(inputs.tagDistances, tagStart, tagDistances, 0, tagCount);
+    System.arraycopy(inputs.tagAmbiguities, tagStart, tagAmbiguities, 0, tagCount);
+  }
+
+  /** Returns the highest ambiguity of the observed tags. */
+  public double getMaxAmbiguity() {
+    double maxAmbiguity = 0.0;
+    for (int i = 0; i < tagCount; i++) {
+      maxAmbiguity = Math.max(maxAmbiguity, tagAmbiguities[i]);
+    }
+    return maxAmbiguity;
+  }
+
+  /** Returns the distance to the closest observed tag in meters. */
+  public double getMinTagDistance() {
+    double minDistance = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < tagCount; i++) {
+      minDistance = Math.min(minDistance, tagDistances[i]);
+    }
+    return tagCount > 0 ? minDistance : avgTagDistance;
+  }
+}
@@ -0,0 +1,58 @@
+package frc.robot.subsystems.vision;
+
+import frc.robot.subsystems.vision.AprilTagVisionIO.AprilTagVisionIOInputs;
+
+/**
+ * Walks the observations of several cameras in timestamp order. Each camera's observations are
+ * already in order, so this merges them by always taking the oldest remaining one.
+ */
+public class VisionObservationMerger {
+  private final int[] nextObservation;
+  private final int[] nextTag;
+  private final VisionObservation observation = new VisionObservation();
+
+  /**
+   * Create a new VisionObservationMerger
+   *
+   * @param cameraCount Number of cameras being merged
+   */
+  public VisionObservationMerger(int cameraCount) {
+    nextObservation = new int[cameraCount];
+    nextTag = new int[cameraCount];
+  }
+
+  /** Starts over from the first observation, call after the inputs were updated. */
+  public void reset() {
+    for (int i = 0; i < nextObservation.length; i++) {
+      nextObservation[i] = 0;
+      nextTag[i] = 0;
+    }
+  }
+
+  /**
+   * Returns the oldest observation that was not returned yet.
+   *
+   * @param inputs Inputs of every camera, in the same order each call
+   * @return The observation, or null if every observation was returned. The object is reused by the
+   *     next call.
+   */
+  public VisionObservation next(AprilTagVisionIOInputs[] inputs) {
+    int camera = -1;
+    double oldestTimestamp = Double.POSITIVE_INFINITY;
+    for (int i = 0; i < nextObservation.length; i++) {
+      if (nextObservation[i] < inputs[i].timestamps.length
+          && inputs[i].timestamps[nextObservation[i]] < oldestTimestamp) {
+        camera = i;
+        oldestTimestamp = inputs[i].timestamps[nextObservation[i]];
+      }
+    }
+    if (camera == -1) {
+      return null;
+    }
+
+    observation.set(inputs[camera], nextObservation[camera], nextTag[camera]);
+    nextObservation[camera]++;
+    nextTag[camera] += observation.tagCount;
+    return observation;
+  }
+}
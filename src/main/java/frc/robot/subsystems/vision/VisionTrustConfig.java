@@ -0,0 +1,154 @@
+package frc.robot.subsystems.vision;
+
+import edu.wpi.first.math.util.Units;
+
+/**
+ * Tuning for {@link TableVisionTrustModel}. Base standard deviations come from lookup tables keyed
+ * by average tag distance, and are then scaled up by ambiguity, robot speed and innovation.
+ *
+ * <p>Table rows are {average tag distance (m), x/y std dev (m), heading std dev (rad)}, sorted by
+ * distance. Distances outside the table use the first or last row.
+ */
+public class VisionTrustConfig {
+  private static final double NO_HEADING = Units.degreesToRadians(9999);
+
+  public static final VisionTrustConfig DEFAULT =
+      new VisionTrustConfig(
+          "Default",
+          new double[][] {
+            {1.0, 0.5, NO_HEADING},
+            {3.0, 1.5, NO_HEADING},
+            {5.0, 5.0, NO_HEADING}
+          },
+          new double[][] {
+            {1.0, 0.2, Units.degreesToRadians(5)},
+            {3.0, 0.5, Units.degreesToRadians(8)},
+            {6.0, 1.5, Units.degreesToRadians(20)}
+          },
+          0.3,
+          5.0,
+          Units.degreesToRadians(360),
+          0.5,
+          0.5,
+          1.0,
+          1.0);
+
+  public static final VisionTrustConfig CONSERVATIVE =
+      new VisionTrustConfig(
+          "Conservative",
+          new double[][] {
+            {1.0, 1.0, NO_HEADING},
+            {3.0, 4.0, NO_HEADING},
+            {4.0, 10.0, NO_HEADING}
+          },
+          new double[][] {
+            {1.0, 0.4, Units.degreesToRadians(8)},
+            {3.0, 0.8, Units.degreesToRadians(15)},
+            {6.0, 3.0, Units.degreesToRadians(40)}
+          },
+          0.15,
+          10.0,
+          Units.degreesToRadians(180),
+          1.0,
+          1.0,
+          0.5,
+          2.0);
+
+  public static final VisionTrustConfig AGGRESSIVE =
+      new VisionTrustConfig(
+          "Aggressive",
+          new double[][] {
+            {1.0, 0.3, NO_HEADING},
+            {3.0, 0.8, NO_HEADING},
+            {6.0, 2.5, NO_HEADING}
+          },
+          new double[][] {
+            {1.0, 0.1, Units.degreesToRadians(3)},
+            {3.0, 0.3, Units.degreesToRadians(5)},
+            {6.0, 0.8, Units.degreesToRadians(12)}
+          },
+          0.5,
+          2.0,
+          Units.degreesToRadians(720),
+          0.25,
+          0.25,
+          2.0,
+          0.5);
+
+  /** Configs compared by the evaluation harness. */
+  public static final VisionTrustConfig[] PRESETS = {DEFAULT, CONSERVATIVE, AGGRESSIVE};
+
+  public final String name;
+  public final double[][] singleTagTable;
+  public final double[][] multiTagTable;
+  /** Single tag observations above this ambiguity are rejected. */
+  public final double maxAmbiguity;
+  /** Std devs are multiplied by (1 + ambiguityGain * ambiguity) for single tag observations. */
+  public final double ambiguityGain;
+  /** Observations captured while spinning faster than this are rejected. */
+  public final double maxYawRateRadPerSec;
+  /** Std devs are multiplied by (1 + linearSpeedGain * speed + yawRateGain * |yaw rate|). */
+  public final double linearSpeedGain;
+
+  public final double yawRateGain;
+  /**
+   * Single tag observations further than this from the estimated pose are rejected, unless the gate
+   * is skipped, see {@link RelocalizationGate}.
+   */
+  public final double maxSingleTagInnovationMeters;
+  /** Std devs are multiplied by (1 + innovationGain * innovation). */
+  public final double innovationGain;
+
+  public VisionTrustConfig(
+      String name,
+      double[][] singleTagTable,
+      double[][] multiTagTable,
+      double maxAmbiguity,
+      double ambiguityGain,
+      double maxYawRateRadPerSec,
+      double linearSpeedGain,
+      double yawRateGain,
+      double maxSingleTagInnovationMeters,
+      double innovationGain) {
+    this.name = name;
+    this.singleTagTable = singleTagTable;
+    this.multiTagTable = multiTagTable;
+    this.maxAmbiguity = maxAmbiguity;
+    this.ambiguityGain = ambiguityGain;
+    this.maxYawRateRadPerSec = maxYawRateRadPerSec;
+    this.linearSpeedGain = linearSpeedGain;
+    this.yawRateGain = yawRateGain;
+    this.maxSingleTagInnovationMeters = maxSingleTagInnovationMeters;
+    this.innovationGain = innovationGain;
+  }
+
+  /**
+   * Returns a copy with every table std dev multiplied by a factor and a different innovation gain,
+   * for sweeping parameters during evaluation.
+   *
+   * @param name Name of the copy
+   * @param stdDevScale Factor applied to the std dev columns of both tables
+   * @param innovationGain Innovation gain of the copy
+   */
+  public VisionTrustConfig scaled(String name, double stdDevScale, double innovationGain) {
+    return new VisionTrustConfig(
+        name,
+        scaleTable(singleTagTable, stdDevScale),
+        scaleTable(multiTagTable, stdDevScale),
+        maxAmbiguity,
+        ambiguityGain,
+        maxYawRateRadPerSec,
+        linearSpeedGain,
+        yawRateGain,
+        maxSingleTagInnovationMeters,
+        innovationGain);
+  }
+
+  private static double[][] scaleTable(double[][] table, double scale) {
+    double[][] scaled = new double[table.length][];
+    for (int i = 0; i < table.length; i++) {
+      scaled[i] = new double[] {table[i][0], table[i][1] * scale, table[i][2] * scale};
+    }
+    return scaled;
+  }
+}
@@ -0,0 +1,31 @@
+package frc.robot.subsystems.vision;
+
+import edu.wpi.first.math.Vector;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.numbers.N3;
+import java.util.Optional;
+
+/** Decides how much the pose estimator should trust a vision observation. */
+public interface VisionTrustModel {
+  /**
+   * Scores a vision observation.
+   *
+   * @param observation The observation
+   * @param referencePose Estimated robot pose when the observation was captured
+   * @param linearSpeedMetersPerSec Measured linear speed of the robot
+   * @param yawRateRadPerSec Measured yaw rate of the robot
+   * @param skipGate Whether the estimate is suspect and the observation should not be rejected for
+   *     disagreeing with it, see {@link RelocalizationGate}
+   * @return Standard deviations of the observation (x and y in meters, heading in radians), empty
+   *     if it should be rejected
+   */
+  public Optional<Vector<N3>> getStdDevs(
+      VisionObservation observation,
+      Pose2d referencePose,
+      double linearSpeedMetersPerSec,
+      double yawRateRadPerSec,
+      boolean skipGate);
+
+  /** Returns the name used to identify this model in logs and evaluation results. */
+  public String getName();
+}
@@ -0,0 +1,52 @@
+package frc.robot.util;
+
+import java.lang.management.ManagementFactory;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Measures how many bytes the current thread allocates between {@link #start()} and {@link
+ * #stop()}, and logs the result under "LoopAllocations/{name}". Used to catch garbage being created
+ * in the code that runs every loop, since GC pauses on the RIO show up as loop overruns.
+ *
+ * <p>Relies on the HotSpot extension of {@link java.lang.management.ThreadMXBean}. If the JVM does
+ * not support per-thread allocation tracking, nothing is logged.
+ */
+public class AllocationCounter {
+  private static final com.sun.management.ThreadMXBean threadBean = getThreadBean();
+
+  private final String key;
+  private long startBytes = -1;
+
+  /**
+   * Create a new AllocationCounter
+   *
+   * @param name Name of the section being measured, usually the subsystem name
+   */
+  public AllocationCounter(String name) {
+    this.key = "LoopAllocations/" + name;
+  }
+
+  /** Marks the start of the measured section. */
+  public void start() {
+    if (threadBean != null) {
+      startBytes = threadBean.getCurrentThreadAllocatedBytes();
+    }
+  }
+
+  /** Marks the end of the measured section and logs the bytes allocated since {@link #start()}. */
+  public void stop() {
+    if (threadBean != null && startBytes >= 0) {
+      Logger.recordOutput(key, threadBean.getCurrentThreadAllocatedBytes() - startBytes);
+      startBytes = -1;
+    }
+  }
+
+  private static com.sun.management.ThreadMXBean getThreadBean() {
+    if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+        && bean.isThreadAllocatedMemorySupported()) {
+      bean.setThreadAllocatedMemoryEnabled(true);
+      return bean;
+    }
+    return null;
+  }
+}
@@ -0,0 +1,137 @@
+package frc.robot.util;
+
+import com.pathplanner.lib.auto.AutoBuilder;
+import com.pathplanner.lib.path.PathPlannerPath;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Loads every PathPlanner path in the deploy directory on a background thread while the robot is
+ * disabled, and generates each one's trajectory for both alliances. Paths are then handed out from
+ * memory by {@link #getPath(String)}, and the first path followed in auto doesn't pay for class
+ * loading, JSON parsing or running trajectory generation cold.
+ *
+ * <p>Autos added with {@link #addAuto(String)} are built by {@link AutoBuilder} on the main thread,
+ * one per disabled loop once the paths are warm, and handed out by {@link #getAuto(String)}.
+ * AutoBuilder parses the auto and its paths again itself, so that parsing stays on the main thread,
+ * but it runs with the JSON and trajectory code already loaded and compiled, and is done before
+ * auto starts. The auto commands themselves are not run here, since they drive the real subsystems
+ * and log, neither of which is safe off the main thread.
+ */
+public class AutoWarmup {
+  private static final String PATH_EXTENSION = ".path";
+
+  private static final Map<String, PathPlannerPath> paths = new ConcurrentHashMap<>();
+  // Only touched from the main thread
+  private static final Map<String, Command> autos = new HashMap<>();
+  private static final List<String> pendingAutos = new ArrayList<>();
+  private static Thread thread;
+  private static volatile boolean done = false;
+  private static volatile int warmedPaths = 0;
+  private static volatile int failedPaths = 0;
+  private static volatile double warmupSecs = 0.0;
+
+  private AutoWarmup() {}
+
+  /** Starts the warmup if it hasn't been started. Call once the robot is initialized. */
+  public static void start() {
+    if (thread != null) {
+      return;
+    }
+    thread = new Thread(AutoWarmup::run, "AutoWarmup");
+    thread.setDaemon(true);
+    thread.setPriority(Thread.MIN_PRIORITY);
+    thread.start();
+  }
+
+  /**
+   * Returns a path by name, from memory once the warmup has loaded it, otherwise loaded now.
+   *
+   * @param name Path file name without the extension
+   */
+  public static PathPlannerPath getPath(String name) {
+    return paths.computeIfAbsent(name, PathPlannerPath::fromPathFile);
+  }
+
+  /**
+   * Adds an auto to build once the paths are warm. Call once AutoBuilder is configured and the
+   * named commands are registered.
+   *
+   * @param name Auto file name without the extension
+   */
+  public static void addAuto(String name) {
+    pendingAutos.add(name);
+  }
+
+  /**
+   * Returns an auto by name, built now if the warmup hasn't built it yet. If the file can't be
+   * read, the error is reported to the driver station and the auto does nothing.
+   *
+   * @param name Auto file name without the extension
+   */
+  public static Command getAuto(String name) {
+    Command auto = autos.get(name);
+    if (auto == null) {
+      try {
+        auto = AutoBuilder.buildAuto(name);
+      } catch (RuntimeException e) {
+        DriverStation.reportError("Failed to build auto " + name + ": " + e.getMessage(), false);
+        auto = Commands.none();
+      }
+      autos.put(name, auto);
+      pendingAutos.remove(name);
+    }
+    return auto;
+  }
+
+  /**
+   * Builds at most one added auto once the paths are warm, and logs the progress. Call from the
+   * robot loop while disabled.
+   */
+  public static void periodic() {
+    if (done && !pendingAutos.isEmpty()) {
+      getAuto(pendingAutos.get(0));
+    }
+    Logger.recordOutput("AutoWarmup/Autos", autos.size());
+    Logger.recordOutput("AutoWarmup/Done", done);
+    Logger.recordOutput("AutoWarmup/Paths", warmedPaths);
+    Logger.recordOutput("AutoWarmup/FailedPaths", failedPaths);
+    Logger.recordOutput("AutoWarmup/Secs", warmupSecs);
+  }
+
+  private static void run() {
+    long start = System.nanoTime();
+    File[] files =
+        new File(Filesystem.getDeployDirectory(), "pathplanner/paths")
+            .listFiles((dir, name) -> name.endsWith(PATH_EXTENSION));
+    if (files != null) {
+      ChassisSpeeds stopped = new ChassisSpeeds();
+      for (File file : files) {
+        String name =
+            file.getName().substring(0, file.getName().length() - PATH_EXTENSION.length());
+        try {
+          PathPlannerPath path = getPath(name);
+          Rotation2d startRotation = path.getPreviewStartingHolonomicPose().getRotation();
+          path.getTrajectory(stopped, startRotation);
+          path.flipPath().getTrajectory(stopped, startRotation);
+          warmedPaths++;
+        } catch (RuntimeException e) {
+          failedPaths++;
+        }
+      }
+    }
+    warmupSecs = (System.nanoTime() - start) / 1e9;
+    done = true;
+  }
+}
@@ -0,0 +1,741 @@
+package frc.robot.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pathplanner.lib.path.GoalEndState;
+import com.pathplanner.lib.path.PathConstraints;
+import com.pathplanner.lib.path.PathPlannerPath;
+import com.pathplanner.lib.pathfinding.Pathfinder;
+import edu.wpi.first.math.Pair;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import frc.robot.Constants;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Grid pathfinder for PathPlanner's on-the-fly pathfinding, in place of its {@link
+ * com.pathplanner.lib.pathfinding.LocalADStar}.
+ *
+ * <p>The field is a grid of square nodes with the static obstacles from the PathPlanner navgrid,
+ * resampled to any node size. How far each node is from the nearest static obstacle or wall is
+ * computed once up front, and steps close to obstacles cost more, so paths keep their distance
+ * without the search having to look around. Dynamic obstacles are inflated by the drive base radius
+ * and blocked outright.
+ *
+ * <p>Planning runs A* on a worker thread. A search is abandoned as soon as a newer start or goal is
+ * set, or a new dynamic obstacle covers a node the search has already reached. Obstacles that
+ * change somewhere the search hasn't been let it finish, and it is checked against them once done.
+ * A search still running after {@link #MAX_PLAN_SECS} is paused so newer requests are picked up,
+ * and resumed from its open list and costs if the route and obstacles are unchanged, so a long
+ * search is never dropped. When only the obstacles change, the current path is kept as long as none
+ * of them is on it, and replanned from scratch once one is. The robot position that comes with each
+ * obstacle update doesn't trigger a replan by itself. The grid path is then shortened by cutting
+ * straight across wherever the way is clear and turned into a smooth bezier path.
+ */
+public class GridPathfinder implements Pathfinder {
+  public static final String NAVGRID_FILE = "pathplanner/navgrid.json";
+
+  // Steps closer than this to a static obstacle cost more, up to 1 + CLEARANCE_WEIGHT times
+  private static final double CLEARANCE_METERS = 0.6;
+  private static final double CLEARANCE_WEIGHT = 2.0;
+  private static final double MAX_PLAN_SECS = 0.5;
+  private static final int REQUEST_CHECK_EXPANSIONS = 1024;
+  private static final double SQRT_2 = Math.sqrt(2.0);
+
+  /** Static obstacles of the field, as drawn in PathPlanner. */
+  public static class NavGrid {
+    public final double fieldLength;
+    public final double fieldWidth;
+    public final double nodeSizeMeters;
+    // Indexed by row (y), then column (x)
+    public final boolean[][] blocked;
+
+    /**
+     * Create a new NavGrid
+     *
+     * @param fieldLength Field size in x
+     * @param fieldWidth Field size in y
+     * @param nodeSizeMeters Node size of the grid
+     * @param blocked Obstacle nodes by row (y), then column (x)
+     */
+    public NavGrid(
+        double fieldLength, double fieldWidth, double nodeSizeMeters, boolean[][] blocked) {
+      this.fieldLength = fieldLength;
+      this.fieldWidth = fieldWidth;
+      this.nodeSizeMeters = nodeSizeMeters;
+      this.blocked = blocked;
+    }
+
+    /** Returns whether a field position is in an obstacle or off the field. */
+    public boolean isBlocked(double x, double y) {
+      if (x < 0 || y < 0 || x >= fieldLength || y >= fieldWidth) {
+        return true;
+      }
+      int row = (int) (y / nodeSizeMeters);
+      int col = (int) (x / nodeSizeMeters);
+      return row < blocked.length && col < blocked[row].length && blocked[row][col];
+    }
+
+    /**
+     * Reads a PathPlanner navgrid file.
+     *
+     * @param file navgrid.json
+     */
+    public static NavGrid load(File file) throws IOException {
+      JsonNode json = new ObjectMapper().readTree(file);
+      JsonNode rows = json.get("grid");
+      boolean[][] blocked = new boolean[rows.size()][];
+      for (int row = 0; row < rows.size(); row++) {
+        JsonNode cols = rows.get(row);
+        blocked[row] = new boolean[cols.size()];
+        for (int col = 0; col < cols.size(); col++) {
+          blocked[row][col] = cols.get(col).asBoolean();
+        }
+      }
+      return new NavGrid(
+          json.get("field_size").get("x").asDouble(),
+          json.get("field_size").get("y").asDouble(),
+          json.get("nodeSizeMeters").asDouble(),
+          blocked);
+    }
+  }
+
+  private final double nodeSize;
+  private final int cols;
+  private final int rows;
+  private final boolean[] staticBlocked;
+  // Meters from each node to the nearest static obstacle or wall
+  private final double[] clearance;
+
+  // Planning state, only touched by the planning thread
+  private final boolean[] blocked;
+  private final double[] cost;
+  private final int[] parent;
+  private final int[] openStamp;
+  private final int[] closedStamp;
+  private int stamp = 0;
+  private int[] heapNodes = new int[1024];
+  private double[] heapKeys = new double[1024];
+  private int heapSize = 0;
+  // Search paused by the time limit, resumed by the next search for the same route and obstacles
+  private boolean searchPaused = false;
+  private int pausedRoute;
+  private List<Pair<Translation2d, Translation2d>> pausedObstacles;
+  private int pausedStartNode;
+  private int pausedGoalNode;
+  private long searchStartNanos;
+
+  // Requests from the robot loop
+  private final Object lock = new Object();
+  private Translation2d requestedStart = null;
+  private Translation2d requestedGoal = null;
+  private volatile List<Pair<Translation2d, Translation2d>> requestedObstacles =
+      Collections.emptyList();
+  private volatile int requestVersion = 0;
+  // Changes only when the start or goal is set, not with the robot position sent with obstacles
+  private volatile int routeVersion = 0;
+
+  // Last path planned and the route it was planned for, only touched by the planning thread
+  private List<Translation2d> pathWaypoints = Collections.emptyList();
+  private int pathRoute = -1;
+
+  private volatile List<Translation2d> currentBezierPoints = Collections.emptyList();
+  private volatile boolean newPathAvailable = false;
+  private volatile double lastPlanSecs = 0.0;
+  private Thread thread;
+
+  /** Create a new GridPathfinder over the deployed navgrid, planning on its own thread. */
+  public GridPathfinder() {
+    this(loadNavGrid(), Double.NaN);
+    thread = new Thread(this::run, "GridPathfinder");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Create a new GridPathfinder without a planning thread, for planning with {@link #plan}.
+   *
+   * @param navGrid Static obstacles
+   * @param nodeSizeMeters Node size to plan at, NaN for the navgrid's own
+   */
+  public GridPathfinder(NavGrid navGrid, double nodeSizeMeters) {
+    nodeSize = Double.isNaN(nodeSizeMeters) ? navGrid.nodeSizeMeters : nodeSizeMeters;
+    cols = (int) Math.ceil(navGrid.fieldLength / nodeSize);
+    rows = (int) Math.ceil(navGrid.fieldWidth / nodeSize);
+    int nodes = cols * rows;
+    staticBlocked = new boolean[nodes];
+    clearance = new double[nodes];
+    blocked = new boolean[nodes];
+    cost = new double[nodes];
+    parent = new int[nodes];
+    openStamp = new int[nodes];
+    closedStamp = new int[nodes];
+
+    for (int row = 0; row < rows; row++) {
+      for (int col = 0; col < cols; col++) {
+        int node = row * cols + col;
+        double x = getX(node);
+        double y = getY(node);
+        staticBlocked[node] = navGrid.isBlocked(x, y);
+        double wall =
+            Math.min(Math.min(x, navGrid.fieldLength - x), Math.min(y, navGrid.fieldWidth - y));
+        clearance[node] = staticBlocked[node] ? 0.0 : Math.max(wall, 0.0);
+      }
+    }
+    computeClearance();
+    System.arraycopy(staticBlocked, 0, blocked, 0, nodes);
+  }
+
+  /** Loads the deployed navgrid, or an empty field if it can't be read. */
+  public static NavGrid loadNavGrid() {
+    File file = new File(Filesystem.getDeployDirectory(), NAVGRID_FILE);
+    try {
+      return NavGrid.load(file);
+    } catch (IOException | RuntimeException e) {
+      DriverStation.reportError("Failed to load navgrid " + file + ": " + e.getMessage(), false);
+      return new NavGrid(16.54, 8.21, 0.3, new boolean[0][0]);
+    }
+  }
+
+  @Override
+  public boolean isNewPathAvailable() {
+    return newPathAvailable;
+  }
+
+  @Override
+  public PathPlannerPath getCurrentPath(PathConstraints constraints, GoalEndState goalEndState) {
+    newPathAvailable = false;
+    List<Translation2d> bezierPoints = currentBezierPoints;
+    if (bezierPoints.isEmpty()) {
+      return null;
+    }
+    return new PathPlannerPath(bezierPoints, constraints, goalEndState);
+  }
+
+  @Override
+  public void setStartPosition(Translation2d startPosition) {
+    synchronized (lock) {
+      requestedStart = startPosition;
+      routeVersion++;
+      requestVersion++;
+      lock.notifyAll();
+    }
+  }
+
+  @Override
+  public void setGoalPosition(Translation2d goalPosition) {
+    synchronized (lock) {
+      requestedGoal = goalPosition;
+      routeVersion++;
+      requestVersion++;
+      lock.notifyAll();
+    }
+  }
+
+  @Override
+  public void setDynamicObstacles(
+      List<Pair<Translation2d, Translation2d>> obs, Translation2d currentRobotPos) {
+    synchronized (lock) {
+      requestedStart = currentRobotPos;
+      if (!sameObstacles(obs, requestedObstacles)) {
+        requestedObstacles = List.copyOf(obs);
+        requestVersion++;
+        lock.notifyAll();
+      }
+    }
+  }
+
+  /** Returns how long the last completed plan took in seconds. */
+  public double getLastPlanSecs() {
+    return lastPlanSecs;
+  }
+
+  /**
+   * Blocks the nodes covered by dynamic obstacles, inflated by the drive base radius, on top of the
+   * static ones. Call from the thread that plans.
+   *
+   * @param obstacles Opposite corners of each obstacle's bounding box
+   */
+  public void setObstacles(List<Pair<Translation2d, Translation2d>> obstacles) {
+    System.arraycopy(staticBlocked, 0, blocked, 0, blocked.length);
+    for (Pair<Translation2d, Translation2d> obstacle : obstacles) {
+      int[] bounds = getBounds(obstacle);
+      for (int row = bounds[2]; row <= bounds[3]; row++) {
+        Arrays.fill(blocked, row * cols + bounds[0], row * cols + bounds[1] + 1, true);
+      }
+    }
+  }
+
+  /**
+   * Returns the columns and rows an obstacle covers once inflated by the drive base radius, as min
+   * column, max column, min row and max row.
+   */
+  private int[] getBounds(Pair<Translation2d, Translation2d> obstacle) {
+    double inflation = Constants.SwerveConstants.DRIVE_BASE_RADIUS;
+    Translation2d a = obstacle.getFirst();
+    Translation2d b = obstacle.getSecond();
+    return new int[] {
+      Math.max(0, (int) Math.floor((Math.min(a.getX(), b.getX()) - inflation) / nodeSize)),
+      Math.min(cols - 1, (int) Math.floor((Math.max(a.getX(), b.getX()) + inflation) / nodeSize)),
+      Math.max(0, (int) Math.floor((Math.min(a.getY(), b.getY()) - inflation) / nodeSize)),
+      Math.min(rows - 1, (int) Math.floor((Math.max(a.getY(), b.getY()) + inflation) / nodeSize))
+    };
+  }
+
+  /**
+   * Plans on the calling thread around the current obstacles.
+   *
+   * @param start Start position, moved to the nearest free node if it's in an obstacle
+   * @param goal Goal position, moved to the nearest free node if it's in an obstacle
+   * @return Waypoints from start to goal, empty if the goal can't be reached
+   */
+  public List<Translation2d> plan(Translation2d start, Translation2d goal) {
+    List<Translation2d> waypoints = search(start, goal, -1, null, Long.MAX_VALUE);
+    return waypoints == null ? Collections.emptyList() : waypoints;
+  }
+
+  /**
+   * Turns waypoints into bezier points, heading through each waypoint along the line between its
+   * neighbors.
+   *
+   * @param waypoints At least two waypoints
+   */
+  public static List<Translation2d> toBezierPoints(List<Translation2d> waypoints) {
+    int n = waypoints.size();
+    Pose2d[] poses = new Pose2d[n];
+    for (int i = 0; i < n; i++) {
+      Translation2d previous = waypoints.get(Math.max(i - 1, 0));
+      Translation2d next = waypoints.get(Math.min(i + 1, n - 1));
+      poses[i] = new Pose2d(waypoints.get(i), next.minus(previous).getAngle());
+    }
+    return PathPlannerPath.bezierFromPoses(poses);
+  }
+
+  private void run() {
+    int plannedVersion = -1;
+    List<Pair<Translation2d, Translation2d>> plannedObstacles = null;
+    while (true) {
+      Translation2d start;
+      Translation2d goal;
+      List<Pair<Translation2d, Translation2d>> obstacles;
+      int version;
+      int route;
+      synchronized (lock) {
+        while (requestVersion == plannedVersion
+            || requestedStart == null
+            || requestedGoal == null) {
+          try {
+            lock.wait();
+          } catch (InterruptedException e) {
+            return;
+          }
+        }
+        version = requestVersion;
+        route = routeVersion;
+        start = requestedStart;
+        goal = requestedGoal;
+        obstacles = requestedObstacles;
+      }
+      plannedVersion = version;
+
+      if (obstacles != plannedObstacles) {
+        setObstacles(obstacles);
+        plannedObstacles = obstacles;
+        // Only the obstacles changed, the path stands as long as none of them is on it
+        if (route == pathRoute && isPathFree(pathWaypoints)) {
+          continue;
+        }
+      }
+      List<Translation2d> waypoints =
+          search(start, goal, route, obstacles, System.nanoTime() + (long) (MAX_PLAN_SECS * 1e9));
+      if (waypoints == null) {
+        if (searchPaused) {
+          // Out of time, take the request again so the search resumes after any newer one
+          plannedVersion = -1;
+        }
+        continue;
+      }
+      if (waypoints.isEmpty()) {
+        continue;
+      }
+      pathWaypoints = waypoints;
+      pathRoute = route;
+      currentBezierPoints = toBezierPoints(waypoints);
+      lastPlanSecs = (System.nanoTime() - searchStartNanos) / 1e9;
+      newPathAvailable = true;
+    }
+  }
+
+  /**
+   * A* from start to goal, then shortened. Returns null if abandoned for a newer route or a new
+   * obstacle where it has searched, or paused out of time, empty if the goal can't be reached.
+   * Resumes the paused search instead of starting over if it was for the same route, obstacles and
+   * goal.
+   *
+   * @param route Route version the search is for, -1 to never abandon or resume it
+   * @param obstacles Dynamic obstacles the search is planning around
+   */
+  private List<Translation2d> search(
+      Translation2d start,
+      Translation2d goal,
+      int route,
+      List<Pair<Translation2d, Translation2d>> obstacles,
+      long deadlineNanos) {
+    int startNode = nearestFree(getNode(start));
+    int goalNode = nearestFree(getNode(goal));
+    boolean resume =
+        searchPaused
+            && route >= 0
+            && route == pausedRoute
+            && obstacles == pausedObstacles
+            && goalNode == pausedGoalNode;
+    searchPaused = false;
+    if (resume) {
+      // The robot has moved on since, but the search carries on from where it started
+      startNode = pausedStartNode;
+    } else {
+      if (startNode < 0 || goalNode < 0) {
+        return Collections.emptyList();
+      }
+      searchStartNanos = System.nanoTime();
+      stamp++;
+      heapSize = 0;
+      cost[startNode] = 0.0;
+      parent[startNode] = -1;
+      openStamp[startNode] = stamp;
+      push(startNode, heuristic(startNode, goalNode));
+    }
+    int expansions = 0;
+    boolean found = false;
+    while (heapSize > 0) {
+      // Checked before popping, so a paused search has every closed node expanded
+      if (++expansions % REQUEST_CHECK_EXPANSIONS == 0) {
+        if (route >= 0 && (routeVersion != route || isNewObstacleReached(obstacles))) {
+          return null;
+        }
+        if (System.nanoTime() > deadlineNanos) {
+          searchPaused = true;
+          pausedRoute = route;
+          pausedObstacles = obstacles;
+          pausedStartNode = startNode;
+          pausedGoalNode = goalNode;
+          return null;
+        }
+      }
+      int node = pop();
+      if (closedStamp[node] == stamp) {
+        continue;
+      }
+      closedStamp[node] = stamp;
+      if (node == goalNode) {
+        found = true;
+        break;
+      }
+
+      int row = node / cols;
+      int col = node % cols;
+      for (int dRow = -1; dRow <= 1; dRow++) {
+        for (int dCol = -1; dCol <= 1; dCol++) {
+          if (dRow == 0 && dCol == 0) {
+            continue;
+          }
+          int nextRow = row + dRow;
+          int nextCol = col + dCol;
+          if (nextRow < 0 || nextRow >= rows || nextCol < 0 || nextCol >= cols) {
+            continue;
+          }
+          int next = nextRow * cols + nextCol;
+          if (blocked[next] || closedStamp[next] == stamp) {
+            continue;
+          }
+          boolean diagonal = dRow != 0 && dCol != 0;
+          // Don't cut the corner of an obstacle
+          if (diagonal && (blocked[row * cols + nextCol] || blocked[nextRow * cols + col])) {
+            continue;
+          }
+          double penalty = Math.max(0.0, 1.0 - clearance[next] / CLEARANCE_METERS);
+          double nextCost =
+              cost[node]
+                  + (diagonal ? SQRT_2 : 1.0) * nodeSize * (1.0 + CLEARANCE_WEIGHT * penalty);
+          if (openStamp[next] != stamp || nextCost < cost[next]) {
+            openStamp[next] = stamp;
+            cost[next] = nextCost;
+            parent[next] = node;
+            push(next, nextCost + heuristic(next, goalNode));
+          }
+        }
+      }
+    }
+    if (!found) {
+      return Collections.emptyList();
+    }
+
+    List<Integer> nodes = new ArrayList<>();
+    for (int node = goalNode; node >= 0; node = parent[node]) {
+      nodes.add(node);
+    }
+    Collections.reverse(nodes);
+    return shorten(nodes, start, goal, startNode, goalNode);
+  }
+
+  /**
+   * Returns whether the latest requested obstacles include one the search isn't planning around
+   * that covers a node the search has already reached.
+   */
+  private boolean isNewObstacleReached(List<Pair<Translation2d, Translation2d>> obstacles) {
+    List<Pair<Translation2d, Translation2d>> latest = requestedObstacles;
+    if (latest == obstacles) {
+      return false;
+    }
+    for (Pair<Translation2d, Translation2d> obstacle : latest) {
+      if (containsObstacle(obstacles, obstacle)) {
+        continue;
+      }
+      int[] bounds = getBounds(obstacle);
+      for (int row = bounds[2]; row <= bounds[3]; row++) {
+        for (int col = bounds[0]; col <= bounds[1]; col++) {
+          if (openStamp[row * cols + col] == stamp) {
+            return true;
+          }
+        }
+      }
+    }
+    return false;
+  }
+
+  /** Returns whether no segment between waypoints crosses a node blocked by a dynamic obstacle. */
+  private boolean isPathFree(List<Translation2d> waypoints) {
+    for (int i = 0; i < waypoints.size() - 1; i++) {
+      Translation2d from = waypoints.get(i);
+      Translation2d to = waypoints.get(i + 1);
+      double dx = to.getX() - from.getX();
+      double dy = to.getY() - from.getY();
+      int steps = (int) Math.ceil(Math.hypot(dx, dy) / (nodeSize / 2.0));
+      for (int step = 0; step <= steps; step++) {
+        double t = steps == 0 ? 0.0 : (double) step / steps;
+        int node = getNode(from.getX() + dx * t, from.getY() + dy * t);
+        if (node >= 0 && blocked[node] && !staticBlocked[node]) {
+          return false;
+        }
+      }
+    }
+    return !waypoints.isEmpty();
+  }
+
+  private static boolean sameObstacles(
+      List<Pair<Translation2d, Translation2d>> a, List<Pair<Translation2d, Translation2d>> b) {
+    if (a.size() != b.size()) {
+      return false;
+    }
+    for (int i = 0; i < a.size(); i++) {
+      if (!sameObstacle(a.get(i), b.get(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean containsObstacle(
+      List<Pair<Translation2d, Translation2d>> obstacles,
+      Pair<Translation2d, Translation2d> obstacle) {
+    for (Pair<Translation2d, Translation2d> other : obstacles) {
+      if (sameObstacle(other, obstacle)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean sameObstacle(
+      Pair<Translation2d, Translation2d> a, Pair<Translation2d, Translation2d> b) {
+    return a.getFirst().equals(b.getFirst()) && a.getSecond().equals(b.getSecond());
+  }
+
+  /** Keeps only the nodes the path has to turn at, cutting straight across where it's clear. */
+  private List<Translation2d> shorten(
+      List<Integer> nodes, Translation2d start, Translation2d goal, int startNode, int goalNode) {
+    List<Translation2d> waypoints = new ArrayList<>();
+    waypoints.add(getNode(start) == startNode ? start : getPosition(startNode));
+    int anchor = 0;
+    while (anchor < nodes.size() - 1) {
+      int furthest = anchor + 1;
+      for (int i = nodes.size() - 1; i > anchor + 1; i--) {
+        if (isClear(nodes.get(anchor), nodes.get(i))) {
+          furthest = i;
+          break;
+        }
+      }
+      anchor = furthest;
+      if (anchor < nodes.size() - 1) {
+        waypoints.add(getPosition(nodes.get(anchor)));
+      }
+    }
+    waypoints.add(getNode(goal) == goalNode ? goal : getPosition(goalNode));
+    return waypoints;
+  }
+
+  /**
+   * Returns whether the straight line between two nodes is free and doesn't pass closer to static
+   * obstacles than either end, or the clearance distance.
+   */
+  private boolean isClear(int from, int to) {
+    double minClearance = Math.min(CLEARANCE_METERS, Math.min(clearance[from], clearance[to]));
+    double x0 = getX(from);
+    double y0 = getY(from);
+    double dx = getX(to) - x0;
+    double dy = getY(to) - y0;
+    int steps = (int) Math.ceil(Math.hypot(dx, dy) / (nodeSize / 2.0));
+    for (int i = 1; i < steps; i++) {
+      double t = (double) i / steps;
+      int node = getNode(x0 + dx * t, y0 + dy * t);
+      if (node < 0 || blocked[node] || clearance[node] < minClearance) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Two pass chamfer distance transform, seeded with the wall distance and 0 at obstacles. */
+  private void computeClearance() {
+    double diagonal = SQRT_2 * nodeSize;
+    for (int row = 0; row < rows; row++) {
+      for (int col = 0; col < cols; col++) {
+        int node = row * cols + col;
+        double d = clearance[node];
+        if (col > 0) d = Math.min(d, clearance[node - 1] + nodeSize);
+        if (row > 0) d = Math.min(d, clearance[node - cols] + nodeSize);
+        if (row > 0 && col > 0) d = Math.min(d, clearance[node - cols - 1] + diagonal);
+        if (row > 0 && col < cols - 1) d = Math.min(d, clearance[node - cols + 1] + diagonal);
+        clearance[node] = d;
+      }
+    }
+    for (int row = rows - 1; row >= 0; row--) {
+      for (int col = cols - 1; col >= 0; col--) {
+        int node = row * cols + col;
+        double d = clearance[node];
+        if (col < cols - 1) d = Math.min(d, clearance[node + 1] + nodeSize);
+        if (row < rows - 1) d = Math.min(d, clearance[node + cols] + nodeSize);
+        if (row < rows - 1 && col < cols - 1)
+          d = Math.min(d, clearance[node + cols + 1] + diagonal);
+        if (row < rows - 1 && col > 0) d = Math.min(d, clearance[node + cols - 1] + diagonal);
+        clearance[node] = d;
+      }
+    }
+  }
+
+  /** Returns the nearest node that isn't blocked, searching outward ring by ring, or -1. */
+  private int nearestFree(int node) {
+    if (node < 0) {
+      return -1;
+    }
+    if (!blocked[node]) {
+      return node;
+    }
+    int row = node / cols;
+    int col = node % cols;
+    for (int radius = 1; radius < Math.max(rows, cols); radius++) {
+      int best = -1;
+      double bestDistance = Double.POSITIVE_INFINITY;
+      for (int r = row - radius; r <= row + radius; r++) {
+        for (int c = col - radius; c <= col + radius; c++) {
+          boolean onRing = Math.abs(r - row) == radius || Math.abs(c - col) == radius;
+          if (!onRing || r < 0 || r >= rows || c < 0 || c >= cols || blocked[r * cols + c]) {
+            continue;
+          }
+          double distance = Math.hypot(r - row, c - col);
+          if (distance < bestDistance) {
+            bestDistance = distance;
+            best = r * cols + c;
+          }
+        }
+      }
+      if (best >= 0) {
+        return best;
+      }
+    }
+    return -1;
+  }
+
+  /** Octile distance, never more than the cost of the best path since steps cost at least this. */
+  private double heuristic(int node, int goal) {
+    int dRow = Math.abs(node / cols - goal / cols);
+    int dCol = Math.abs(node % cols - goal % cols);
+    return nodeSize * (Math.max(dRow, dCol) + (SQRT_2 - 1.0) * Math.min(dRow, dCol));
+  }
+
+  private void push(int node, double key) {
+    if (heapSize == heapNodes.length) {
+      heapNodes = Arrays.copyOf(heapNodes, heapSize * 2);
+      heapKeys = Arrays.copyOf(heapKeys, heapSize * 2);
+    }
+    int i = heapSize++;
+    while (i > 0) {
+      int up = (i - 1) / 2;
+      if (heapKeys[up] <= key) {
+        break;
+      }
+      heapNodes[i] = heapNodes[up];
+      heapKeys[i] = heapKeys[up];
+      i = up;
+    }
+    heapNodes[i] = node;
+    heapKeys[i] = key;
+  }
+
+  private int pop() {
+    int top = heapNodes[0];
+    int lastNode = heapNodes[--heapSize];
+    double lastKey = heapKeys[heapSize];
+    int i = 0;
+    while (true) {
+      int child = 2 * i + 1;
+      if (child >= heapSize) {
+        break;
+      }
+      if (child + 1 < heapSize && heapKeys[child + 1] < heapKeys[child]) {
+        child++;
+      }
+      if (heapKeys[child] >= lastKey) {
+        break;
+      }
+      heapNodes[i] = heapNodes[child];
+      heapKeys[i] = heapKeys[child];
+      i = child;
+    }
+    heapNodes[i] = lastNode;
+    heapKeys[i] = lastKey;
+    return top;
+  }
+
+  private int getNode(Translation2d position) {
+    return getNode(position.getX(), position.getY());
+  }
+
+  private int getNode(double x, double y) {
+    int col = (int) Math.floor(x / nodeSize);
+    int row = (int) Math.floor(y / nodeSize);
+    if (row < 0 || row >= rows || col < 0 || col >= cols) {
+      return -1;
+    }
+    return row * cols + col;
+  }
+
+  private double getX(int node) {
+    return (node % cols + 0.5) * nodeSize;
+  }
+
+  private double getY(int node) {
+    return (node / cols + 0.5) * nodeSize;
+  }
+
+  private Translation2d getPosition(int node) {
+    return new Translation2d(getX(node), getY(node));
+  }
+}
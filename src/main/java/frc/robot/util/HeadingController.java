@@ -0,0 +1,136 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.controller.ProfiledPIDController;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import frc.robot.Constants;
+import frc.robot.Constants.SwerveConstants;
+
+/**
+ * Holds the robot heading on a target for the turn and aim commands. The error is closed with a
+ * {@link ProfiledPIDController} in radians, and the rate the target heading itself is moving at is
+ * fed forward, so a robot driving past a field point keeps pointing at it instead of lagging
+ * behind. For a field point that rate comes from {@link #getPointingRateRadPerSec}.
+ *
+ * <p>The heading is ready once both the angle error and the difference between the measured yaw
+ * rate and the feedforward are within tolerance, so a heading that's only passing through the
+ * target doesn't count.
+ */
+public class HeadingController {
+  private final ProfiledPIDController controller;
+  private final double angleToleranceRad;
+  private final double rateToleranceRadPerSec =
+      Math.toRadians(SwerveConstants.HEADING_RATE_TOLERANCE_DEG_PER_SEC);
+  private final TrapezoidProfile.State goal = new TrapezoidProfile.State();
+
+  private double angleErrorRad = Double.POSITIVE_INFINITY;
+  private double rateErrorRadPerSec = Double.POSITIVE_INFINITY;
+
+  /**
+   * Create a new HeadingController
+   *
+   * @param kP Proportional gain, rad/s per rad of error
+   * @param kD Derivative gain
+   * @param angleToleranceDeg Angle error the heading counts as ready within
+   */
+  public HeadingController(double kP, double kD, double angleToleranceDeg) {
+    controller =
+        new ProfiledPIDController(
+            kP,
+            0.0,
+            kD,
+            new TrapezoidProfile.Constraints(
+                SwerveConstants.MAX_ANGULAR_SPEED, SwerveConstants.MAX_ANGULAR_ACCELERATION),
+            Constants.LOOP_PERIOD_SECS);
+    controller.enableContinuousInput(-Math.PI, Math.PI);
+    angleToleranceRad = Math.toRadians(angleToleranceDeg);
+  }
+
+  /**
+   * Restarts the profile from the robot's current motion. Call when the command starts.
+   *
+   * @param heading Current robot heading
+   * @param yawRateRadPerSec Current yaw rate
+   */
+  public void reset(Rotation2d heading, double yawRateRadPerSec) {
+    controller.reset(heading.getRadians(), yawRateRadPerSec);
+    angleErrorRad = Double.POSITIVE_INFINITY;
+    rateErrorRadPerSec = Double.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Returns the angular velocity to command for a heading that isn't moving.
+   *
+   * @param heading Current robot heading
+   * @param yawRateRadPerSec Measured yaw rate
+   * @param targetRad Target heading
+   */
+  public double calculate(Rotation2d heading, double yawRateRadPerSec, double targetRad) {
+    return calculate(heading, yawRateRadPerSec, targetRad, 0.0);
+  }
+
+  /**
+   * Returns the angular velocity to command toward a target heading.
+   *
+   * @param heading Current robot heading
+   * @param yawRateRadPerSec Measured yaw rate
+   * @param targetRad Target heading
+   * @param feedforwardRadPerSec Rate the target heading is moving at
+   */
+  public double calculate(
+      Rotation2d heading, double yawRateRadPerSec, double targetRad, double feedforwardRadPerSec) {
+    double measurement = heading.getRadians();
+    goal.position = MathUtil.angleModulus(targetRad);
+    goal.velocity = feedforwardRadPerSec;
+    double output = controller.calculate(measurement, goal) + controller.getSetpoint().velocity;
+
+    angleErrorRad = MathUtil.angleModulus(targetRad - measurement);
+    rateErrorRadPerSec = feedforwardRadPerSec - yawRateRadPerSec;
+    return MathUtil.clamp(
+        output, -SwerveConstants.MAX_ANGULAR_SPEED, SwerveConstants.MAX_ANGULAR_SPEED);
+  }
+
+  /** Returns whether the heading is on target and turning with it. */
+  public boolean isReady() {
+    return Math.abs(angleErrorRad) <= angleToleranceRad
+        && Math.abs(rateErrorRadPerSec) <= rateToleranceRadPerSec;
+  }
+
+  /** Returns the angle error of the last calculation in radians. */
+  public double getAngleErrorRad() {
+    return angleErrorRad;
+  }
+
+  /** Returns the yaw rate error of the last calculation in radians per sec. */
+  public double getRateErrorRadPerSec() {
+    return rateErrorRadPerSec;
+  }
+
+  /**
+   * Returns how fast the bearing from the robot to a field point turns while the robot translates,
+   * the feedforward that keeps the robot pointed at it.
+   *
+   * @param robotX Robot x in meters
+   * @param robotY Robot y in meters
+   * @param vxMetersPerSec Field-relative x velocity
+   * @param vyMetersPerSec Field-relative y velocity
+   * @param targetX Target x in meters
+   * @param targetY Target y in meters
+   */
+  public static double getPointingRateRadPerSec(
+      double robotX,
+      double robotY,
+      double vxMetersPerSec,
+      double vyMetersPerSec,
+      double targetX,
+      double targetY) {
+    double dx = targetX - robotX;
+    double dy = targetY - robotY;
+    double distanceSquared = dx * dx + dy * dy;
+    if (distanceSquared < 1e-6) {
+      return 0.0;
+    }
+    return (dy * vxMetersPerSec - dx * vyMetersPerSec) / distanceSquared;
+  }
+}
@@ -9,6 +9,7 @@ import com.pathplanner.lib.pathfinding.Pathfinder;
 import edu.wpi.first.math.Pair;
 import edu.wpi.first.math.geometry.Translation2d;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import org.littletonrobotics.junction.LogTable;
@@ -19,7 +20,27 @@ import org.littletonrobotics.junction.inputs.LoggableInputs;
 // https://gist.github.com/mjansen4857/a8024b55eb427184dbd10ae8923bd57d
 
 public class LocalADStarAK implements Pathfinder {
-  private final ADStarIO io = new ADStarIO();
+  private final ADStarIO io;
+
+  // Path built from the current points, rebuilt only when the revision or end conditions change
+  private PathPlannerPath cachedPath = null;
+  private long cachedRevision = -1;
+  private PathConstraints cachedConstraints = null;
+  private GoalEndState cachedGoalEndState = null;
+
+  /** Create a new LocalADStarAK logging PathPlanner's {@link LocalADStar}. */
+  public LocalADStarAK() {
+    this(new LocalADStar());
+  }
+
+  /**
+   * Create a new LocalADStarAK
+   *
+   * @param pathfinder Pathfinder whose paths are logged and replayed
+   */
+  public LocalADStarAK(Pathfinder pathfinder) {
+    io = new ADStarIO(pathfinder);
+  }
 
   /**
    * Get if a new path has been calculated since the last time a path was retrieved
@@ -28,7 +49,7 @@ public class LocalADStarAK implements Pathfinder {
    */
   @Override
   public boolean isNewPathAvailable() {
-    if (Logger.hasReplaySource()) {
+    if (!Logger.hasReplaySource()) {
       io.updateIsNewPathAvailable();
     }
 
@@ -46,7 +67,7 @@ public class LocalADStarAK implements Pathfinder {
    */
   @Override
   public PathPlannerPath getCurrentPath(PathConstraints constraints, GoalEndState goalEndState) {
-    if (Logger.hasReplaySource()) {
+    if (!Logger.hasReplaySource()) {
       io.updateCurrentPathPoints(constraints, goalEndState);
     }
 
@@ -56,7 +77,16 @@ public class LocalADStarAK implements Pathfinder {
       return null;
     }
 
-    return PathPlannerPath.fromPathPoints(io.currentPathPoints, constraints, goalEndState);
+    if (cachedPath == null
+        || cachedRevision != io.pathRevision
+        || !constraints.equals(cachedConstraints)
+        || !goalEndState.equals(cachedGoalEndState)) {
+      cachedPath = PathPlannerPath.fromPathPoints(io.currentPathPoints, constraints, goalEndState);
+      cachedRevision = io.pathRevision;
+      cachedConstraints = constraints;
+      cachedGoalEndState = goalEndState;
+    }
+    return cachedPath;
   }
 
   /**
@@ -67,7 +97,7 @@ public class LocalADStarAK implements Pathfinder {
    */
   @Override
   public void setStartPosition(Translation2d startPosition) {
-    if (Logger.hasReplaySource()) {
+    if (!Logger.hasReplaySource()) {
       io.adStar.setStartPosition(startPosition);
     }
   }
@@ -80,7 +110,7 @@ public class LocalADStarAK implements Pathfinder {
    */
   @Override
   public void setGoalPosition(Translation2d goalPosition) {
-    if (Logger.hasReplaySource()) {
+    if (!Logger.hasReplaySource()) {
       io.adStar.setGoalPosition(goalPosition);
     }
   }
@@ -99,39 +129,42 @@ public class LocalADStarAK implements Pathfinder {
     io.adStar.setDynamicObstacles(obs, currentRobotPos);
   }
 
+  /**
+   * Pathfinder state as logged inputs. Path points are logged as floats, the first point absolute
+   * and the rest as the change from the one before, with a revision that goes up each time the path
+   * changes. Unchanged paths keep the same array and point list, so they're neither re-encoded nor
+   * rebuilt, and the robot follows the decoded points so it drives the same path replay sees.
+   */
   private static class ADStarIO implements LoggableInputs {
-    public LocalADStar adStar = new LocalADStar();
+    private static final float[] NO_POINTS = new float[0];
+
+    public final Pathfinder adStar;
     public boolean isNewPathAvailable = false;
+    public long pathRevision = 0;
+    public float[] pathPointDeltas = NO_POINTS;
     public List<PathPoint> currentPathPoints = Collections.emptyList();
+    private long decodedRevision = 0;
+
+    public ADStarIO(Pathfinder adStar) {
+      this.adStar = adStar;
+    }
 
     @Override
     public void toLog(LogTable table) {
       table.put("IsNewPathAvailable", isNewPathAvailable);
-
-      double[] pointsLogged = new double[currentPathPoints.size() * 2];
-      int idx = 0;
-      for (PathPoint point : currentPathPoints) {
-        pointsLogged[idx] = point.position.getX();
-        pointsLogged[idx + 1] = point.position.getY();
-        idx += 2;
-      }
-
-      table.put("CurrentPathPoints", pointsLogged);
+      table.put("PathRevision", pathRevision);
+      table.put("CurrentPathPointDeltas", pathPointDeltas);
     }
 
     @Override
     public void fromLog(LogTable table) {
       isNewPathAvailable = table.get("IsNewPathAvailable", false);
-
-      double[] pointsLogged = table.get("CurrentPathPoints", new double[0]);
-
-      List<PathPoint> pathPoints = new ArrayList<>();
-      for (int i = 0; i < pointsLogged.length; i += 2) {
-        pathPoints.add(
-            new PathPoint(new Translation2d(pointsLogged[i], pointsLogged[i + 1]), null));
+      pathRevision = table.get("PathRevision", 0L);
+      if (pathRevision != decodedRevision) {
+        pathPointDeltas = table.get("CurrentPathPointDeltas", NO_POINTS);
+        currentPathPoints = decode(pathPointDeltas);
+        decodedRevision = pathRevision;
       }
-
-      currentPathPoints = pathPoints;
     }
 
     public void updateIsNewPathAvailable() {
@@ -141,11 +174,43 @@ public class LocalADStarAK implements Pathfinder {
     public void updateCurrentPathPoints(PathConstraints constraints, GoalEndState goalEndState) {
       PathPlannerPath currentPath = adStar.getCurrentPath(constraints, goalEndState);
 
-      if (currentPath != null) {
-        currentPathPoints = currentPath.getAllPathPoints();
-      } else {
-        currentPathPoints = Collections.emptyList();
+      float[] deltas = currentPath != null ? encode(currentPath.getAllPathPoints()) : NO_POINTS;
+      if (!Arrays.equals(deltas, pathPointDeltas)) {
+        pathPointDeltas = deltas;
+        pathRevision++;
+        currentPathPoints = decode(deltas);
+        decodedRevision = pathRevision;
+      }
+    }
+
+    /**
+     * Deltas are taken from the previous decoded point rather than the exact one, so rounding
+     * doesn't build up along the path.
+     */
+    private static float[] encode(List<PathPoint> points) {
+      float[] deltas = new float[points.size() * 2];
+      float x = 0.0f;
+      float y = 0.0f;
+      for (int i = 0; i < points.size(); i++) {
+        Translation2d position = points.get(i).position;
+        deltas[2 * i] = (float) (position.getX() - x);
+        deltas[2 * i + 1] = (float) (position.getY() - y);
+        x += deltas[2 * i];
+        y += deltas[2 * i + 1];
+      }
+      return deltas;
+    }
+
+    private static List<PathPoint> decode(float[] deltas) {
+      List<PathPoint> points = new ArrayList<>(deltas.length / 2);
+      float x = 0.0f;
+      float y = 0.0f;
+      for (int i = 0; i + 1 < deltas.length; i += 2) {
+        x += deltas[i];
+        y += deltas[i + 1];
+        points.add(new PathPoint(new Translation2d(x, y), null));
       }
+      return points;
     }
   }
 }
@@ -0,0 +1,106 @@
+package frc.robot.util;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.WrapperCommand;
+import frc.robot.Constants;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the {@link LoopTimer}s of the robot loop. Subsystems time their periodic, IO
+ * updateInputs and processInputs calls, commands bound in RobotContainer are wrapped with {@link
+ * #profile(String, Command)} to time execute and isFinished, and {@link #periodic()} closes out
+ * each loop. Percentiles are published once a second so the logging itself stays off the critical
+ * path.
+ *
+ * <p>Profiling is controlled by {@link Constants#loopProfiling} and always turns itself off while
+ * connected to the FMS.
+ */
+public class LoopProfiler {
+  private static final int PUBLISH_PERIOD_LOOPS = 50;
+
+  private static final List<LoopTimer> timers = new ArrayList<>();
+  private static final Map<Command, Command> profiledCommands = new HashMap<>();
+  private static boolean enabled = Constants.loopProfiling;
+  private static int loopsSincePublish = 0;
+
+  private LoopProfiler() {}
+
+  static void register(LoopTimer timer) {
+    timers.add(timer);
+  }
+
+  /** Returns whether timers are currently measuring. */
+  public static boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Records the sections that ran this loop, and publishes the percentiles every {@link
+   * #PUBLISH_PERIOD_LOOPS} loops. Call once at the end of robotPeriodic.
+   */
+  public static void periodic() {
+    boolean wasEnabled = enabled;
+    enabled = Constants.loopProfiling && !DriverStation.isFMSAttached();
+    if (!enabled) {
+      if (wasEnabled) {
+        for (int i = 0; i < timers.size(); i++) {
+          timers.get(i).reset();
+        }
+      }
+      return;
+    }
+
+    for (int i = 0; i < timers.size(); i++) {
+      timers.get(i).endLoop();
+    }
+    if (++loopsSincePublish >= PUBLISH_PERIOD_LOOPS) {
+      loopsSincePublish = 0;
+      for (int i = 0; i < timers.size(); i++) {
+        timers.get(i).publish();
+      }
+    }
+  }
+
+  /**
+   * Wraps a command so its execute and isFinished calls are timed under
+   * "LoopTimes/Commands/{name}/...". Wrapping the same command again returns the same wrapper,
+   * since a command can only be composed once.
+   *
+   * @param name Name to log the command under, usually the binding it's scheduled from
+   * @param command The command to time, which can't be scheduled on its own afterwards
+   * @return The wrapped command
+   */
+  public static Command profile(String name, Command command) {
+    return profiledCommands.computeIfAbsent(command, c -> new ProfiledCommand(name, c));
+  }
+
+  private static class ProfiledCommand extends WrapperCommand {
+    private final LoopTimer executeTimer;
+    private final LoopTimer isFinishedTimer;
+
+    private ProfiledCommand(String name, Command command) {
+      super(command);
+      executeTimer = new LoopTimer("Commands/" + name + "/Execute");
+      isFinishedTimer = new LoopTimer("Commands/" + name + "/IsFinished");
+    }
+
+    @Override
+    public void execute() {
+      executeTimer.start();
+      m_command.execute();
+      executeTimer.stop();
+    }
+
+    @Override
+    public boolean isFinished() {
+      isFinishedTimer.start();
+      boolean finished = m_command.isFinished();
+      isFinishedTimer.stop();
+      return finished;
+    }
+  }
+}
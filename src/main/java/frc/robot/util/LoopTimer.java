@@ -0,0 +1,120 @@
+package frc.robot.util;
+
+import java.util.Arrays;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Measures how long a section of the robot loop takes, accumulated over every {@link #start()} and
+ * {@link #stop()} pair in a loop, and keeps the per-loop totals in a fixed size histogram. The
+ * median, 99th percentile and maximum are published by {@link LoopProfiler} under
+ * "LoopTimes/{name}". Measuring and recording don't allocate, so the timer doesn't add garbage to
+ * the loop it measures.
+ *
+ * <p>The histogram has 1 us bins up to 1 ms and 20 us bins up to 21 ms, anything longer is only
+ * reflected in the maximum.
+ */
+public class LoopTimer {
+  private static final long FINE_BIN_NANOS = 1_000;
+  private static final int FINE_BINS = 1_000;
+  private static final long COARSE_BIN_NANOS = 20_000;
+  private static final int COARSE_BINS = 1_000;
+  private static final long FINE_LIMIT_NANOS = FINE_BIN_NANOS * FINE_BINS;
+
+  private final String p50Key;
+  private final String p99Key;
+  private final String maxKey;
+  private final long[] bins = new long[FINE_BINS + COARSE_BINS + 1];
+  private long sampleCount = 0;
+  private long maxNanos = 0;
+
+  private long startNanos = -1;
+  private long loopNanos = 0;
+  private boolean ranThisLoop = false;
+
+  /**
+   * Create a new LoopTimer. Sections that run several times a loop, like one per module, can share
+   * a single timer.
+   *
+   * @param name Name of the section being measured, e.g. "Drive/Periodic"
+   */
+  public LoopTimer(String name) {
+    this.p50Key = "LoopTimes/" + name + "/P50Ms";
+    this.p99Key = "LoopTimes/" + name + "/P99Ms";
+    this.maxKey = "LoopTimes/" + name + "/MaxMs";
+    LoopProfiler.register(this);
+  }
+
+  /** Marks the start of the measured section. */
+  public void start() {
+    if (LoopProfiler.isEnabled()) {
+      startNanos = System.nanoTime();
+    }
+  }
+
+  /** Marks the end of the measured section, adding the time since {@link #start()} to the loop. */
+  public void stop() {
+    if (startNanos >= 0) {
+      loopNanos += System.nanoTime() - startNanos;
+      ranThisLoop = true;
+      startNanos = -1;
+    }
+  }
+
+  /** Records the time accumulated this loop, if the section ran. */
+  void endLoop() {
+    if (!ranThisLoop) {
+      return;
+    }
+    bins[getBin(loopNanos)]++;
+    sampleCount++;
+    maxNanos = Math.max(maxNanos, loopNanos);
+    loopNanos = 0;
+    ranThisLoop = false;
+  }
+
+  /** Logs the percentiles of the loops recorded since the last call and clears the histogram. */
+  void publish() {
+    if (sampleCount == 0) {
+      return;
+    }
+    Logger.recordOutput(p50Key, getPercentileNanos(0.5) / 1e6);
+    Logger.recordOutput(p99Key, getPercentileNanos(0.99) / 1e6);
+    Logger.recordOutput(maxKey, maxNanos / 1e6);
+    Arrays.fill(bins, 0);
+    sampleCount = 0;
+    maxNanos = 0;
+  }
+
+  /** Drops any section started but not stopped, used when profiling is turned off. */
+  void reset() {
+    startNanos = -1;
+    loopNanos = 0;
+    ranThisLoop = false;
+  }
+
+  private static int getBin(long nanos) {
+    if (nanos < FINE_LIMIT_NANOS) {
+      return (int) (nanos / FINE_BIN_NANOS);
+    }
+    return (int)
+        Math.min(
+            FINE_BINS + (nanos - FINE_LIMIT_NANOS) / COARSE_BIN_NANOS, FINE_BINS + COARSE_BINS);
+  }
+
+  /** Returns the upper edge of the bin containing the percentile, or the maximum if beyond. */
+  private long getPercentileNanos(double percentile) {
+    long target = (long) Math.ceil(percentile * sampleCount);
+    long count = 0;
+    for (int i = 0; i < bins.length; i++) {
+      count += bins[i];
+      if (count >= target) {
+        long upperEdge =
+            i < FINE_BINS
+                ? (i + 1) * FINE_BIN_NANOS
+                : FINE_LIMIT_NANOS + (i - FINE_BINS + 1) * COARSE_BIN_NANOS;
+        return Math.min(upperEdge, maxNanos);
+      }
+    }
+    return maxNanos;
+  }
+}
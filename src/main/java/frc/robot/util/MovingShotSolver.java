@@ -0,0 +1,125 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.DriverStation;
+
+/**
+ * Aims at the speaker while the robot is moving. A note leaves the shooter carrying the robot's
+ * velocity, so instead of the speaker itself the robot aims at a virtual target shifted back along
+ * that velocity by the note's time of flight. The time of flight depends on the distance to the
+ * virtual target, so the solver iterates from the real speaker until the target moves less than
+ * {@link #CONVERGENCE_METERS}, capped at {@link #MAX_ITERATIONS} so the cost per loop is bounded.
+ *
+ * <p>The robot position is first projected forward from the time of its odometry sample to when the
+ * setpoints take effect: the age of the sample plus the actuation latency, since the heading, pivot
+ * and flywheels only reach the new setpoints that long after they're sent.
+ */
+public class MovingShotSolver {
+  private static final int MAX_ITERATIONS = 5;
+  private static final double CONVERGENCE_METERS = 0.01;
+
+  private final ShotTable shotTable;
+  private final double latencySecs;
+
+  private ShotSolution solution;
+  private double targetX = 0.0;
+  private double targetY = 0.0;
+  private double headingDeg = 0.0;
+  private int iterations = 0;
+
+  /**
+   * Create a new MovingShotSolver
+   *
+   * @param shotTable Shots by distance, time of flight included
+   * @param latencySecs Time from sending setpoints until the note would leave the shooter
+   */
+  public MovingShotSolver(ShotTable shotTable, double latencySecs) {
+    this.shotTable = shotTable;
+    this.latencySecs = latencySecs;
+    this.solution = shotTable.getSolution(0.0);
+  }
+
+  /**
+   * Solves the shot for this loop. The heading and virtual target are available from the getters
+   * until the next call.
+   *
+   * @param pose Estimated robot pose
+   * @param poseTimestamp Timestamp in seconds of the odometry sample the pose is from, NaN if
+   *     unknown
+   * @param timestamp Current timestamp in seconds, on the same clock
+   * @param fieldSpeeds Field-relative chassis speeds
+   * @param alliance Alliance whose speaker to aim at, blue if null
+   * @return Shooter setpoints for the virtual target, reused by the next call
+   */
+  public ShotSolution solve(
+      Pose2d pose,
+      double poseTimestamp,
+      double timestamp,
+      ChassisSpeeds fieldSpeeds,
+      DriverStation.Alliance alliance) {
+    boolean red = alliance == DriverStation.Alliance.Red;
+    double speakerX = red ? FieldConstants.fieldLength : 0.0;
+    double speakerY = FieldConstants.Speaker.speakerCenterY;
+    double vx = fieldSpeeds.vxMetersPerSecond;
+    double vy = fieldSpeeds.vyMetersPerSecond;
+
+    // Where the robot will be once the setpoints take effect
+    double poseAgeSecs = Double.isNaN(poseTimestamp) ? 0.0 : Math.max(timestamp - poseTimestamp, 0);
+    double robotX = pose.getX() + vx * (poseAgeSecs + latencySecs);
+    double robotY = pose.getY() + vy * (poseAgeSecs + latencySecs);
+
+    targetX = speakerX;
+    targetY = speakerY;
+    iterations = 0;
+    while (iterations < MAX_ITERATIONS) {
+      iterations++;
+      double timeOfFlight =
+          shotTable.getSolution(Math.hypot(targetX - robotX, targetY - robotY)).timeOfFlightSecs;
+      double nextX = speakerX - vx * timeOfFlight;
+      double nextY = speakerY - vy * timeOfFlight;
+      boolean converged = Math.hypot(nextX - targetX, nextY - targetY) < CONVERGENCE_METERS;
+      targetX = nextX;
+      targetY = nextY;
+      if (converged) {
+        break;
+      }
+    }
+
+    // The shooter is on the back of the robot
+    headingDeg = Math.toDegrees(Math.atan2(targetY - robotY, targetX - robotX)) + 180;
+    solution = shotTable.getSolution(Math.hypot(targetX - robotX, targetY - robotY));
+    return solution;
+  }
+
+  /** Returns the last shot solved, reused by the next call. */
+  public ShotSolution getSolution() {
+    return solution;
+  }
+
+  /** Returns the robot heading in degrees that points the shooter at the virtual target. */
+  public double getHeadingDeg() {
+    return headingDeg;
+  }
+
+  /** Returns the virtual target of the last solve. Allocates, meant for logging. */
+  public Translation2d getVirtualTarget() {
+    return new Translation2d(targetX, targetY);
+  }
+
+  /** Returns the field x of the virtual target in meters. */
+  public double getVirtualTargetX() {
+    return targetX;
+  }
+
+  /** Returns the field y of the virtual target in meters. */
+  public double getVirtualTargetY() {
+    return targetY;
+  }
+
+  /** Returns how many iterations the last solve took. */
+  public int getIterations() {
+    return iterations;
+  }
+}
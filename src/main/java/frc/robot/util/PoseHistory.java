@@ -0,0 +1,159 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import java.util.Optional;
+
+/**
+ * Fixed-capacity history of timestamped robot poses, used to look up where the robot was when a
+ * sensor measurement was captured (note tracking, vision latency compensation, shooting on the
+ * move).
+ *
+ * <p>Samples are stored in parallel primitive arrays used as a ring buffer, so adding a sample
+ * never allocates. Lookups binary search the timestamps and linearly interpolate between the two
+ * neighbouring samples.
+ *
+ * <p>Out of range lookups: if the buffer is empty or the timestamp is older than the oldest sample,
+ * {@link #getPoseAt(double)} returns an empty Optional since the pose at that time is unknown. If
+ * the timestamp is newer than the newest sample, the newest pose is returned (no extrapolation).
+ */
+public class PoseHistory {
+  private final double[] timestamps;
+  private final double[] xs;
+  private final double[] ys;
+  private final double[] thetas;
+
+  private int head = 0; // Index of the oldest sample
+  private int size = 0;
+
+  /**
+   * Create a new PoseHistory
+   *
+   * @param capacity Maximum number of samples kept, the oldest sample is dropped when full
+   */
+  public PoseHistory(int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Pose history capacity must be positive");
+    }
+    timestamps = new double[capacity];
+    xs = new double[capacity];
+    ys = new double[capacity];
+    thetas = new double[capacity];
+  }
+
+  /**
+   * Create a new PoseHistory sized to cover a time window
+   *
+   * @param historySeconds How far back lookups should be possible
+   * @param sampleRateHz How often samples are added
+   */
+  public PoseHistory(double historySeconds, double sampleRateHz) {
+    this((int) Math.ceil(historySeconds * sampleRateHz) + 1);
+  }
+
+  /**
+   * Adds a sample. Timestamps must be increasing, a sample at or before the newest timestamp
+   * replaces every newer sample.
+   *
+   * @param timestamp Timestamp of the sample in seconds
+   * @param pose Pose of the robot at that time
+   */
+  public void addSample(double timestamp, Pose2d pose) {
+    addSample(timestamp, pose.getX(), pose.getY(), pose.getRotation().getRadians());
+  }
+
+  /**
+   * Adds a sample. Timestamps must be increasing, a sample at or before the newest timestamp
+   * replaces every newer sample.
+   *
+   * @param timestamp Timestamp of the sample in seconds
+   * @param x X position in meters
+   * @param y Y position in meters
+   * @param thetaRad Heading in radians
+   */
+  public void addSample(double timestamp, double x, double y, double thetaRad) {
+    // Drop samples that are not older than the new one, e.g. after the clock was reset
+    while (size > 0 && timestamps[physicalIndex(size - 1)] >= timestamp) {
+      size--;
+    }
+
+    int index;
+    if (size < timestamps.length) {
+      index = physicalIndex(size);
+      size++;
+    } else {
+      index = head;
+      head = (head + 1) % timestamps.length;
+    }
+    timestamps[index] = timestamp;
+    xs[index] = x;
+    ys[index] = y;
+    thetas[index] = thetaRad;
+  }
+
+  /** Removes every sample, e.g. after the pose was reset. */
+  public void clear() {
+    head = 0;
+    size = 0;
+  }
+
+  /** Returns the number of samples currently stored. */
+  public int size() {
+    return size;
+  }
+
+  /** Returns the timestamp of the oldest sample, or NaN if empty. */
+  public double getOldestTimestamp() {
+    return size == 0 ? Double.NaN : timestamps[head];
+  }
+
+  /** Returns the timestamp of the newest sample, or NaN if empty. */
+  public double getNewestTimestamp() {
+    return size == 0 ? Double.NaN : timestamps[physicalIndex(size - 1)];
+  }
+
+  /**
+   * Returns the interpolated pose at a timestamp.
+   *
+   * @param timestamp Timestamp in seconds
+   * @return The pose, empty if no samples are stored or the timestamp is older than the oldest
+   *     sample. Timestamps newer than the newest sample return the newest pose.
+   */
+  public Optional<Pose2d> getPoseAt(double timestamp) {
+    if (size == 0 || timestamp < timestamps[head]) {
+      return Optional.empty();
+    }
+
+    int newest = physicalIndex(size - 1);
+    if (timestamp >= timestamps[newest]) {
+      return Optional.of(new Pose2d(xs[newest], ys[newest], new Rotation2d(thetas[newest])));
+    }
+
+    // Binary search for the first sample after the timestamp, the oldest sample is at or before it
+    int low = 1;
+    int high = size - 1;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (timestamps[physicalIndex(mid)] > timestamp) {
+        high = mid;
+      } else {
+        low = mid + 1;
+      }
+    }
+
+    int after = physicalIndex(low);
+    int before = physicalIndex(low - 1);
+    double t = (timestamp - timestamps[before]) / (timestamps[after] - timestamps[before]);
+    double theta = thetas[before] + MathUtil.angleModulus(thetas[after] - thetas[before]) * t;
+    return Optional.of(
+        new Pose2d(
+            MathUtil.interpolate(xs[before], xs[after], t),
+            MathUtil.interpolate(ys[before], ys[after], t),
+            new Rotation2d(theta)));
+  }
+
+  private int physicalIndex(int logicalIndex) {
+    return (head + logicalIndex) % timestamps.length;
+  }
+}
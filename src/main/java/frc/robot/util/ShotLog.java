@@ -0,0 +1,214 @@
+package frc.robot.util;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary format of the shot log written by {@link ShotRecorder} and read back by the refit tool.
+ *
+ * <p>A file starts with {@link #MAGIC} and {@link #VERSION}, followed by records that each start
+ * with a type byte. A session record opens every boot, since the file is appended to across boots,
+ * and shot ids count up from 1 within a session. A result record labels an earlier shot of the same
+ * session as scored or missed, so the operator can mark a shot after seeing where it went. All
+ * values are big endian.
+ *
+ * <p>Version 2 added the shot table profile each shot was fired from, as a UTF-8 string after a
+ * short byte count, and misses labelled high or low. Version 1 logs are still read, their shots
+ * without a profile.
+ */
+public class ShotLog {
+  public static final int MAGIC = 0x53484F54; // "SHOT"
+  public static final short VERSION = 2;
+
+  public static final byte SESSION_RECORD = 0;
+  public static final byte SHOT_RECORD = 1;
+  public static final byte RESULT_RECORD = 2;
+
+  public static final int HEADER_BYTES = Integer.BYTES + Short.BYTES;
+  public static final int SESSION_RECORD_BYTES = 1 + Long.BYTES;
+  // Without the profile name
+  public static final int SHOT_RECORD_BYTES =
+      1 + Integer.BYTES + 16 * Double.BYTES + 1 + Short.BYTES;
+  public static final int RESULT_RECORD_BYTES = 1 + Integer.BYTES + 1;
+
+  /** Whether a shot went in, as marked by the operator. A plain miss went wide or wasn't seen. */
+  public static enum Result {
+    UNKNOWN,
+    SCORED,
+    MISSED,
+    MISSED_HIGH,
+    MISSED_LOW
+  }
+
+  /** One shot, sampled the loop the note left the feeder. */
+  public static class Shot {
+    public long session;
+    public int id;
+    public double timestamp;
+    public double distanceMeters;
+    public double x;
+    public double y;
+    public double headingRad;
+    public double vxMetersPerSec;
+    public double vyMetersPerSec;
+    public double omegaRadPerSec;
+    public double pivotDeg;
+    public double pivotGoalDeg;
+    public double leftRpm;
+    public double rightRpm;
+    public double leftTargetRpm;
+    public double rightTargetRpm;
+    // When the note reached the feeder and when it left, FPGA seconds
+    public double noteAcquiredTimestamp;
+    public double noteLostTimestamp;
+    public boolean staged;
+    // Shot table profile the flywheel targets came from, empty if set by hand
+    public String profile = "";
+    public Result result = Result.UNKNOWN;
+
+    /** Returns the field-relative translational speed in meters per sec. */
+    public double getSpeedMetersPerSec() {
+      return Math.hypot(vxMetersPerSec, vyMetersPerSec);
+    }
+  }
+
+  private ShotLog() {}
+
+  /** Writes the file header. */
+  public static void putHeader(ByteBuffer buffer) {
+    buffer.putInt(MAGIC).putShort(VERSION);
+  }
+
+  /** Writes a session record. */
+  public static void putSession(ByteBuffer buffer, long session) {
+    buffer.put(SESSION_RECORD).putLong(session);
+  }
+
+  /** Returns the size of a shot's record. */
+  public static int getShotRecordBytes(Shot shot) {
+    return SHOT_RECORD_BYTES + shot.profile.getBytes(StandardCharsets.UTF_8).length;
+  }
+
+  /** Writes a shot record. The session is implied by the last session record. */
+  public static void putShot(ByteBuffer buffer, Shot shot) {
+    byte[] profile = shot.profile.getBytes(StandardCharsets.UTF_8);
+    buffer
+        .put(SHOT_RECORD)
+        .putInt(shot.id)
+        .putDouble(shot.timestamp)
+        .putDouble(shot.distanceMeters)
+        .putDouble(shot.x)
+        .putDouble(shot.y)
+        .putDouble(shot.headingRad)
+        .putDouble(shot.vxMetersPerSec)
+        .putDouble(shot.vyMetersPerSec)
+        .putDouble(shot.omegaRadPerSec)
+        .putDouble(shot.pivotDeg)
+        .putDouble(shot.pivotGoalDeg)
+        .putDouble(shot.leftRpm)
+        .putDouble(shot.rightRpm)
+        .putDouble(shot.leftTargetRpm)
+        .putDouble(shot.rightTargetRpm)
+        .putDouble(shot.noteAcquiredTimestamp)
+        .putDouble(shot.noteLostTimestamp)
+        .put((byte) (shot.staged ? 1 : 0))
+        .putShort((short) profile.length)
+        .put(profile);
+  }
+
+  /** Writes a result record for an earlier shot of the current session. */
+  public static void putResult(ByteBuffer buffer, int shotId, Result result) {
+    buffer.put(RESULT_RECORD).putInt(shotId).put((byte) result.ordinal());
+  }
+
+  /**
+   * Reads every shot in a log with its result applied. A record cut off at the end of the file, as
+   * left by a brownout, ends the read instead of failing it.
+   *
+   * @param file Shot log written by {@link ShotRecorder}
+   * @throws IOException If the file can't be read or isn't a shot log
+   */
+  public static List<Shot> read(File file) throws IOException {
+    List<Shot> shots = new ArrayList<>();
+    Map<Integer, Shot> sessionShots = new HashMap<>();
+    long session = 0;
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException(file + " is not a shot log");
+      }
+      short version = in.readShort();
+      if (version != VERSION && version != 1) {
+        throw new IOException(file + " has unsupported shot log version " + version);
+      }
+      while (true) {
+        int type = in.read();
+        if (type < 0) {
+          break;
+        }
+        switch (type) {
+          case SESSION_RECORD:
+            session = in.readLong();
+            sessionShots.clear();
+            break;
+          case SHOT_RECORD:
+            Shot shot = readShot(in, version);
+            shot.session = session;
+            shots.add(shot);
+            sessionShots.put(shot.id, shot);
+            break;
+          case RESULT_RECORD:
+            Shot labelled = sessionShots.get(in.readInt());
+            int result = in.read();
+            if (labelled != null && result >= 0 && result < Result.values().length) {
+              labelled.result = Result.values()[result];
+            }
+            break;
+          default:
+            throw new IOException("Unknown shot log record type " + type + " in " + file);
+        }
+      }
+    } catch (EOFException e) {
+      // Truncated last record, keep everything before it
+    }
+    return shots;
+  }
+
+  private static Shot readShot(DataInputStream in, short version) throws IOException {
+    Shot shot = new Shot();
+    shot.id = in.readInt();
+    shot.timestamp = in.readDouble();
+    shot.distanceMeters = in.readDouble();
+    shot.x = in.readDouble();
+    shot.y = in.readDouble();
+    shot.headingRad = in.readDouble();
+    shot.vxMetersPerSec = in.readDouble();
+    shot.vyMetersPerSec = in.readDouble();
+    shot.omegaRadPerSec = in.readDouble();
+    shot.pivotDeg = in.readDouble();
+    shot.pivotGoalDeg = in.readDouble();
+    shot.leftRpm = in.readDouble();
+    shot.rightRpm = in.readDouble();
+    shot.leftTargetRpm = in.readDouble();
+    shot.rightTargetRpm = in.readDouble();
+    shot.noteAcquiredTimestamp = in.readDouble();
+    shot.noteLostTimestamp = in.readDouble();
+    shot.staged = in.readByte() != 0;
+    if (version >= 2) {
+      byte[] profile = new byte[in.readUnsignedShort()];
+      in.readFully(profile);
+      shot.profile = new String(profile, StandardCharsets.UTF_8);
+    }
+    return shot;
+  }
+}
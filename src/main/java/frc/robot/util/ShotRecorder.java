@@ -0,0 +1,190 @@
+package frc.robot.util;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import frc.robot.Constants;
+import frc.robot.subsystems.drive.Drive;
+import frc.robot.subsystems.pivot.Pivot;
+import frc.robot.subsystems.shooter.Shooter;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Records every shot to a {@link ShotLog} so the shot table can be refit from real shots between
+ * matches, see {@link frc.robot.replay.ShotRefit}. A shot is sampled the loop the shooter sees the
+ * note leave with the flywheels spinning, along with the shot table profile it was aimed with, and
+ * the operator can then mark the last shot as scored, or missed high, low or wide.
+ *
+ * <p>Records are encoded on the robot loop but written on a background thread, so file IO never
+ * holds up the loop. The log is appended to across boots, in the same directory as the robot logs.
+ * A log in an older format is moved aside and a new one started. Nothing is recorded in replay.
+ */
+public class ShotRecorder {
+  public static final String FILE_NAME = "shots.bin";
+
+  private final Drive drive;
+  private final Shooter shooter;
+  private final Pivot pivot;
+  private final boolean enabled = Constants.getMode() != Constants.Mode.REPLAY;
+  private final ExecutorService writer =
+      Executors.newSingleThreadExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "ShotRecorder");
+            thread.setDaemon(true);
+            return thread;
+          });
+  private final ShotLog.Shot shot = new ShotLog.Shot();
+
+  private OutputStream out;
+  private int lastShotCount;
+  private int shotId = 0;
+
+  /**
+   * Create a new ShotRecorder
+   *
+   * @param drive Drive, for the pose and velocity at the shot
+   * @param shooter Shooter, which detects shots
+   * @param pivot Pivot, for the angle at the shot
+   */
+  public ShotRecorder(Drive drive, Shooter shooter, Pivot pivot) {
+    this.drive = drive;
+    this.shooter = shooter;
+    this.pivot = pivot;
+    this.lastShotCount = shooter.getShotCount();
+    if (enabled) {
+      long session = System.currentTimeMillis();
+      writer.execute(() -> open(session));
+    }
+  }
+
+  /** Records a shot if the shooter saw one this loop. Call once a loop after the scheduler runs. */
+  public void periodic() {
+    int shotCount = shooter.getShotCount();
+    if (shotCount == lastShotCount) {
+      return;
+    }
+    lastShotCount = shotCount;
+
+    Pose2d pose = drive.getPose();
+    ChassisSpeeds speeds = drive.getFieldRelativeSpeeds();
+    boolean red =
+        DriverStation.getAlliance().orElse(DriverStation.Alliance.Blue)
+            == DriverStation.Alliance.Red;
+    double speakerX = red ? FieldConstants.fieldLength : 0.0;
+
+    shot.id = ++shotId;
+    shot.timestamp = shooter.getNoteLostTimestamp();
+    shot.distanceMeters =
+        Math.hypot(pose.getX() - speakerX, pose.getY() - FieldConstants.Speaker.speakerCenterY);
+    shot.x = pose.getX();
+    shot.y = pose.getY();
+    shot.headingRad = pose.getRotation().getRadians();
+    shot.vxMetersPerSec = speeds.vxMetersPerSecond;
+    shot.vyMetersPerSec = speeds.vyMetersPerSecond;
+    shot.omegaRadPerSec = speeds.omegaRadiansPerSecond;
+    shot.pivotDeg = pivot.getPivotPositionDegs();
+    shot.pivotGoalDeg = pivot.getPivotGoal();
+    double[] velocities = shooter.getFlywheelVelocitiesRPM();
+    shot.leftRpm = velocities[0];
+    shot.rightRpm = velocities[1];
+    shot.leftTargetRpm = shooter.getLeftTargetRPM();
+    shot.rightTargetRpm = shooter.getRightTargetRPM();
+    shot.noteAcquiredTimestamp = shooter.getNoteAcquiredTimestamp();
+    shot.noteLostTimestamp = shooter.getNoteLostTimestamp();
+    shot.staged = shooter.isNoteStaged();
+    shot.profile = shooter.getShotProfile();
+    Logger.recordOutput("ShotRecorder/ShotId", shot.id);
+    Logger.recordOutput("ShotRecorder/DistanceMeters", shot.distanceMeters);
+    Logger.recordOutput("ShotRecorder/Profile", shot.profile);
+
+    if (enabled) {
+      ByteBuffer buffer = ByteBuffer.allocate(ShotLog.getShotRecordBytes(shot));
+      ShotLog.putShot(buffer, shot);
+      write(buffer);
+    }
+  }
+
+  /**
+   * Marks the last shot recorded this session.
+   *
+   * @param result Whether the note went in, or which way it missed
+   */
+  public void markLastShot(ShotLog.Result result) {
+    if (shotId == 0) {
+      return;
+    }
+    Logger.recordOutput("ShotRecorder/LastResult", result.name());
+    if (enabled) {
+      ByteBuffer buffer = ByteBuffer.allocate(ShotLog.RESULT_RECORD_BYTES);
+      ShotLog.putResult(buffer, shotId, result);
+      write(buffer);
+    }
+  }
+
+  private void open(long session) {
+    File directory =
+        Constants.getMode() == Constants.Mode.REAL
+            ? new File("/logs")
+            : new File(Filesystem.getOperatingDirectory(), "logs");
+    File file = new File(directory, FILE_NAME);
+    try {
+      directory.mkdirs();
+      short version = readVersion(file);
+      if (version != ShotLog.VERSION && version >= 0) {
+        File old = new File(directory, "shots_v" + version + ".bin");
+        if (!file.renameTo(old)) {
+          throw new IOException("Could not move the old shot log to " + old);
+        }
+      }
+      boolean newFile = !file.exists() || file.length() == 0;
+      out = new BufferedOutputStream(new FileOutputStream(file, true));
+      ByteBuffer buffer = ByteBuffer.allocate(ShotLog.HEADER_BYTES + ShotLog.SESSION_RECORD_BYTES);
+      if (newFile) {
+        ShotLog.putHeader(buffer);
+      }
+      ShotLog.putSession(buffer, session);
+      out.write(buffer.array(), 0, buffer.position());
+      out.flush();
+    } catch (IOException e) {
+      DriverStation.reportWarning("Shot log " + file + " unavailable: " + e.getMessage(), false);
+      out = null;
+    }
+  }
+
+  /** Returns the format version of an existing log, or -1 if there is none. */
+  private static short readVersion(File file) throws IOException {
+    if (!file.exists() || file.length() < ShotLog.HEADER_BYTES) {
+      return -1;
+    }
+    try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+      in.readInt();
+      return in.readShort();
+    }
+  }
+
+  private void write(ByteBuffer buffer) {
+    writer.execute(
+        () -> {
+          if (out == null) {
+            return;
+          }
+          try {
+            out.write(buffer.array(), 0, buffer.position());
+            out.flush();
+          } catch (IOException e) {
+            DriverStation.reportWarning("Shot log write failed: " + e.getMessage(), false);
+          }
+        });
+  }
+}
@@ -0,0 +1,13 @@
+package frc.robot.util;
+
+/**
+ * Shooter setpoints for one shot, as returned by {@link ShotTable}. The table reuses one instance
+ * for every lookup, copy the values if they need to outlive the current cycle.
+ */
+public class ShotSolution {
+  public double distanceMeters = 0.0;
+  public double pivotDeg = 0.0;
+  public double leftRpm = 0.0;
+  public double rightRpm = 0.0;
+  public double timeOfFlightSecs = 0.0;
+}
@@ -0,0 +1,267 @@
+package frc.robot.util;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
+import frc.robot.Constants;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Shot solutions for the speaker by distance for one aimbot command, looked up from a calibration
+ * file in the deploy directory. Lookups are constant time and don't allocate.
+ *
+ * <p>The calibration file holds one profile per command, each listing shots (distance, pivot angle,
+ * flywheel RPMs and time of flight). With "polynomialDegree" 0 the table interpolates linearly
+ * between the samples, and two samples at the same distance make a step there, the first one
+ * applying at that distance. Otherwise each value is fit with a {@link PolynomialRegression} of
+ * that degree, which smooths noisy measurements. Values are held at the first and last sample
+ * outside the calibrated range.
+ *
+ * <p>A profile with "sideSpin" adds spin to one wheel when the robot is far enough from the speaker
+ * and off toward the source or amp side, to curve the note toward the speaker.
+ */
+public class ShotTable {
+  public static final String DEFAULT_FILE = "shooting/speaker_shots.json";
+  public static final String TELEOP = "teleop";
+  public static final String AUTO = "auto";
+  public static final String STATIC = "static";
+
+  /** Contents of the calibration file. */
+  public static class Calibration {
+    public String description = "";
+    public double tableStepMeters = 0.01;
+    public Map<String, Profile> profiles = new LinkedHashMap<>();
+  }
+
+  /** Shots for one aimbot command. */
+  public static class Profile {
+    public String description = "";
+    public int polynomialDegree = 0;
+    public SideSpin sideSpin = null;
+    public Sample[] samples = new Sample[0];
+  }
+
+  /** Extra spin on one wheel when the robot is off to one side of the speaker. */
+  public static class SideSpin {
+    public double minDistanceMeters;
+    public double sourceSideMaxY;
+    public double ampSideMinY;
+    public double differentialRpm;
+  }
+
+  /** One calibrated shot. */
+  public static class Sample {
+    public double distanceMeters;
+    public double pivotDeg;
+    public double leftRpm;
+    public double rightRpm;
+    public double timeOfFlightSecs;
+  }
+
+  private final String name;
+  private final double minDistance;
+  private final double stepMeters;
+  private final SideSpin sideSpin;
+  private final double[] distances;
+  private final double[] pivotDeg;
+  private final double[] leftRpm;
+  private final double[] rightRpm;
+  private final double[] timeOfFlightSecs;
+  // First segment to check for a lookup in each table step
+  private final int[] segmentStart;
+  private final ShotSolution solution = new ShotSolution();
+
+  /**
+   * Create a new ShotTable
+   *
+   * @param name Name of the profile, recorded with every shot fired from it
+   * @param profile Calibrated shots, at least one sample
+   * @param tableStepMeters Step of the lookup index, smaller steps search fewer segments per lookup
+   */
+  public ShotTable(String name, Profile profile, double tableStepMeters) {
+    this.name = name;
+    Sample[] samples = profile.samples.clone();
+    if (samples.length == 0) {
+      throw new IllegalArgumentException("Shot profile has no samples");
+    }
+    if (tableStepMeters <= 0.0) {
+      throw new IllegalArgumentException("Shot table step must be positive");
+    }
+    // Stable sort, so the samples of a step keep their order
+    Arrays.sort(samples, (a, b) -> Double.compare(a.distanceMeters, b.distanceMeters));
+
+    minDistance = samples[0].distanceMeters;
+    stepMeters = tableStepMeters;
+    sideSpin = profile.sideSpin;
+
+    double[] sampleDistances = new double[samples.length];
+    double[] pivots = new double[samples.length];
+    double[] lefts = new double[samples.length];
+    double[] rights = new double[samples.length];
+    double[] times = new double[samples.length];
+    for (int i = 0; i < samples.length; i++) {
+      sampleDistances[i] = samples[i].distanceMeters;
+      pivots[i] = samples[i].pivotDeg;
+      lefts[i] = samples[i].leftRpm;
+      rights[i] = samples[i].rightRpm;
+      times[i] = samples[i].timeOfFlightSecs;
+    }
+
+    double maxDistance = sampleDistances[samples.length - 1];
+    int size = (int) ((maxDistance - minDistance) / stepMeters) + 1;
+    int degree = Math.min(profile.polynomialDegree, samples.length - 1);
+    if (degree > 0) {
+      // Sample the fit at every table step and interpolate between those
+      distances = new double[size];
+      for (int i = 0; i < size; i++) {
+        distances[i] = Math.min(minDistance + i * stepMeters, maxDistance);
+      }
+      pivotDeg = fitColumn(sampleDistances, pivots, degree);
+      leftRpm = fitColumn(sampleDistances, lefts, degree);
+      rightRpm = fitColumn(sampleDistances, rights, degree);
+      timeOfFlightSecs = fitColumn(sampleDistances, times, degree);
+    } else {
+      distances = sampleDistances;
+      pivotDeg = pivots;
+      leftRpm = lefts;
+      rightRpm = rights;
+      timeOfFlightSecs = times;
+    }
+
+    segmentStart = new int[size];
+    int segment = 0;
+    for (int i = 0; i < size; i++) {
+      double stepStart = minDistance + i * stepMeters;
+      while (segment + 1 < distances.length && distances[segment + 1] < stepStart) {
+        segment++;
+      }
+      segmentStart[i] = segment;
+    }
+  }
+
+  /**
+   * Loads one profile of a calibration file in the deploy directory. If the profile can't be read,
+   * the error is reported to the driver station and a table holding only a subwoofer shot is
+   * returned so the robot can still shoot.
+   *
+   * @param fileName Path relative to the deploy directory
+   * @param profileName Profile to load, such as {@link #TELEOP}
+   */
+  public static ShotTable load(String fileName, String profileName) {
+    File file = new File(Filesystem.getDeployDirectory(), fileName);
+    try {
+      ObjectMapper mapper =
+          new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+      Calibration calibration = mapper.readValue(file, Calibration.class);
+      Profile profile = calibration.profiles.get(profileName);
+      if (profile == null) {
+        throw new IllegalArgumentException("No profile \"" + profileName + "\"");
+      }
+      return new ShotTable(profileName, profile, calibration.tableStepMeters);
+    } catch (IOException | IllegalArgumentException e) {
+      DriverStation.reportError(
+          "Failed to load shot table " + file + " " + profileName + ": " + e.getMessage(), false);
+      Sample subwooferShot = new Sample();
+      subwooferShot.distanceMeters = 1.0;
+      subwooferShot.pivotDeg = Constants.PivotConstants.SUBWOOFER_SETPOINT_DEG;
+      subwooferShot.leftRpm = Constants.ShooterConstants.FLYWHEEL_SHOOT_RPM;
+      subwooferShot.rightRpm = Constants.ShooterConstants.FLYWHEEL_SHOOT_RPM;
+      Profile fallback = new Profile();
+      fallback.samples = new Sample[] {subwooferShot};
+      // Named apart from the profile, so shots fired from it aren't refit into the profile
+      return new ShotTable(profileName + " fallback", fallback, 0.01);
+    }
+  }
+
+  /** Returns the name of the profile, such as {@link #TELEOP}. */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the shot for a distance, without side spin.
+   *
+   * @param distanceMeters Horizontal distance to the speaker
+   * @return The solution, reused by the next lookup
+   */
+  public ShotSolution getSolution(double distanceMeters) {
+    int last = distances.length - 1;
+    if (distanceMeters <= distances[0]) {
+      setSolution(distanceMeters, 0, 0, 0.0);
+    } else if (distanceMeters > distances[last]) {
+      setSolution(distanceMeters, last, last, 0.0);
+    } else {
+      int step =
+          Math.min((int) ((distanceMeters - minDistance) / stepMeters), segmentStart.length - 1);
+      int segment = segmentStart[step];
+      while (distances[segment + 1] < distanceMeters) {
+        segment++;
+      }
+      double t =
+          (distanceMeters - distances[segment]) / (distances[segment + 1] - distances[segment]);
+      setSolution(distanceMeters, segment, segment + 1, t);
+    }
+    return solution;
+  }
+
+  /**
+   * Returns the shot for a distance, with side spin if the profile has it.
+   *
+   * @param distanceMeters Horizontal distance to the speaker
+   * @param robotY Field Y of the robot, in blue alliance coordinates
+   * @param redAlliance Whether the robot is shooting at the red speaker
+   * @return The solution, reused by the next lookup
+   */
+  public ShotSolution getSolution(double distanceMeters, double robotY, boolean redAlliance) {
+    getSolution(distanceMeters);
+    if (sideSpin == null || distanceMeters <= sideSpin.minDistanceMeters) {
+      return solution;
+    }
+    // Facing the blue speaker the source side is to the shooter's right, facing red it's the left
+    if (robotY < sideSpin.sourceSideMaxY) {
+      if (redAlliance) {
+        solution.leftRpm += sideSpin.differentialRpm;
+      } else {
+        solution.rightRpm += sideSpin.differentialRpm;
+      }
+    } else if (robotY > sideSpin.ampSideMinY) {
+      if (redAlliance) {
+        solution.rightRpm += sideSpin.differentialRpm;
+      } else {
+        solution.leftRpm += sideSpin.differentialRpm;
+      }
+    }
+    return solution;
+  }
+
+  private void setSolution(double distanceMeters, int lower, int upper, double t) {
+    solution.distanceMeters = distanceMeters;
+    solution.pivotDeg = MathUtil.interpolate(pivotDeg[lower], pivotDeg[upper], t);
+    solution.leftRpm = MathUtil.interpolate(leftRpm[lower], leftRpm[upper], t);
+    solution.rightRpm = MathUtil.interpolate(rightRpm[lower], rightRpm[upper], t);
+    solution.timeOfFlightSecs =
+        MathUtil.interpolate(timeOfFlightSecs[lower], timeOfFlightSecs[upper], t);
+  }
+
+  /** Evaluates a fit of one value at every table distance, clamped to the calibrated range. */
+  private double[] fitColumn(double[] sampleDistances, double[] values, int degree) {
+    double min = Double.POSITIVE_INFINITY;
+    double max = Double.NEGATIVE_INFINITY;
+    for (double value : values) {
+      min = Math.min(min, value);
+      max = Math.max(max, value);
+    }
+    PolynomialRegression regression = new PolynomialRegression(sampleDistances, values, degree);
+    double[] column = new double[distances.length];
+    for (int i = 0; i < distances.length; i++) {
+      column[i] = MathUtil.clamp(regression.predict(distances[i]), min, max);
+    }
+    return column;
+  }
+}